@@ -0,0 +1,80 @@
+package com.fmgodoi.minhasfinancas.api.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.fmgodoi.minhasfinancas.benchmark.ServidorBenchmark;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+/**
+ * Carga HTTP sobre {@code buscar} e {@code obterSaldo} com mais clientes
+ * simultâneos que o pool padrão do Tomcat (200 threads). O modo sample traz o
+ * p99 de cada {@code modo} de {@link ServidorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+public class CargaHttpBenchmark {
+
+	ServidorBenchmark servidor;
+	Map<Long, String> tokens = new HashMap<>();
+
+	@Setup(Level.Trial)
+	public void preparar(ServidorBenchmark servidor) {
+		// Mantém uma conexão keep-alive por thread cliente
+		System.setProperty("http.maxConnections", "512");
+		this.servidor = servidor;
+		TokenService tokenService = servidor.bean(TokenService.class);
+		for (Usuario usuario : servidor.cadastrados) {
+			tokens.put(usuario.getId(), tokenService.gerarToken(usuario.getId()).getValor());
+		}
+	}
+
+	@Benchmark
+	public int buscar() throws IOException {
+		long usuario = servidor.usuarioQualquer().getId();
+		int ano = 2018 + ThreadLocalRandom.current().nextInt(3);
+		return get(usuario, "/api/lancamentos?usuario=" + usuario + "&ano=" + ano + "&limit=50");
+	}
+
+	@Benchmark
+	public int obterSaldo() throws IOException {
+		long usuario = servidor.usuarioQualquer().getId();
+		return get(usuario, "/api/usuarios/" + usuario + "/saldo");
+	}
+
+	private int get(long usuario, String caminho) throws IOException {
+		HttpURLConnection conexao = (HttpURLConnection) new URL(servidor.url(caminho)).openConnection();
+		conexao.setRequestProperty("Authorization", "Bearer " + tokens.get(usuario));
+		int status = conexao.getResponseCode();
+		byte[] buffer = new byte[8192];
+		try (InputStream corpo = status < 400 ? conexao.getInputStream() : conexao.getErrorStream()) {
+			while (corpo != null && corpo.read(buffer) != -1) {
+				// consome o corpo para reaproveitar a conexão
+			}
+		}
+		if (status != 200) {
+			throw new IllegalStateException("HTTP " + status + " em " + caminho);
+		}
+		return status;
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.fmgodoi.minhasfinancas.api.resource;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fmgodoi.minhasfinancas.api.dto.LancamentoDTO;
+import com.fmgodoi.minhasfinancas.benchmark.BaseDadosBenchmark;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LancamentoResourceBenchmark {
+
+	LancamentoResource resource;
+	LancamentoDTO dto;
+
+	@Setup(Level.Trial)
+	public void preparar(BaseDadosBenchmark base) {
+		resource = base.bean(LancamentoResource.class);
+		dto = LancamentoDTO.builder().descricao("Mercado").mes(5).ano(2020).valor(BigDecimal.valueOf(15025, 2))
+				.usuario(base.usuarioQualquer().getId()).tipo("DESPESA").status("PENDENTE").build();
+	}
+
+	@Benchmark
+	public Lancamento converter() {
+		return resource.converter(dto);
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fmgodoi.minhasfinancas.MinhasfinancasApplication;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.UsuarioService;
+
+import model.enums.TipoLancamento;
+
+/**
+ * Sobe a aplicação sobre um H2 em memória e cadastra {@code usuarios} usuários
+ * com {@code lancamentosPorUsuario} lançamentos cada.
+ */
+@State(Scope.Benchmark)
+public class BaseDadosBenchmark {
+
+	public static final String SENHA = "senha";
+
+	static final String[] DESCRICOES = { "Salário", "Aluguel", "Mercado", "Farmácia", "Combustível", "Restaurante",
+			"Energia elétrica", "Internet", "Academia", "Cinema" };
+
+	@Param("100")
+	public int usuarios;
+
+	@Param("100")
+	public int lancamentosPorUsuario;
+
+	public ConfigurableApplicationContext contexto;
+
+	public List<Usuario> cadastrados;
+
+	@Setup(Level.Trial)
+	public void iniciar() {
+		contexto = configurar(new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.web(WebApplicationType.NONE).profiles("test")
+				.properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;"
+						+ "INIT=CREATE SCHEMA IF NOT EXISTS financas", "logging.level.root=WARN"))
+				.run();
+
+		UsuarioService usuarioService = bean(UsuarioService.class);
+		LancamentoService lancamentoService = bean(LancamentoService.class);
+		Random random = new Random(42);
+
+		cadastrados = new ArrayList<>(usuarios);
+		for (int u = 0; u < usuarios; u++) {
+			Usuario usuario = usuarioService.salvarUsuario(Usuario.builder().nome("usuario " + u)
+					.email(email(u)).senha(SENHA).build());
+			cadastrados.add(usuario);
+
+			List<Lancamento> lancamentos = new ArrayList<>(lancamentosPorUsuario);
+			for (int l = 0; l < lancamentosPorUsuario; l++) {
+				lancamentos.add(novoLancamento(usuario, random));
+			}
+			lancamentoService.salvarLote(lancamentos);
+		}
+	}
+
+	protected SpringApplicationBuilder configurar(SpringApplicationBuilder builder) {
+		return builder;
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+	}
+
+	public <T> T bean(Class<T> tipo) {
+		return contexto.getBean(tipo);
+	}
+
+	public Usuario usuarioQualquer() {
+		return cadastrados.get(ThreadLocalRandom.current().nextInt(cadastrados.size()));
+	}
+
+	public static String email(int indice) {
+		return "usuario" + indice + "@email.com";
+	}
+
+	public static Lancamento novoLancamento(Usuario usuario, Random random) {
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(DESCRICOES[random.nextInt(DESCRICOES.length)] + " " + random.nextInt(1000));
+		lancamento.setAno(2018 + random.nextInt(3));
+		lancamento.setMes(1 + random.nextInt(12));
+		lancamento.setValor(BigDecimal.valueOf(1 + random.nextInt(500000), 2));
+		lancamento.setTipo(random.nextInt(4) == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA);
+		lancamento.setUsuario(usuario);
+		return lancamento;
+	}
+
+}
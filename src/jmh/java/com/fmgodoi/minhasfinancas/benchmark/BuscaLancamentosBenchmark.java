@@ -0,0 +1,58 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuscaLancamentosBenchmark {
+
+	@Param({ "USUARIO", "USUARIO_ANO", "USUARIO_ANO_MES", "DESCRICAO" })
+	public String filtro;
+
+	LancamentoService service;
+
+	@Setup(Level.Trial)
+	public void preparar(BaseDadosBenchmark base) {
+		service = base.bean(LancamentoService.class);
+	}
+
+	@Benchmark
+	public List<Lancamento> buscar(BaseDadosBenchmark base) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setUsuario(base.usuarioQualquer());
+
+		switch (filtro) {
+		case "USUARIO_ANO_MES":
+			lancamentoFiltro.setMes(1 + random.nextInt(12));
+		case "USUARIO_ANO":
+			lancamentoFiltro.setAno(2018 + random.nextInt(3));
+			break;
+		case "DESCRICAO":
+			lancamentoFiltro.setDescricao(BaseDadosBenchmark.DESCRICOES[random.nextInt(
+					BaseDadosBenchmark.DESCRICOES.length)].substring(0, 4).toLowerCase());
+			break;
+		default:
+			break;
+		}
+
+		return service.buscar(lancamentoFiltro);
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fmgodoi.minhasfinancas.api.dto.LancamentoDTO;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+/**
+ * Custo de serializar a resposta da busca e de desserializar um lote de
+ * inclusão em cada formato negociável. O tamanho por lançamento é impresso ao
+ * fim de cada execução.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatosSerializacaoBenchmark {
+
+	private static final TypeReference<List<LancamentoDTO>> LOTE = new TypeReference<List<LancamentoDTO>>() {
+	};
+
+	@Param({ "JSON", "SMILE", "CBOR" })
+	public String formato;
+
+	@Param({ "100", "1000" })
+	public int quantidade;
+
+	ObjectMapper mapper;
+	List<LancamentoView> lancamentos;
+	byte[] resposta;
+	byte[] lote;
+
+	@Setup(Level.Trial)
+	public void preparar() throws IOException {
+		mapper = builder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+		Random random = new Random(42);
+		lancamentos = new ArrayList<>(quantidade);
+		List<LancamentoDTO> dtos = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			String descricao = BaseDadosBenchmark.DESCRICOES[random.nextInt(BaseDadosBenchmark.DESCRICOES.length)]
+					+ " " + random.nextInt(1000);
+			int ano = 2018 + random.nextInt(3);
+			int mes = 1 + random.nextInt(12);
+			BigDecimal valor = BigDecimal.valueOf(1 + random.nextInt(500000), 2);
+			TipoLancamento tipo = random.nextBoolean() ? TipoLancamento.RECEITA : TipoLancamento.DESPESA;
+			lancamentos.add(new LancamentoView((long) i, descricao, mes, ano, valor, 1L, tipo,
+					StatusLancamento.PENDENTE, LocalDate.of(ano, mes, 1)));
+			dtos.add(LancamentoDTO.builder().descricao(descricao).mes(mes).ano(ano).valor(valor).usuario(1L)
+					.tipo(tipo.name()).build());
+		}
+
+		resposta = mapper.writeValueAsBytes(lancamentos);
+		lote = mapper.writeValueAsBytes(dtos);
+	}
+
+	@TearDown(Level.Trial)
+	public void relatar() {
+		System.out.printf("%n%s: resposta %.1f bytes/lançamento, lote %.1f bytes/lançamento%n", formato,
+				(double) resposta.length / quantidade, (double) lote.length / quantidade);
+	}
+
+	@Benchmark
+	public byte[] serializarResposta() throws IOException {
+		return mapper.writeValueAsBytes(lancamentos);
+	}
+
+	@Benchmark
+	public List<LancamentoDTO> desserializarLote() throws IOException {
+		return mapper.readValue(lote, LOTE);
+	}
+
+	private Jackson2ObjectMapperBuilder builder() {
+		switch (formato) {
+		case "SMILE":
+			return Jackson2ObjectMapperBuilder.smile();
+		case "CBOR":
+			return Jackson2ObjectMapperBuilder.cbor();
+		default:
+			return Jackson2ObjectMapperBuilder.json();
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.service.GravacaoAgrupadaService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Inclusões concorrentes de um lançamento por operação, com {@code modo}
+ * alternando entre uma transação por requisição e a gravação agrupada. O
+ * throughput é de lançamentos/s; no modo agrupado, o número de transações
+ * acumulado é impresso ao final de cada iteração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GravacaoAgrupadaBenchmark extends BaseDadosBenchmark {
+
+	@Param({ "individual", "agrupado" })
+	public String modo;
+
+	GravacaoAgrupadaService gravacao;
+
+	@Override
+	protected SpringApplicationBuilder configurar(SpringApplicationBuilder builder) {
+		return builder.properties("minhasfinancas.gravacao-agrupada.habilitado=" + "agrupado".equals(modo));
+	}
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		gravacao = bean(GravacaoAgrupadaService.class);
+	}
+
+	@TearDown(Level.Iteration)
+	public void relatar() {
+		MeterRegistry registry = bean(MeterRegistry.class);
+		FunctionCounter lotes = registry.find("minhasfinancas.gravacao-agrupada.lotes").functionCounter();
+		FunctionCounter lancamentos = registry.find("minhasfinancas.gravacao-agrupada.lancamentos").functionCounter();
+		if (lotes != null && lotes.count() > 0) {
+			System.out.printf("%n%.0f lançamentos em %.0f transações (%.1f por transação)%n", lancamentos.count(),
+					lotes.count(), lancamentos.count() / lotes.count());
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Lancamento salvar1Cliente() {
+		return salvar();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Lancamento salvar16Clientes() {
+		return salvar();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public Lancamento salvar64Clientes() {
+		return salvar();
+	}
+
+	private Lancamento salvar() {
+		return gravacao.salvar(novoLancamento(usuarioQualquer(), ThreadLocalRandom.current()));
+	}
+
+}
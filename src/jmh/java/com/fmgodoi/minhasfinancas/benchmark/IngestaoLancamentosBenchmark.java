@@ -0,0 +1,67 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ResultadoLote;
+
+/**
+ * Compara a inclusão linha a linha com {@code salvarLote}. Cada operação grava
+ * {@link #LINHAS} lançamentos, então o resultado em ops/s corresponde a linhas/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IngestaoLancamentosBenchmark {
+
+	static final int LINHAS = 1000;
+
+	BaseDadosBenchmark base;
+	LancamentoService service;
+	Random random = new Random(13);
+	List<Lancamento> lancamentos;
+
+	@Setup(Level.Trial)
+	public void preparar(BaseDadosBenchmark base) {
+		this.base = base;
+		service = base.bean(LancamentoService.class);
+	}
+
+	@Setup(Level.Invocation)
+	public void gerar() {
+		lancamentos = new ArrayList<>(LINHAS);
+		for (int i = 0; i < LINHAS; i++) {
+			lancamentos.add(BaseDadosBenchmark.novoLancamento(base.usuarioQualquer(), random));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINHAS)
+	public int salvarLinhaALinha() {
+		for (Lancamento lancamento : lancamentos) {
+			service.salvar(lancamento);
+		}
+		return lancamentos.size();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINHAS)
+	public ResultadoLote salvarLote() {
+		return service.salvarLote(lancamentos);
+	}
+
+}
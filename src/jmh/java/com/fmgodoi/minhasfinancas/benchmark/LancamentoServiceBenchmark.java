@@ -0,0 +1,44 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LancamentoServiceBenchmark {
+
+	LancamentoService service;
+	Lancamento valido;
+
+	@Setup(Level.Trial)
+	public void preparar(BaseDadosBenchmark base) {
+		service = base.bean(LancamentoService.class);
+		valido = BaseDadosBenchmark.novoLancamento(base.usuarioQualquer(), new Random(7));
+	}
+
+	@Benchmark
+	public Lancamento validar() {
+		service.validar(valido);
+		return valido;
+	}
+
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario(BaseDadosBenchmark base) {
+		return service.obterSaldoPorUsuario(base.usuarioQualquer().getId());
+	}
+
+}
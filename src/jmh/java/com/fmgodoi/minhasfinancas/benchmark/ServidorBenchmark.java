@@ -0,0 +1,30 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Igual a {@link BaseDadosBenchmark}, mas com o Tomcat embarcado em uma porta
+ * livre. {@code modo} alterna entre o pool de threads de plataforma do Tomcat
+ * e threads virtuais (exige JDK 21+).
+ */
+@State(Scope.Benchmark)
+public class ServidorBenchmark extends BaseDadosBenchmark {
+
+	@Param({ "plataforma", "virtual" })
+	public String modo;
+
+	@Override
+	protected SpringApplicationBuilder configurar(SpringApplicationBuilder builder) {
+		return builder.web(WebApplicationType.SERVLET).properties("server.port=0",
+				"minhasfinancas.threads-virtuais.habilitado=" + "virtual".equals(modo));
+	}
+
+	public String url(String caminho) {
+		return "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + caminho;
+	}
+
+}
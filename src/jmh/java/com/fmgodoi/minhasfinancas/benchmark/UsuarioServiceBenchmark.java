@@ -0,0 +1,36 @@
+package com.fmgodoi.minhasfinancas.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.UsuarioService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UsuarioServiceBenchmark {
+
+	UsuarioService service;
+
+	@Setup(Level.Trial)
+	public void preparar(BaseDadosBenchmark base) {
+		service = base.bean(UsuarioService.class);
+	}
+
+	@Benchmark
+	public Usuario autenticar(BaseDadosBenchmark base) {
+		int indice = ThreadLocalRandom.current().nextInt(base.usuarios);
+		return service.autenticar(BaseDadosBenchmark.email(indice), BaseDadosBenchmark.SENHA);
+	}
+
+}
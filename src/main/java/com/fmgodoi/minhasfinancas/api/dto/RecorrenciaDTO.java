@@ -0,0 +1,28 @@
+package com.fmgodoi.minhasfinancas.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecorrenciaDTO {
+
+	private Long id;
+	private String descricao;
+	private BigDecimal valor;
+	private String tipo;
+	private Long usuario;
+	private Integer anoInicio;
+	private Integer mesInicio;
+	private Integer quantidade;
+	private Integer anoFim;
+	private Integer mesFim;
+	private boolean parcelada;
+
+}
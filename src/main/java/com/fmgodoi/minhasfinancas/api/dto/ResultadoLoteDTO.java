@@ -0,0 +1,20 @@
+package com.fmgodoi.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import com.fmgodoi.minhasfinancas.service.ErroLote;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ResultadoLoteDTO {
+
+	private int recebidos;
+	private int inseridos;
+	private List<ErroLote> erros;
+	private long duracaoMs;
+	private long linhasPorSegundo;
+
+}
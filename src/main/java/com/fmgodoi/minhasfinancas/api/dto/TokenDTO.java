@@ -0,0 +1,18 @@
+package com.fmgodoi.minhasfinancas.api.dto;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class TokenDTO {
+
+	private Long id;
+	private String nome;
+	private String email;
+	private String token;
+	private Instant expiraEm;
+
+}
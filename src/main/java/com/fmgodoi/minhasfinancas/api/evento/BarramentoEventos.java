@@ -0,0 +1,340 @@
+package com.fmgodoi.minhasfinancas.api.evento;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fmgodoi.minhasfinancas.config.ConsistenciaLeitura;
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Barramento dos eventos de {@code /api/usuarios/{id}/eventos}. Os
+ * lançamentos alterados chegam depois do commit e entram em uma fila única;
+ * uma thread lê o saldo uma vez por evento e o distribui aos assinantes do
+ * usuário. Cada assinante tem um buffer limitado esvaziado por um pool
+ * pequeno de envio, de modo que um cliente lento não atrasa os demais: se o
+ * buffer encher, a conexão é encerrada e o cliente reconecta recebendo o
+ * saldo atual.
+ *
+ * Conexões ociosas não ocupam threads (requisição assíncrona do servlet); o
+ * custo de cada uma é o {@link SseEmitter} e o seu buffer.
+ *
+ * Os eventos vêm do {@link TransactionalEventListener} desta instância, então
+ * só chegam aos assinantes conectados à instância que fez a alteração. Com
+ * mais de uma instância, o cliente conectado a outra só vê a alteração ao
+ * reconectar e receber o saldo atual.
+ */
+@Slf4j
+@Component
+public class BarramentoEventos implements MeterBinder {
+
+	static final String EVENTO_SALDO = "saldo";
+	static final String EVENTO_LANCAMENTO = "lancamento";
+
+	private static final Object PULSO = new Object();
+	private static final long ESPERA_FILA_VAZIA_MS = 100;
+
+	private final LancamentoService lancamentoService;
+	private final int tamanhoBuffer;
+	private final int maximoPorUsuario;
+	private final int maximoAssinantes;
+	private final long timeoutMs;
+	private final BlockingQueue<Publicacao> fila;
+	private final Executor envio;
+	private final Map<Long, Set<Assinante>> assinantes = new ConcurrentHashMap<>();
+	private final AtomicInteger conectados = new AtomicInteger();
+	private final AtomicLong entregues = new AtomicLong();
+	private final AtomicLong lentos = new AtomicLong();
+	private final AtomicLong perdidos = new AtomicLong();
+	private volatile boolean ativo;
+	private Thread distribuidor;
+
+	@Autowired
+	public BarramentoEventos(LancamentoService lancamentoService,
+			@Value("${minhasfinancas.eventos.buffer:32}") int tamanhoBuffer,
+			@Value("${minhasfinancas.eventos.maximo-por-usuario:5}") int maximoPorUsuario,
+			@Value("${minhasfinancas.eventos.maximo-assinantes:10000}") int maximoAssinantes,
+			@Value("${minhasfinancas.eventos.timeout-minutos:30}") long timeoutMinutos,
+			@Value("${minhasfinancas.eventos.fila:10000}") int fila,
+			@Value("${minhasfinancas.eventos.threads-envio:4}") int threadsEnvio) {
+		this(lancamentoService, tamanhoBuffer, maximoPorUsuario, maximoAssinantes, timeoutMinutos, fila,
+				Executors.newFixedThreadPool(threadsEnvio, new CustomizableThreadFactory("eventos-envio-")));
+	}
+
+	BarramentoEventos(LancamentoService lancamentoService, int tamanhoBuffer, int maximoPorUsuario,
+			int maximoAssinantes, long timeoutMinutos, int fila, Executor envio) {
+		this.lancamentoService = lancamentoService;
+		this.tamanhoBuffer = tamanhoBuffer;
+		this.maximoPorUsuario = maximoPorUsuario;
+		this.maximoAssinantes = maximoAssinantes;
+		this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutos);
+		this.fila = new ArrayBlockingQueue<>(fila);
+		this.envio = envio;
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		ativo = true;
+		distribuidor = new Thread(this::distribuir, "eventos-distribuidor");
+		distribuidor.setDaemon(true);
+		distribuidor.start();
+	}
+
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		ativo = false;
+		if (distribuidor != null) {
+			distribuidor.join(TimeUnit.SECONDS.toMillis(5));
+		}
+		assinantes.values().forEach(usuario -> usuario.forEach(Assinante::encerrar));
+		if (envio instanceof ExecutorService) {
+			((ExecutorService) envio).shutdown();
+		}
+	}
+
+	/**
+	 * Registra a conexão e envia o saldo atual como primeiro evento.
+	 *
+	 * @throws RejectedExecutionException quando o usuário ou a instância já
+	 *                                    tiverem o máximo de conexões abertas
+	 */
+	public SseEmitter assinar(Long idUsuario) {
+		if (conectados.incrementAndGet() > maximoAssinantes) {
+			conectados.decrementAndGet();
+			throw new RejectedExecutionException("Limite de conexões de eventos atingido.");
+		}
+
+		Assinante assinante = new Assinante(idUsuario, new SseEmitter(timeoutMs));
+		boolean[] aceito = new boolean[1];
+		assinantes.compute(idUsuario, (id, doUsuario) -> {
+			Set<Assinante> conjunto = doUsuario != null ? doUsuario : ConcurrentHashMap.newKeySet();
+			aceito[0] = conjunto.size() < maximoPorUsuario && conjunto.add(assinante);
+			return conjunto.isEmpty() ? null : conjunto;
+		});
+		if (!aceito[0]) {
+			conectados.decrementAndGet();
+			throw new RejectedExecutionException("Limite de conexões de eventos do usuário atingido.");
+		}
+
+		SseEmitter emitter = assinante.emitter;
+		emitter.onCompletion(() -> remover(assinante));
+		emitter.onTimeout(() -> remover(assinante));
+		emitter.onError(erro -> remover(assinante));
+		assinante.entregar(new EventoUsuario(null, lancamentoService.obterSaldoPorUsuario(idUsuario),
+				Collections.emptyList()));
+		return emitter;
+	}
+
+	public int getAssinantes() {
+		return conectados.get();
+	}
+
+	/**
+	 * Roda na thread que fez o commit e só enfileira; a leitura do saldo e os
+	 * envios ficam com o distribuidor.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void aoAlterarLancamento(LancamentoAlteradoEvent evento) {
+		if (evento.getIdUsuario() == null || !assinantes.containsKey(evento.getIdUsuario())) {
+			return;
+		}
+		Integer shard = ContextoShard.atual();
+		if (!fila.offer(new Publicacao(evento, shard == null ? ResolvedorShard.CATALOGO : shard))) {
+			perdidos.incrementAndGet();
+			log.warn("Fila de eventos cheia, alteração do usuário {} não enviada.", evento.getIdUsuario());
+		}
+	}
+
+	/**
+	 * Comentário periódico que mantém a conexão aberta em proxies e revela
+	 * clientes que já se desconectaram.
+	 */
+	@Scheduled(fixedDelayString = "${minhasfinancas.eventos.pulso-ms:25000}")
+	public void pulsar() {
+		assinantes.values().forEach(usuario -> usuario.forEach(assinante -> assinante.entregar(PULSO)));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("minhasfinancas.eventos.assinantes", conectados, AtomicInteger::get)
+				.description("Conexões de eventos abertas").register(registry);
+		FunctionCounter.builder("minhasfinancas.eventos.entregues", entregues, AtomicLong::get)
+				.description("Eventos enviados aos assinantes").register(registry);
+		FunctionCounter.builder("minhasfinancas.eventos.assinantes-lentos", lentos, AtomicLong::get)
+				.description("Conexões encerradas por buffer cheio").register(registry);
+		FunctionCounter.builder("minhasfinancas.eventos.perdidos", perdidos, AtomicLong::get)
+				.description("Alterações descartadas com a fila de distribuição cheia").register(registry);
+	}
+
+	private void distribuir() {
+		// O saldo lido logo após o commit não pode vir de uma réplica atrasada
+		ConsistenciaLeitura.exigirPrimario(true);
+		while (ativo) {
+			try {
+				Publicacao publicacao = fila.poll(ESPERA_FILA_VAZIA_MS, TimeUnit.MILLISECONDS);
+				if (publicacao != null) {
+					publicar(publicacao);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Falha ao distribuir evento de lançamento.", e);
+			}
+		}
+	}
+
+	private void publicar(Publicacao publicacao) {
+		Long idUsuario = publicacao.evento.getIdUsuario();
+		Set<Assinante> doUsuario = assinantes.get(idUsuario);
+		if (doUsuario == null) {
+			return;
+		}
+
+		List<LancamentoView> lancamentos = new ArrayList<>(publicacao.evento.getLancamentos().size());
+		publicacao.evento.getLancamentos().forEach(lancamento -> lancamentos.add(view(lancamento, idUsuario)));
+		EventoUsuario evento = new EventoUsuario(publicacao.evento.getAlteracao(),
+				ContextoShard.executar(publicacao.shard, () -> lancamentoService.obterSaldoPorUsuario(idUsuario)),
+				lancamentos);
+		doUsuario.forEach(assinante -> assinante.entregar(evento));
+	}
+
+	private void remover(Assinante assinante) {
+		if (assinante.removido.compareAndSet(false, true)) {
+			conectados.decrementAndGet();
+			assinantes.computeIfPresent(assinante.idUsuario, (id, doUsuario) -> {
+				doUsuario.remove(assinante);
+				return doUsuario.isEmpty() ? null : doUsuario;
+			});
+		}
+	}
+
+	private static LancamentoView view(Lancamento lancamento, Long idUsuario) {
+		return new LancamentoView(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+				lancamento.getAno(), lancamento.getValor(), idUsuario, lancamento.getTipo(), lancamento.getStatus(),
+				lancamento.getDataCadastro());
+	}
+
+	private static class Publicacao {
+
+		private final LancamentoAlteradoEvent evento;
+		private final int shard;
+
+		Publicacao(LancamentoAlteradoEvent evento, int shard) {
+			this.evento = evento;
+			this.shard = shard;
+		}
+
+	}
+
+	private class Assinante {
+
+		private final Long idUsuario;
+		private final SseEmitter emitter;
+		private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(tamanhoBuffer);
+		private final AtomicBoolean agendado = new AtomicBoolean();
+		private final AtomicBoolean removido = new AtomicBoolean();
+
+		Assinante(Long idUsuario, SseEmitter emitter) {
+			this.idUsuario = idUsuario;
+			this.emitter = emitter;
+		}
+
+		void entregar(Object evento) {
+			if (removido.get()) {
+				return;
+			}
+			if (!buffer.offer(evento)) {
+				lentos.incrementAndGet();
+				log.debug("Assinante de eventos do usuário {} desconectado por lentidão.", idUsuario);
+				encerrar();
+				return;
+			}
+			agendar();
+		}
+
+		void encerrar() {
+			remover(this);
+			buffer.clear();
+			emitter.complete();
+		}
+
+		private void agendar() {
+			if (agendado.compareAndSet(false, true)) {
+				try {
+					envio.execute(this::enviar);
+				} catch (RejectedExecutionException e) {
+					agendado.set(false);
+				}
+			}
+		}
+
+		/** Uma única tarefa por assinante escreve na conexão por vez. */
+		private void enviar() {
+			try {
+				Object evento;
+				while ((evento = buffer.poll()) != null) {
+					if (evento == PULSO) {
+						emitter.send(SseEmitter.event().comment("pulso"));
+					} else {
+						emitter.send(SseEmitter.event()
+								.name(((EventoUsuario) evento).getAlteracao() == null ? EVENTO_SALDO
+										: EVENTO_LANCAMENTO)
+								.data(evento, MediaType.APPLICATION_JSON));
+						entregues.incrementAndGet();
+					}
+				}
+			} catch (IOException | IllegalStateException e) {
+				// Cliente desconectado ou conexão já encerrada
+				remover(this);
+				buffer.clear();
+				emitter.completeWithError(e);
+				return;
+			} finally {
+				agendado.set(false);
+			}
+			if (!buffer.isEmpty()) {
+				agendar();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,26 @@
+package com.fmgodoi.minhasfinancas.api.evento;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent.Alteracao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Dados enviados ao assinante: o saldo após a alteração e os lançamentos
+ * alterados. O primeiro evento de cada conexão traz apenas o saldo.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EventoUsuario {
+
+	private final Alteracao alteracao;
+	private final BigDecimal saldo;
+	private final List<LancamentoView> lancamentos;
+
+}
@@ -0,0 +1,89 @@
+package com.fmgodoi.minhasfinancas.api.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmgodoi.minhasfinancas.api.dto.LancamentoDTO;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+
+public enum FormatoExportacao {
+
+	CSV("text/csv", "csv") {
+		@Override
+		public void iniciar(Writer writer) throws IOException {
+			writer.write("id,descricao,mes,ano,valor,tipo,status,data_cadastro\n");
+		}
+
+		@Override
+		public void escrever(Writer writer, Lancamento lancamento) throws IOException {
+			writer.write(String.valueOf(lancamento.getId()));
+			writer.write(',');
+			writer.write(aspas(lancamento.getDescricao()));
+			writer.write(',');
+			writer.write(texto(lancamento.getMes()));
+			writer.write(',');
+			writer.write(texto(lancamento.getAno()));
+			writer.write(',');
+			writer.write(lancamento.getValor() == null ? "" : lancamento.getValor().toPlainString());
+			writer.write(',');
+			writer.write(texto(lancamento.getTipo()));
+			writer.write(',');
+			writer.write(texto(lancamento.getStatus()));
+			writer.write(',');
+			writer.write(texto(lancamento.getDataCadastro()));
+			writer.write('\n');
+		}
+	},
+
+	NDJSON("application/x-ndjson", "ndjson") {
+		@Override
+		public void escrever(Writer writer, Lancamento lancamento) throws IOException {
+			LancamentoDTO dto = LancamentoDTO.builder().id(lancamento.getId()).descricao(lancamento.getDescricao())
+					.mes(lancamento.getMes()).ano(lancamento.getAno()).valor(lancamento.getValor())
+					.usuario(lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId())
+					.tipo(nome(lancamento.getTipo())).status(nome(lancamento.getStatus())).build();
+			writer.write(MAPPER.writeValueAsString(dto));
+			writer.write('\n');
+		}
+	};
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final String contentType;
+	private final String extensao;
+
+	FormatoExportacao(String contentType, String extensao) {
+		this.contentType = contentType;
+		this.extensao = extensao;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getExtensao() {
+		return extensao;
+	}
+
+	public void iniciar(Writer writer) throws IOException {
+	}
+
+	public abstract void escrever(Writer writer, Lancamento lancamento) throws IOException;
+
+	private static String texto(Object valor) {
+		return valor == null ? "" : valor.toString();
+	}
+
+	private static String nome(Enum<?> valor) {
+		return valor == null ? null : valor.name();
+	}
+
+	private static String aspas(String valor) {
+		if (valor == null) {
+			return "";
+		}
+		return "\"" + valor.replace("\"", "\"\"") + "\"";
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+/**
+ * Valida o token {@code Authorization: Bearer} sem consultar o banco e expõe o
+ * id do usuário no atributo {@link #USUARIO_AUTENTICADO} da requisição.
+ * <p>
+ * Por padrão o token é opcional: clientes que ainda identificam o usuário pelo
+ * id na URL ou no corpo continuam funcionando, e quem envia um token passa a ter
+ * o acesso restrito aos próprios dados. Um token inválido ou expirado é sempre
+ * recusado. Com {@code minhasfinancas.token.obrigatorio=true}, requisições sem
+ * token recebem 401, exceto o cadastro e a autenticação.
+ */
+public class AutenticacaoTokenFilter extends OncePerRequestFilter {
+
+	public static final String USUARIO_AUTENTICADO = "minhasfinancas.usuarioAutenticado";
+
+	private static final String BEARER = "Bearer ";
+
+	private final TokenService tokenService;
+	private final boolean obrigatorio;
+
+	public AutenticacaoTokenFilter(TokenService tokenService, boolean obrigatorio) {
+		this.tokenService = tokenService;
+		this.obrigatorio = obrigatorio;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (autorizacao == null || !autorizacao.startsWith(BEARER)) {
+			if (obrigatorio && !publico(request)) {
+				negar(response, "Token de acesso não informado.");
+				return;
+			}
+			chain.doFilter(request, response);
+			return;
+		}
+
+		Optional<Long> idUsuario = tokenService.validarToken(autorizacao.substring(BEARER.length()).trim());
+		if (!idUsuario.isPresent()) {
+			negar(response, "Token de acesso inválido ou expirado.");
+			return;
+		}
+
+		request.setAttribute(USUARIO_AUTENTICADO, idUsuario.get());
+		chain.doFilter(request, response);
+	}
+
+	private static boolean publico(HttpServletRequest request) {
+		if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+			return true;
+		}
+		String caminho = request.getRequestURI().substring(request.getContextPath().length());
+		return HttpMethod.POST.matches(request.getMethod())
+				&& (caminho.equals("/api/usuarios") || caminho.equals("/api/usuarios/autenticar"));
+	}
+
+	private static void negar(HttpServletResponse response, String mensagem) throws IOException {
+		response.setStatus(HttpStatus.UNAUTHORIZED.value());
+		response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+		response.setContentType("text/plain;charset=UTF-8");
+		response.getWriter().write(mensagem);
+	}
+
+}
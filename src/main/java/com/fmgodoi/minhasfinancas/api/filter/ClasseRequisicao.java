@@ -0,0 +1,28 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpMethod;
+
+public enum ClasseRequisicao {
+
+	LEITURA, ESCRITA, RELATORIO, AUTENTICACAO;
+
+	public static ClasseRequisicao classificar(HttpServletRequest request) {
+		String caminho = request.getRequestURI().substring(request.getContextPath().length());
+
+		if (HttpMethod.POST.matches(request.getMethod()) && caminho.equals("/api/usuarios/autenticar")) {
+			return AUTENTICACAO;
+		}
+
+		if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+			return ESCRITA;
+		}
+
+		if (caminho.startsWith("/api/lancamentos/export") || caminho.endsWith("/resumo")) {
+			return RELATORIO;
+		}
+		return LEITURA;
+	}
+
+}
@@ -0,0 +1,193 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fmgodoi.minhasfinancas.model.entity.RespostaIdempotente;
+import com.fmgodoi.minhasfinancas.service.IdempotenciaService;
+
+/**
+ * Repete a resposta de um POST ou PUT já executado com o mesmo cabeçalho
+ * {@code Idempotency-Key}, sem executá-lo de novo. A chave vale por usuário;
+ * respostas 5xx não são guardadas para que o cliente possa tentar novamente.
+ * A mesma chave com outro método, caminho ou corpo é recusada com 422.
+ */
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+	public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+	static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+	private final IdempotenciaService service;
+
+	public IdempotenciaFilter(IdempotenciaService service) {
+		this.service = service;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		String chaveCliente = request.getHeader(IDEMPOTENCY_KEY);
+		boolean alteracao = HttpMethod.POST.matches(request.getMethod()) || HttpMethod.PUT.matches(request.getMethod());
+		if (!alteracao || chaveCliente == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		if (chaveCliente.isEmpty() || chaveCliente.length() > TAMANHO_MAXIMO_CHAVE) {
+			responder(response, HttpStatus.BAD_REQUEST,
+					"Informe uma Idempotency-Key com até " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+			return;
+		}
+
+		Object usuario = request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO);
+		String chave = (usuario == null ? "anonimo" : usuario) + ":" + chaveCliente;
+
+		CorpoLido corpo = new CorpoLido(request);
+		String hashCorpo = corpo.hash();
+
+		Optional<RespostaIdempotente> registrada;
+		try {
+			registrada = service.reservar(chave);
+		} catch (TimeoutException e) {
+			responder(response, HttpStatus.CONFLICT, "Requisição com a mesma Idempotency-Key ainda em execução.");
+			return;
+		}
+
+		if (registrada.isPresent()) {
+			repetir(registrada.get(), request, hashCorpo, response);
+			return;
+		}
+
+		ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+		boolean concluida = false;
+		try {
+			chain.doFilter(corpo, resposta);
+			if (resposta.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+				service.concluir(RespostaIdempotente.builder().chave(chave).metodo(request.getMethod())
+						.caminho(request.getRequestURI()).hashCorpo(hashCorpo).status(resposta.getStatus())
+						.tipoConteudo(resposta.getContentType()).corpo(resposta.getContentAsByteArray()).build());
+				concluida = true;
+			}
+		} finally {
+			if (!concluida) {
+				service.liberar(chave);
+			}
+			resposta.copyBodyToResponse();
+		}
+	}
+
+	private static void repetir(RespostaIdempotente registrada, HttpServletRequest request, String hashCorpo,
+			HttpServletResponse response) throws IOException {
+		if (!registrada.isMesmaRequisicao(request.getMethod(), request.getRequestURI(), hashCorpo)) {
+			responder(response, HttpStatus.UNPROCESSABLE_ENTITY,
+					"Idempotency-Key já utilizada em outra requisição.");
+			return;
+		}
+
+		response.setStatus(registrada.getStatus());
+		response.setHeader(IDEMPOTENT_REPLAYED, "true");
+		if (registrada.getTipoConteudo() != null) {
+			response.setContentType(registrada.getTipoConteudo());
+		}
+		if (registrada.getCorpo() != null) {
+			response.setContentLength(registrada.getCorpo().length);
+			response.getOutputStream().write(registrada.getCorpo());
+		}
+	}
+
+	private static void responder(HttpServletResponse response, HttpStatus status, String mensagem)
+			throws IOException {
+		response.setStatus(status.value());
+		response.setContentType("text/plain;charset=UTF-8");
+		response.getWriter().write(mensagem);
+	}
+
+	/**
+	 * Lê o corpo antes da execução para compará-lo com o da requisição
+	 * registrada e o entrega novamente a quem vier depois do filtro.
+	 */
+	private static class CorpoLido extends HttpServletRequestWrapper {
+
+		private final byte[] corpo;
+
+		CorpoLido(HttpServletRequest request) throws IOException {
+			super(request);
+			this.corpo = StreamUtils.copyToByteArray(request.getInputStream());
+		}
+
+		String hash() {
+			try {
+				return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(corpo));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+			return new ServletInputStream() {
+
+				@Override
+				public int read() {
+					return entrada.read();
+				}
+
+				@Override
+				public int read(byte[] destino, int inicio, int tamanho) {
+					return entrada.read(destino, inicio, tamanho);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return entrada.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener listener) {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() {
+			Charset charset = getCharacterEncoding() == null ? StandardCharsets.ISO_8859_1
+					: Charset.forName(getCharacterEncoding());
+			return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fmgodoi.minhasfinancas.config.ConsistenciaLeitura;
+
+/**
+ * Leva ao primário as leituras de quem escreveu há pouco. A escrita é
+ * registrada no início e de novo no fim da requisição, cobrindo leituras
+ * concorrentes e a janela a partir do commit.
+ * <p>
+ * O usuário é o do token, obrigatório com a réplica habilitada. As escritas
+ * sem token, cadastro e autenticação, não são registradas, mas também fazem
+ * as suas leituras no primário.
+ */
+public class LeituraConsistenteFilter extends OncePerRequestFilter {
+
+	private final ConsistenciaLeitura consistencia;
+
+	public LeituraConsistenteFilter(ConsistenciaLeitura consistencia) {
+		this.consistencia = consistencia;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		Long idUsuario = (Long) request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO);
+		boolean escrita = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())
+				&& !HttpMethod.OPTIONS.matches(request.getMethod());
+		boolean registrar = escrita && idUsuario != null;
+		if (registrar) {
+			consistencia.registrarEscrita(idUsuario);
+		}
+
+		ConsistenciaLeitura.exigirPrimario(
+				escrita || (idUsuario != null && consistencia.escreveuRecentemente(idUsuario)));
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ConsistenciaLeitura.exigirPrimario(false);
+			if (registrar) {
+				consistencia.registrarEscrita(idUsuario);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Token bucket por usuário autenticado (ou por IP, na autenticação) e por
+ * {@link ClasseRequisicao}. Cada balde é um único {@link AtomicLong} atualizado
+ * por CAS no formato GCRA; os baldes ficam em um cache Caffeine que descarta
+ * as chaves inativas.
+ */
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+	static final String REJEICOES = "minhasfinancas.limite.rejeicoes";
+	static final String BALDES = "minhasfinancas.limite.baldes";
+
+	private final Map<ClasseRequisicao, Limite> limites;
+	private final Map<ClasseRequisicao, Counter> rejeicoes = new EnumMap<>(ClasseRequisicao.class);
+	private final Cache<String, Balde> baldes;
+	private final LongSupplier relogio;
+
+	public LimiteRequisicoesFilter(Map<ClasseRequisicao, Limite> limites, long inatividadeMinutos, long maximoBaldes,
+			MeterRegistry registry) {
+		this(limites, inatividadeMinutos, maximoBaldes, registry, System::nanoTime);
+	}
+
+	LimiteRequisicoesFilter(Map<ClasseRequisicao, Limite> limites, long inatividadeMinutos, long maximoBaldes,
+			MeterRegistry registry, LongSupplier relogio) {
+		this.limites = new EnumMap<>(limites);
+		this.relogio = relogio;
+		this.baldes = Caffeine.newBuilder().expireAfterAccess(inatividadeMinutos, TimeUnit.MINUTES)
+				.maximumSize(maximoBaldes).build();
+
+		for (ClasseRequisicao classe : ClasseRequisicao.values()) {
+			rejeicoes.put(classe, Counter.builder(REJEICOES).tag("classe", classe.name().toLowerCase())
+					.description("Requisições recusadas com 429").register(registry));
+		}
+		Gauge.builder(BALDES, baldes, Cache::estimatedSize).register(registry);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		ClasseRequisicao classe = ClasseRequisicao.classificar(request);
+		Limite limite = limites.get(classe);
+		if (limite == null || HttpMethod.OPTIONS.matches(request.getMethod())) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		Object usuario = request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO);
+		String chave = classe == ClasseRequisicao.AUTENTICACAO || usuario == null
+				? classe + "|ip:" + request.getRemoteAddr()
+				: classe + "|usuario:" + usuario;
+
+		long agora = relogio.getAsLong();
+		long espera = baldes.get(chave, c -> new Balde(agora)).consumir(agora, limite);
+		if (espera > 0) {
+			rejeicoes.get(classe).increment();
+			response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER,
+					String.valueOf(Math.max(1, (espera + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+			response.setContentType("text/plain;charset=UTF-8");
+			response.getWriter().write("Limite de requisições excedido, tente novamente mais tarde.");
+			return;
+		}
+
+		chain.doFilter(request, response);
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class Limite {
+
+		private final double porSegundo;
+		private final int rajada;
+
+		long intervaloNanos() {
+			return (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo);
+		}
+
+	}
+
+	static class Balde {
+
+		/** Instante teórico de chegada da próxima requisição (GCRA). */
+		private final AtomicLong proximaChegada;
+
+		Balde(long agora) {
+			this.proximaChegada = new AtomicLong(agora);
+		}
+
+		/**
+		 * @return 0 se a requisição foi admitida, ou quantos nanos esperar
+		 */
+		long consumir(long agora, Limite limite) {
+			long intervalo = limite.intervaloNanos();
+			long tolerancia = intervalo * limite.getRajada();
+			while (true) {
+				long atual = proximaChegada.get();
+				long proxima = Math.max(atual, agora) + intervalo;
+				long espera = proxima - agora - tolerancia;
+				if (espera > 0) {
+					return espera;
+				}
+				if (proximaChegada.compareAndSet(atual, proxima)) {
+					return 0;
+				}
+			}
+		}
+
+	}
+
+}
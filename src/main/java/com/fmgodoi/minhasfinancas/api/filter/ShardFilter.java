@@ -0,0 +1,61 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+/**
+ * Executa a requisição no shard do usuário autenticado. Enquanto o usuário é
+ * migrado entre shards, as leituras continuam na origem e as escritas são
+ * recusadas. Requisições sem token seguem no catálogo; apenas o cadastro e a
+ * autenticação chegam aqui sem ele, já que o sharding exige o token.
+ */
+public class ShardFilter extends OncePerRequestFilter {
+
+	private final ResolvedorShard resolvedor;
+
+	public ShardFilter(ResolvedorShard resolvedor) {
+		this.resolvedor = resolvedor;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		Long idUsuario = (Long) request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO);
+		if (idUsuario == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		boolean escrita = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())
+				&& !HttpMethod.OPTIONS.matches(request.getMethod());
+		if (escrita && resolvedor.isMigrando(idUsuario)) {
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+			response.setContentType("text/plain;charset=UTF-8");
+			response.getWriter().write("Os dados do usuário estão sendo migrados, tente novamente.");
+			return;
+		}
+
+		Integer anterior = ContextoShard.atual();
+		ContextoShard.definir(resolvedor.shardDoUsuario(idUsuario));
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ContextoShard.definir(anterior);
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.fmgodoi.minhasfinancas.api.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fmgodoi.minhasfinancas.config.FormatosBinariosConfig;
+
+/**
+ * ETag das respostas com dados de um usuário: a versão de
+ * {@code saldo_usuario}, incrementada a cada escrita de lançamento, mais um
+ * hash dos parâmetros da consulta e do formato negociado pelo {@code Accept}.
+ * Como a versão é persistida, o ETag continua válido após reiniciar a
+ * aplicação. As respostas devem enviar {@code Vary: Accept}.
+ */
+final class EtagUsuario {
+
+	/** Na ordem dos conversores registrados em {@link FormatosBinariosConfig}. */
+	private static final List<MediaType> FORMATOS = Arrays.asList(MediaType.APPLICATION_JSON,
+			FormatosBinariosConfig.SMILE, FormatosBinariosConfig.CBOR);
+
+	private EtagUsuario() {
+	}
+
+	static String gerar(Long versao, WebRequest request, Object... parametros) {
+		String consulta = formato(request.getHeader(HttpHeaders.ACCEPT)) + Arrays.deepToString(parametros);
+		return versao + "-" + DigestUtils.md5DigestAsHex(consulta.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String formato(String accept) {
+		if (accept == null) {
+			return MediaType.APPLICATION_JSON_VALUE;
+		}
+		List<MediaType> aceitos;
+		try {
+			aceitos = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return accept;
+		}
+		MediaType.sortBySpecificityAndQuality(aceitos);
+		for (MediaType aceito : aceitos) {
+			for (MediaType formato : FORMATOS) {
+				if (aceito.isCompatibleWith(formato)) {
+					return formato.toString();
+				}
+			}
+		}
+		return accept;
+	}
+
+}
@@ -1,26 +1,55 @@
 package com.fmgodoi.minhasfinancas.api.resource;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fmgodoi.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.fmgodoi.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
 import com.fmgodoi.minhasfinancas.api.dto.LancamentoDTO;
+import com.fmgodoi.minhasfinancas.api.dto.ResultadoLoteDTO;
+import com.fmgodoi.minhasfinancas.api.export.FormatoExportacao;
+import com.fmgodoi.minhasfinancas.api.filter.AutenticacaoTokenFilter;
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.Pagina;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.service.ErroLote;
+import com.fmgodoi.minhasfinancas.service.GravacaoAgrupadaService;
 import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ResultadoLote;
 import com.fmgodoi.minhasfinancas.service.UsuarioService;
 
 import lombok.RequiredArgsConstructor;
@@ -34,44 +63,179 @@ public class LancamentoResource {
 
 	private final LancamentoService service;
 	private final UsuarioService usuarioService;
+	private final GravacaoAgrupadaService gravacaoAgrupada;
+
+	@Value("${minhasfinancas.lancamentos.busca-sem-paginacao:true}")
+	private boolean buscaSemPaginacao;
+
+	@Value("${minhasfinancas.lancamentos.limite-padrao:100}")
+	private int limitePadrao;
 
 	@GetMapping
 	public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "mes", required = false) Integer mes,
-			@RequestParam(value = "ano", required = false) Integer ano, @RequestParam("usuario") Long idUsuario) {
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "limit", required = false) Integer limite,
+			@RequestParam(value = "next", required = false) String next,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado,
+			WebRequest webRequest) {
 
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
 		lancamentoFiltro.setAno(ano);
 
-		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
+		if (acessoNegado(idAutenticado, idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		Optional<Usuario> usuario = obterUsuario(idUsuario, idAutenticado);
 		if (!usuario.isPresent()) {
 			return ResponseEntity.badRequest().body("Não foi possivel encontrar usuário");
 		} else {
 			lancamentoFiltro.setUsuario(usuario.get());
 		}
 
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
+		// A versão é lida antes da consulta: uma escrita concorrente só torna o ETag mais antigo
+		Long idConsultado = usuario.get().getId();
+		Optional<String> etag = service.obterVersaoDados(idConsultado).map(versao -> EtagUsuario.gerar(versao,
+				webRequest, "lancamentos", idConsultado, descricao, mes, ano, limite, next, buscaSemPaginacao));
+		if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+		}
+
+		if (buscaSemPaginacao && limite == null && next == null) {
+			List<LancamentoView> lancamentos = service.buscarView(lancamentoFiltro);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).varyBy(HttpHeaders.ACCEPT)
+					.body(lancamentos);
+		}
+
+		try {
+			CursorLancamento apos = next == null ? null : CursorLancamento.decodificar(next);
+			Pagina<LancamentoView> pagina = service.buscar(lancamentoFiltro, apos, limite == null ? limitePadrao : limite);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).varyBy(HttpHeaders.ACCEPT)
+					.body(pagina);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+
+	}
+
+	@GetMapping("/export")
+	public ResponseEntity exportar(@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "formato", defaultValue = "csv") String formato,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+
+		FormatoExportacao formatoExportacao;
+		try {
+			formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Formato de exportação inválido.");
+		}
+
+		if (acessoNegado(idAutenticado, idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
 
-		return ResponseEntity.ok(lancamentos);
+		Optional<Usuario> usuario = obterUsuario(idUsuario, idAutenticado);
+		if (!usuario.isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possivel encontrar usuário");
+		}
+
+		Long idExportado = usuario.get().getId();
+		StreamingResponseBody corpo = out -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			formatoExportacao.iniciar(writer);
+			try {
+				service.exportar(idExportado, lancamento -> {
+					try {
+						formatoExportacao.escrever(writer, lancamento);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			writer.flush();
+		};
 
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(formatoExportacao.getContentType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"lancamentos." + formatoExportacao.getExtensao() + "\"")
+				.body(corpo);
 	}
 
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
+	public ResponseEntity salvar(@RequestBody LancamentoDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		if (acessoNegado(idAutenticado, dto.getUsuario())) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
 		try {
 			Lancamento entidade = converter(dto);
-			entidade = service.salvar(entidade);
+			entidade = gravacaoAgrupada.salvar(entidade);
 			return new ResponseEntity(entidade, HttpStatus.CREATED);
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (RejectedExecutionException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+					.body("Muitas inclusões simultâneas, tente novamente.");
 		}
 	}
 
+	@PostMapping("/lote")
+	public ResponseEntity salvarLote(@RequestBody List<LancamentoDTO> dtos,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		long inicio = System.nanoTime();
+
+		if (dtos.stream().anyMatch(dto -> acessoNegado(idAutenticado, dto.getUsuario()))) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		Map<Long, Optional<Usuario>> usuarios = new HashMap<>();
+		List<ErroLote> erros = new ArrayList<>();
+		List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+		List<Integer> indices = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i++) {
+			try {
+				Function<Long, Optional<Usuario>> buscarUsuario = id -> usuarios.computeIfAbsent(id,
+						usuarioService::obterPorId);
+				lancamentos.add(converter(dtos.get(i), buscarUsuario));
+				indices.add(i);
+			} catch (RegraNegocioException | IllegalArgumentException e) {
+				erros.add(new ErroLote(i, e.getMessage()));
+			}
+		}
+
+		ResultadoLote resultado;
+		try {
+			resultado = service.salvarLote(lancamentos);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		for (ErroLote erro : resultado.getErros()) {
+			erros.add(new ErroLote(indices.get(erro.getIndice()), erro.getMensagem()));
+		}
+		erros.sort((a, b) -> Integer.compare(a.getIndice(), b.getIndice()));
+
+		long duracaoNanos = Math.max(System.nanoTime() - inicio, 1);
+		ResultadoLoteDTO dto = ResultadoLoteDTO.builder().recebidos(dtos.size()).inseridos(resultado.getInseridos())
+				.erros(erros).duracaoMs(duracaoNanos / 1_000_000)
+				.linhasPorSegundo(resultado.getInseridos() * 1_000_000_000L / duracaoNanos).build();
+		return new ResponseEntity(dto, HttpStatus.CREATED);
+	}
+
 	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
+	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
 		return service.obterPorId(id).map(entity -> {
+			if (acessoNegado(idAutenticado, idUsuario(entity)) || acessoNegado(idAutenticado, dto.getUsuario())) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+
 			try {
 				Lancamento lancamento = converter(dto);
 				lancamento.setId(entity.getId());
@@ -85,10 +249,15 @@ public class LancamentoResource {
 	}
 
 	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
+	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
 
 		return service.obterPorId(id).map(entity -> {
 
+			if (acessoNegado(idAutenticado, idUsuario(entity))) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+
 			StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
 
 			if (statusSelecionado == null) {
@@ -107,15 +276,63 @@ public class LancamentoResource {
 
 	}
 
+	@PutMapping("/atualiza-status")
+	public ResponseEntity atualizarStatus(@RequestBody AtualizaStatusLoteDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		if (acessoNegado(idAutenticado, dto.getUsuario())) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		try {
+			Lancamento filtro = new Lancamento();
+			filtro.setUsuario(dto.getUsuario() == null ? null : Usuario.builder().id(dto.getUsuario()).build());
+			filtro.setAno(dto.getAno());
+			filtro.setMes(dto.getMes());
+			if (dto.getStatusAtual() != null) {
+				filtro.setStatus(StatusLancamento.valueOf(dto.getStatusAtual()));
+			}
+			StatusLancamento status = dto.getStatus() == null ? null : StatusLancamento.valueOf(dto.getStatus());
+
+			int atualizados = service.atualizarStatus(filtro, dto.getIds(), status);
+			return ResponseEntity.ok(Collections.singletonMap("atualizados", atualizados));
+		} catch (RegraNegocioException | IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable("id") Long id) {
+	public ResponseEntity deletar(@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
 		return service.obterPorId(id).map(entidade -> {
+			if (acessoNegado(idAutenticado, idUsuario(entidade))) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
 			service.deletar(entidade);
 			return new ResponseEntity(HttpStatus.NO_CONTENT);
 		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado.", HttpStatus.BAD_REQUEST));
 	}
 
-	private Lancamento converter(LancamentoDTO dto) {
+	private Optional<Usuario> obterUsuario(Long idUsuario, Long idAutenticado) {
+		if (idAutenticado != null) {
+			// O token já identifica o usuário: dispensa a consulta
+			return Optional.of(Usuario.builder().id(idAutenticado).build());
+		}
+		return idUsuario == null ? Optional.empty() : usuarioService.obterPorId(idUsuario);
+	}
+
+	private static boolean acessoNegado(Long idAutenticado, Long idUsuario) {
+		return idAutenticado != null && idUsuario != null && !idAutenticado.equals(idUsuario);
+	}
+
+	private static Long idUsuario(Lancamento lancamento) {
+		return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+	}
+
+	Lancamento converter(LancamentoDTO dto) {
+		return converter(dto, usuarioService::obterPorId);
+	}
+
+	private Lancamento converter(LancamentoDTO dto, Function<Long, Optional<Usuario>> buscarUsuario) {
 
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
@@ -123,7 +340,10 @@ public class LancamentoResource {
 		lancamento.setAno(dto.getAno());
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
-		Usuario usuario = usuarioService.obterPorId(dto.getUsuario())
+		if (dto.getUsuario() == null) {
+			throw new RegraNegocioException("Usuário não encontrado.");
+		}
+		Usuario usuario = buscarUsuario.apply(dto.getUsuario())
 				.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado."));
 		lancamento.setUsuario(usuario);
 
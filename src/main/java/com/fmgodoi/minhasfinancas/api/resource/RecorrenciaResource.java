@@ -0,0 +1,123 @@
+package com.fmgodoi.minhasfinancas.api.resource;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fmgodoi.minhasfinancas.api.dto.RecorrenciaDTO;
+import com.fmgodoi.minhasfinancas.api.filter.AutenticacaoTokenFilter;
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Recorrencia;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.service.RecorrenciaService;
+
+import lombok.RequiredArgsConstructor;
+import model.enums.TipoLancamento;
+
+@RestController
+@RequestMapping("/api/recorrencias")
+@RequiredArgsConstructor
+public class RecorrenciaResource {
+
+	private final RecorrenciaService service;
+
+	@PostMapping
+	public ResponseEntity salvar(@RequestBody RecorrenciaDTO dto,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		if (acessoNegado(idAutenticado, dto.getUsuario())) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		try {
+			Recorrencia recorrencia = service.salvar(converter(dto));
+			return new ResponseEntity(recorrencia, HttpStatus.CREATED);
+		} catch (RegraNegocioException | IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@GetMapping
+	public ResponseEntity buscar(@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		if (acessoNegado(idAutenticado, idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		Long idConsultado = idAutenticado != null ? idAutenticado : idUsuario;
+		if (idConsultado == null) {
+			return ResponseEntity.badRequest().body("Não foi possivel encontrar usuário");
+		}
+		return ResponseEntity.ok(service.buscar(idConsultado));
+	}
+
+	@GetMapping("/projecao")
+	public ResponseEntity projetar(@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam("ano") Integer ano, @RequestParam("mes") Integer mes,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		if (acessoNegado(idAutenticado, idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		Long idConsultado = idAutenticado != null ? idAutenticado : idUsuario;
+		if (idConsultado == null) {
+			return ResponseEntity.badRequest().body("Não foi possivel encontrar usuário");
+		}
+
+		try {
+			List<LancamentoView> projetados = service.projetar(idConsultado, ano, mes);
+			return ResponseEntity.ok(projetados);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@DeleteMapping("{id}")
+	public ResponseEntity encerrar(@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+		return service.obterPorId(id).map(recorrencia -> {
+			if (acessoNegado(idAutenticado, recorrencia.getIdUsuario())) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+			service.encerrar(recorrencia);
+			return new ResponseEntity(HttpStatus.NO_CONTENT);
+		}).orElseGet(() -> new ResponseEntity("Recorrência não encontrada.", HttpStatus.BAD_REQUEST));
+	}
+
+	private static boolean acessoNegado(Long idAutenticado, Long idUsuario) {
+		return idAutenticado != null && idUsuario != null && !idAutenticado.equals(idUsuario);
+	}
+
+	Recorrencia converter(RecorrenciaDTO dto) {
+		Recorrencia recorrencia = new Recorrencia();
+		recorrencia.setDescricao(dto.getDescricao());
+		recorrencia.setValor(dto.getValor());
+		recorrencia.setIdUsuario(dto.getUsuario());
+		recorrencia.setAnoInicio(dto.getAnoInicio());
+		recorrencia.setMesInicio(dto.getMesInicio());
+		recorrencia.setParcelada(dto.isParcelada());
+		recorrencia.setQuantidade(dto.getQuantidade());
+
+		if (dto.getQuantidade() == null && dto.getAnoFim() != null && dto.getMesFim() != null
+				&& dto.getAnoInicio() != null && dto.getMesInicio() != null) {
+			recorrencia.setQuantidade(Recorrencia.competencia(dto.getAnoFim(), dto.getMesFim())
+					- Recorrencia.competencia(dto.getAnoInicio(), dto.getMesInicio()) + 1);
+		}
+
+		if (dto.getTipo() != null) {
+			recorrencia.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+		}
+
+		return recorrencia;
+	}
+
+}
@@ -4,21 +4,35 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.fmgodoi.minhasfinancas.api.evento.BarramentoEventos;
+import com.fmgodoi.minhasfinancas.api.dto.TokenDTO;
 import com.fmgodoi.minhasfinancas.api.dto.UsuarioDTO;
+import com.fmgodoi.minhasfinancas.api.filter.AutenticacaoTokenFilter;
 import com.fmgodoi.minhasfinancas.exception.ErroAutenticacao;
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
 import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ProjecaoSaldoService;
+import com.fmgodoi.minhasfinancas.service.TokenAcesso;
+import com.fmgodoi.minhasfinancas.service.TokenService;
 import com.fmgodoi.minhasfinancas.service.UsuarioService;
 
 import lombok.RequiredArgsConstructor;
@@ -30,14 +44,23 @@ public class UsuarioResource {
 
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService;
+	private final TokenService tokenService;
+	private final ProjecaoSaldoService projecaoSaldoService;
+	private final BarramentoEventos barramentoEventos;
 
 	@PostMapping("/autenticar")
 	public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
 		try {
 			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAutenticado);
+			TokenAcesso token = tokenService.gerarToken(usuarioAutenticado.getId());
+			return ResponseEntity.ok(TokenDTO.builder().id(usuarioAutenticado.getId())
+					.nome(usuarioAutenticado.getNome()).email(usuarioAutenticado.getEmail())
+					.token(token.getValor()).expiraEm(token.getExpiraEm()).build());
 		} catch (ErroAutenticacao e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (RejectedExecutionException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+					.body("Muitas autenticações simultâneas, tente novamente.");
 		}
 
 	}
@@ -53,21 +76,87 @@ public class UsuarioResource {
 
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (RejectedExecutionException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+					.body("Muitos cadastros simultâneos, tente novamente.");
 		}
 
 	}
 
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
+	public ResponseEntity obterSaldo(@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado,
+			WebRequest webRequest) {
 
-		Optional<Usuario> usuario = service.obterPorId(id);
+		ResponseEntity negado = verificarAcesso(id, idAutenticado);
+		if (negado != null) {
+			return negado;
+		}
 
-		if (!usuario.isPresent()) {
-			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		Optional<String> etag = lancamentoService.obterVersaoDados(id)
+				.map(versao -> EtagUsuario.gerar(versao, webRequest, "saldo", id));
+		if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
 		}
 
 		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-		return ResponseEntity.ok(saldo);
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).varyBy(HttpHeaders.ACCEPT)
+				.body(saldo);
+	}
+
+	@GetMapping("{id}/resumo")
+	public ResponseEntity obterResumo(@PathVariable("id") Long id, @RequestParam("ano") Integer ano,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+
+		ResponseEntity negado = verificarAcesso(id, idAutenticado);
+		if (negado != null) {
+			return negado;
+		}
+
+		return ResponseEntity.ok(lancamentoService.obterResumo(id, ano));
+	}
+
+	@GetMapping("{id}/projecao")
+	public ResponseEntity projetarSaldo(@PathVariable("id") Long id,
+			@RequestParam(value = "meses", defaultValue = "12") int meses,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+
+		ResponseEntity negado = verificarAcesso(id, idAutenticado);
+		if (negado != null) {
+			return negado;
+		}
+
+		try {
+			return ResponseEntity.ok(projecaoSaldoService.projetar(id, meses));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@GetMapping(value = "{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> assinarEventos(@PathVariable("id") Long id,
+			@RequestAttribute(value = AutenticacaoTokenFilter.USUARIO_AUTENTICADO, required = false) Long idAutenticado) {
+
+		ResponseEntity negado = verificarAcesso(id, idAutenticado);
+		if (negado != null) {
+			return ResponseEntity.status(negado.getStatusCode()).build();
+		}
+
+		try {
+			return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(barramentoEventos.assinar(id));
+		} catch (RejectedExecutionException e) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30").build();
+		}
+	}
+
+	private ResponseEntity verificarAcesso(Long id, Long idAutenticado) {
+		if (idAutenticado != null) {
+			// O token já garante que o usuário existe
+			return id.equals(idAutenticado) ? null : new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		Optional<Usuario> usuario = service.obterPorId(id);
+		return usuario.isPresent() ? null : new ResponseEntity(HttpStatus.NOT_FOUND);
 	}
 
 }
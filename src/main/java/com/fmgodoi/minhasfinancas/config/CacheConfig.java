@@ -0,0 +1,13 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String USUARIOS = "usuarios";
+	public static final String USUARIOS_POR_EMAIL = "usuariosPorEmail";
+
+}
@@ -0,0 +1,44 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Leitura das próprias escritas: por {@code janelaMs} após uma escrita, as
+ * leituras do mesmo usuário vão ao primário. As escritas ficam na memória da
+ * instância, então a garantia vale para quem continua na mesma instância.
+ */
+public class ConsistenciaLeitura {
+
+	private static final ThreadLocal<Boolean> PRIMARIO_EXIGIDO = new ThreadLocal<>();
+
+	private final Cache<Long, Boolean> escritasRecentes;
+
+	public ConsistenciaLeitura(long janelaMs, long maximoUsuarios) {
+		this.escritasRecentes = Caffeine.newBuilder().expireAfterWrite(janelaMs, TimeUnit.MILLISECONDS)
+				.maximumSize(maximoUsuarios).build();
+	}
+
+	public void registrarEscrita(Long idUsuario) {
+		escritasRecentes.put(idUsuario, Boolean.TRUE);
+	}
+
+	public boolean escreveuRecentemente(Long idUsuario) {
+		return escritasRecentes.getIfPresent(idUsuario) != null;
+	}
+
+	public static void exigirPrimario(boolean exigido) {
+		if (exigido) {
+			PRIMARIO_EXIGIDO.set(Boolean.TRUE);
+		} else {
+			PRIMARIO_EXIGIDO.remove();
+		}
+	}
+
+	public static boolean isPrimarioExigido() {
+		return PRIMARIO_EXIGIDO.get() != null;
+	}
+
+}
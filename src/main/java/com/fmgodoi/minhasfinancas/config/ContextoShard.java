@@ -0,0 +1,42 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard da thread corrente, consultado pelo {@link ShardDataSource} ao abrir
+ * a conexão. Sem contexto, as consultas vão ao catálogo.
+ */
+public final class ContextoShard {
+
+	private static final ThreadLocal<Integer> ATUAL = new ThreadLocal<>();
+
+	private ContextoShard() {
+	}
+
+	public static Integer atual() {
+		return ATUAL.get();
+	}
+
+	public static void definir(Integer shard) {
+		if (shard == null) {
+			ATUAL.remove();
+		} else {
+			ATUAL.set(shard);
+		}
+	}
+
+	/**
+	 * Executa a ação no shard informado e restaura o contexto anterior. Uma
+	 * transação já iniciada continua na conexão que obteve.
+	 */
+	public static <T> T executar(int shard, Supplier<T> acao) {
+		Integer anterior = ATUAL.get();
+		ATUAL.set(shard);
+		try {
+			return acao.get();
+		} finally {
+			definir(anterior);
+		}
+	}
+
+}
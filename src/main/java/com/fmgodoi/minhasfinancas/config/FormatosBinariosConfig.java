@@ -0,0 +1,66 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Smile e CBOR negociados pelos cabeçalhos {@code Accept} e
+ * {@code Content-Type}, com a mesma configuração do Jackson usada no JSON. O
+ * JSON continua sendo o formato padrão.
+ */
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+
+	public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+	public static final MediaType CBOR = new MediaType("application", "cbor");
+
+	private final ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> customizadores;
+
+	public FormatosBinariosConfig(ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> customizadores) {
+		this.customizadores = customizadores;
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		// Os conversores padrão do Spring usam um ObjectMapper sem as propriedades spring.jackson.*
+		converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+				|| converter instanceof MappingJackson2CborHttpMessageConverter);
+
+		int posicao = converters.size();
+		for (int i = 0; i < converters.size(); i++) {
+			if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+				posicao = i + 1;
+				break;
+			}
+		}
+		converters.add(posicao,
+				binario(new MappingJackson2SmileHttpMessageConverter(criar(Jackson2ObjectMapperBuilder.smile()))));
+		converters.add(posicao + 1,
+				binario(new MappingJackson2CborHttpMessageConverter(criar(Jackson2ObjectMapperBuilder.cbor()))));
+	}
+
+	private static HttpMessageConverter<?> binario(AbstractJackson2HttpMessageConverter converter) {
+		// O construtor herda o UTF-8 do JSON, que não se aplica a formatos binários
+		converter.setDefaultCharset(null);
+		return converter;
+	}
+
+	private ObjectMapper criar(Jackson2ObjectMapperBuilder builder) {
+		customizadores.orderedStream().forEach(customizador -> customizador.customize(builder));
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+@Aspect
+@Order(0)
+@Component
+@RequiredArgsConstructor
+public class MetricasAspect {
+
+	static final String REPOSITORY = "minhasfinancas.repository";
+	static final String TRANSACTION = "minhasfinancas.transaction";
+
+	private static final String PACOTE_BASE = "com.fmgodoi.minhasfinancas";
+
+	private final MeterRegistry registry;
+	private final Map<Class<?>, String> repositorios = new ConcurrentHashMap<>();
+
+	@Around("target(org.springframework.data.repository.Repository) && !execution(* java.lang.Object.*(..))")
+	public Object medirRepositorio(ProceedingJoinPoint joinPoint) throws Throwable {
+		String repositorio = repositorios.computeIfAbsent(joinPoint.getTarget().getClass(),
+				MetricasAspect::nomeDoRepositorio);
+		return medir(joinPoint, Timer.builder(REPOSITORY).tag("repository", repositorio).tag("method",
+				joinPoint.getSignature().getName()));
+	}
+
+	@Around("execution(public * com.fmgodoi.minhasfinancas.service..*(..))"
+			+ " && (@annotation(org.springframework.transaction.annotation.Transactional)"
+			+ " || @within(org.springframework.transaction.annotation.Transactional))")
+	public Object medirTransacao(ProceedingJoinPoint joinPoint) throws Throwable {
+		Class<?> classe = AopUtils.getTargetClass(joinPoint.getTarget());
+		Method metodo = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(),
+				classe);
+		Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(metodo, Transactional.class);
+		if (transactional == null) {
+			transactional = AnnotatedElementUtils.findMergedAnnotation(classe, Transactional.class);
+		}
+
+		return medir(joinPoint, Timer.builder(TRANSACTION).tag("class", classe.getSimpleName())
+				.tag("method", metodo.getName()).tag("readOnly", String.valueOf(transactional.readOnly())));
+	}
+
+	private Object medir(ProceedingJoinPoint joinPoint, Timer.Builder timer) throws Throwable {
+		Timer.Sample amostra = Timer.start(registry);
+		String excecao = "none";
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			excecao = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			amostra.stop(timer.tag("exception", excecao).register(registry));
+		}
+	}
+
+	private static String nomeDoRepositorio(Class<?> classe) {
+		for (Class<?> interfaceRepositorio : ClassUtils.getAllInterfacesForClassAsSet(classe)) {
+			if (interfaceRepositorio.getName().startsWith(PACOTE_BASE)) {
+				return interfaceRepositorio.getSimpleName();
+			}
+		}
+		return classe.getSimpleName();
+	}
+
+}
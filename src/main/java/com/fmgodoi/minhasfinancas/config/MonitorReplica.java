@@ -0,0 +1,65 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mede periodicamente o atraso da réplica com {@code consulta-atraso}, que
+ * deve retornar milissegundos. Acima de {@code atraso-maximo-ms}, ou se a
+ * consulta falhar, as leituras voltam ao primário até a próxima medição.
+ */
+@Slf4j
+public class MonitorReplica implements MeterBinder {
+
+	private final JdbcTemplate replica;
+	private final String consultaAtraso;
+	private final long atrasoMaximoMs;
+	private volatile boolean disponivel;
+	private volatile long atrasoMs = -1;
+
+	public MonitorReplica(JdbcTemplate replica, String consultaAtraso, long atrasoMaximoMs) {
+		this.replica = replica;
+		this.consultaAtraso = consultaAtraso;
+		this.atrasoMaximoMs = atrasoMaximoMs;
+	}
+
+	public boolean isDisponivel() {
+		return disponivel;
+	}
+
+	@Scheduled(fixedDelayString = "${minhasfinancas.replica.verificacao-ms:5000}")
+	public void verificar() {
+		boolean anterior = disponivel;
+		try {
+			Number atraso = replica.queryForObject(consultaAtraso, Number.class);
+			atrasoMs = atraso == null ? -1 : atraso.longValue();
+			disponivel = atraso != null && atrasoMs <= atrasoMaximoMs;
+		} catch (DataAccessException e) {
+			atrasoMs = -1;
+			disponivel = false;
+			if (anterior) {
+				log.warn("Falha ao medir o atraso da réplica", e);
+			}
+		}
+
+		if (anterior != disponivel) {
+			log.info("Réplica {} (atraso de {} ms)", disponivel ? "disponível para leituras" : "fora do roteamento",
+					atrasoMs);
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("minhasfinancas.replica.disponivel", this, monitor -> monitor.disponivel ? 1 : 0)
+				.register(registry);
+		Gauge.builder("minhasfinancas.replica.atraso", this, monitor -> monitor.atrasoMs).baseUnit("milliseconds")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Conexões dos shards além do catálogo: a entrada {@code datasources[i]} é o
+ * shard {@code i + 1}, e o shard 0 é o {@code spring.datasource}.
+ */
+@Data
+@ConfigurationProperties("minhasfinancas.shard")
+public class PropriedadesShard {
+
+	private List<DataSourceProperties> datasources = new ArrayList<>();
+
+}
@@ -0,0 +1,46 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envia as transações somente leitura à réplica e todo o resto ao primário.
+ * Deve ficar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * o gerenciador de transações pede a conexão antes de marcar a transação
+ * como somente leitura, e o proxy adia a escolha até o primeiro comando.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+	public enum Destino {
+		PRIMARIO, REPLICA
+	}
+
+	private final BooleanSupplier replicaDisponivel;
+
+	public RoteamentoDataSource(DataSource primario, DataSource replica, BooleanSupplier replicaDisponivel) {
+		this.replicaDisponivel = replicaDisponivel;
+		Map<Object, Object> destinos = new HashMap<>();
+		destinos.put(Destino.PRIMARIO, primario);
+		destinos.put(Destino.REPLICA, replica);
+		setTargetDataSources(destinos);
+		setDefaultTargetDataSource(primario);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Destino determineCurrentLookupKey() {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+				&& !ConsistenciaLeitura.isPrimarioExigido() && replicaDisponivel.getAsBoolean()) {
+			return Destino.REPLICA;
+		}
+		return Destino.PRIMARIO;
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.fmgodoi.minhasfinancas.api.filter.LeituraConsistenteFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pool do primário em {@code spring.datasource.*} e da réplica em
+ * {@code minhasfinancas.replica.datasource.*}; as transações
+ * {@code readOnly} vão à réplica, ver {@link RoteamentoDataSource}.
+ * <p>
+ * Com {@code spring.jpa.open-in-view} a sessão do Hibernate dura a requisição
+ * inteira. Por isso a conexão é devolvida ao fim de cada transação, e a
+ * próxima escolhe de novo entre primário e réplica.
+ * <p>
+ * A leitura das próprias escritas é controlada pelo usuário do token; sem
+ * token as leituras seguintes de quem escreveu poderiam ir à réplica. Por isso
+ * exige {@code minhasfinancas.token.obrigatorio=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.replica.habilitado", havingValue = "true")
+public class RoteamentoDataSourceConfig {
+
+	static final String CONSULTA_ATRASO_POSTGRESQL = "select coalesce(case"
+			+ " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+			+ " else extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000 end, 0)";
+
+	public RoteamentoDataSourceConfig(@Value("${minhasfinancas.token.obrigatorio:false}") boolean tokenObrigatorio) {
+		if (!tokenObrigatorio) {
+			throw new IllegalStateException("A leitura das próprias escritas usa o usuário do token de acesso."
+					+ " Habilite a réplica apenas com minhasfinancas.token.obrigatorio=true.");
+		}
+	}
+
+	@Bean
+	@Primary
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties dataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("minhasfinancas.replica.datasource")
+	public DataSourceProperties propriedadesReplica() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSourcePrimario(DataSourceProperties dataSourceProperties) {
+		HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName("primario");
+		return dataSource;
+	}
+
+	@Bean
+	@ConfigurationProperties("minhasfinancas.replica.datasource.hikari")
+	public HikariDataSource dataSourceReplica(@Qualifier("propriedadesReplica") DataSourceProperties propriedades) {
+		HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("replica");
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer liberacaoConexaoPorTransacao() {
+		return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	@Bean
+	public MonitorReplica monitorReplica(@Qualifier("dataSourceReplica") DataSource replica,
+			@Value("${minhasfinancas.replica.consulta-atraso:}") String consultaAtraso,
+			@Value("${minhasfinancas.replica.atraso-maximo-ms:1000}") long atrasoMaximoMs) {
+		MonitorReplica monitor = new MonitorReplica(new JdbcTemplate(replica),
+				consultaAtraso.isEmpty() ? CONSULTA_ATRASO_POSTGRESQL : consultaAtraso, atrasoMaximoMs);
+		monitor.verificar();
+		return monitor;
+	}
+
+	/**
+	 * Os pools são criados antes: cada um aciona o inicializador de DataSource
+	 * do Spring Boot, que pede este bean e não pode encontrá-lo em criação.
+	 */
+	@Bean
+	@Primary
+	@DependsOn({ "dataSourcePrimario", "dataSourceReplica" })
+	public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario,
+			@Qualifier("dataSourceReplica") DataSource replica, MonitorReplica monitorReplica) {
+		return new LazyConnectionDataSourceProxy(
+				new RoteamentoDataSource(primario, replica, monitorReplica::isDisponivel));
+	}
+
+	@Bean
+	public ConsistenciaLeitura consistenciaLeitura(
+			@Value("${minhasfinancas.replica.janela-consistencia-ms:5000}") long janelaMs,
+			@Value("${minhasfinancas.replica.maximo-usuarios:100000}") long maximoUsuarios) {
+		return new ConsistenciaLeitura(janelaMs, maximoUsuarios);
+	}
+
+	@Bean
+	public FilterRegistrationBean<LeituraConsistenteFilter> leituraConsistenteFilter(
+			ConsistenciaLeitura consistenciaLeitura) {
+		FilterRegistrationBean<LeituraConsistenteFilter> registro = new FilterRegistrationBean<>(
+				new LeituraConsistenteFilter(consistenciaLeitura));
+		registro.addUrlPatterns("/api/*");
+		registro.setOrder(SegurancaConfig.ORDEM_LEITURA_CONSISTENTE);
+		return registro;
+	}
+
+}
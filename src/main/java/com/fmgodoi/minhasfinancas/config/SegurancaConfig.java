@@ -0,0 +1,78 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fmgodoi.minhasfinancas.api.filter.AutenticacaoTokenFilter;
+import com.fmgodoi.minhasfinancas.api.filter.ClasseRequisicao;
+import com.fmgodoi.minhasfinancas.api.filter.IdempotenciaFilter;
+import com.fmgodoi.minhasfinancas.api.filter.LimiteRequisicoesFilter;
+import com.fmgodoi.minhasfinancas.api.filter.LimiteRequisicoesFilter.Limite;
+import com.fmgodoi.minhasfinancas.service.IdempotenciaService;
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class SegurancaConfig {
+
+	public static final int ORDEM_AUTENTICACAO = 10;
+	public static final int ORDEM_LIMITE_REQUISICOES = 20;
+	public static final int ORDEM_IDEMPOTENCIA = 30;
+	public static final int ORDEM_LEITURA_CONSISTENTE = 40;
+	public static final int ORDEM_SHARD = 50;
+
+	@Bean
+	public FilterRegistrationBean<AutenticacaoTokenFilter> autenticacaoTokenFilter(TokenService tokenService,
+			@Value("${minhasfinancas.token.obrigatorio:false}") boolean obrigatorio) {
+		FilterRegistrationBean<AutenticacaoTokenFilter> registro = new FilterRegistrationBean<>(
+				new AutenticacaoTokenFilter(tokenService, obrigatorio));
+		registro.addUrlPatterns("/api/*");
+		registro.setOrder(ORDEM_AUTENTICACAO);
+		return registro;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "minhasfinancas.limite.habilitado", havingValue = "true", matchIfMissing = true)
+	public FilterRegistrationBean<LimiteRequisicoesFilter> limiteRequisicoesFilter(MeterRegistry registry,
+			@Value("${minhasfinancas.limite.leitura.por-segundo:20}") double leituraPorSegundo,
+			@Value("${minhasfinancas.limite.leitura.rajada:40}") int leituraRajada,
+			@Value("${minhasfinancas.limite.escrita.por-segundo:10}") double escritaPorSegundo,
+			@Value("${minhasfinancas.limite.escrita.rajada:20}") int escritaRajada,
+			@Value("${minhasfinancas.limite.relatorio.por-segundo:0.2}") double relatorioPorSegundo,
+			@Value("${minhasfinancas.limite.relatorio.rajada:3}") int relatorioRajada,
+			@Value("${minhasfinancas.limite.autenticacao.por-segundo:1}") double autenticacaoPorSegundo,
+			@Value("${minhasfinancas.limite.autenticacao.rajada:10}") int autenticacaoRajada,
+			@Value("${minhasfinancas.limite.inatividade-minutos:10}") long inatividadeMinutos,
+			@Value("${minhasfinancas.limite.maximo-baldes:100000}") long maximoBaldes) {
+
+		Map<ClasseRequisicao, Limite> limites = new EnumMap<>(ClasseRequisicao.class);
+		limites.put(ClasseRequisicao.LEITURA, new Limite(leituraPorSegundo, leituraRajada));
+		limites.put(ClasseRequisicao.ESCRITA, new Limite(escritaPorSegundo, escritaRajada));
+		limites.put(ClasseRequisicao.RELATORIO, new Limite(relatorioPorSegundo, relatorioRajada));
+		limites.put(ClasseRequisicao.AUTENTICACAO, new Limite(autenticacaoPorSegundo, autenticacaoRajada));
+
+		FilterRegistrationBean<LimiteRequisicoesFilter> registro = new FilterRegistrationBean<>(
+				new LimiteRequisicoesFilter(limites, inatividadeMinutos, maximoBaldes, registry));
+		registro.addUrlPatterns("/api/*");
+		registro.setOrder(ORDEM_LIMITE_REQUISICOES);
+		return registro;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "minhasfinancas.idempotencia.habilitado", havingValue = "true", matchIfMissing = true)
+	public FilterRegistrationBean<IdempotenciaFilter> idempotenciaFilter(IdempotenciaService idempotenciaService) {
+		FilterRegistrationBean<IdempotenciaFilter> registro = new FilterRegistrationBean<>(
+				new IdempotenciaFilter(idempotenciaService));
+		registro.addUrlPatterns("/api/lancamentos", "/api/lancamentos/*");
+		registro.setOrder(ORDEM_IDEMPOTENCIA);
+		return registro;
+	}
+
+}
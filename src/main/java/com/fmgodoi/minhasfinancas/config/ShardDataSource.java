@@ -0,0 +1,40 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+/**
+ * Envia cada conexão ao shard do {@link ContextoShard}. Assim como o
+ * {@link RoteamentoDataSource}, deve ficar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * para que o shard seja escolhido no primeiro comando, e não na abertura da
+ * transação.
+ */
+public class ShardDataSource extends AbstractRoutingDataSource {
+
+	public ShardDataSource(List<DataSource> shards) {
+		Map<Object, Object> destinos = new HashMap<>();
+		for (int i = 0; i < shards.size(); i++) {
+			destinos.put(i, shards.get(i));
+		}
+		setTargetDataSources(destinos);
+		setDefaultTargetDataSource(shards.get(ResolvedorShard.CATALOGO));
+		// Shard desconhecido é erro, e não o catálogo
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Integer determineCurrentLookupKey() {
+		Integer shard = ContextoShard.atual();
+		return shard == null ? ResolvedorShard.CATALOGO : shard;
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.fmgodoi.minhasfinancas.api.filter.ShardFilter;
+import com.fmgodoi.minhasfinancas.service.MigracaoShardService;
+import com.fmgodoi.minhasfinancas.service.impl.MigracaoShardServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.ResolvedorShardDiretorio;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Distribui usuários e lançamentos entre o catálogo ({@code spring.datasource})
+ * e os shards de {@code minhasfinancas.shard.datasources}. Repositórios e
+ * serviços usam o {@link ShardDataSource}, que segue o {@link ContextoShard}
+ * definido pelo {@link ShardFilter} ou pelos jobs. Não combina com a réplica
+ * de leitura do {@link RoteamentoDataSourceConfig}.
+ * <p>
+ * O shard vem do usuário do token; sem token a requisição iria ao catálogo.
+ * Por isso exige {@code minhasfinancas.token.obrigatorio=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.shard.habilitado", havingValue = "true")
+@EnableConfigurationProperties(PropriedadesShard.class)
+public class ShardingConfig {
+
+	/** Ids gerados por shard; o shard {@code n} começa em {@code n * FAIXA_IDS}. */
+	public static final long FAIXA_IDS = 1L << 40;
+
+	public ShardingConfig(@Value("${minhasfinancas.token.obrigatorio:false}") boolean tokenObrigatorio) {
+		if (!tokenObrigatorio) {
+			throw new IllegalStateException("O sharding escolhe o shard pelo usuário do token de acesso."
+					+ " Habilite-o apenas com minhasfinancas.token.obrigatorio=true.");
+		}
+	}
+
+	@Bean
+	@Primary
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties dataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	public List<DataSource> shards(DataSourceProperties dataSourceProperties, PropriedadesShard propriedades,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanhoPool) {
+		List<DataSourceProperties> conexoes = new ArrayList<>();
+		conexoes.add(dataSourceProperties);
+		conexoes.addAll(propriedades.getDatasources());
+
+		List<DataSource> shards = new ArrayList<>(conexoes.size());
+		for (int i = 0; i < conexoes.size(); i++) {
+			HikariDataSource dataSource = conexoes.get(i).initializeDataSourceBuilder().type(HikariDataSource.class)
+					.build();
+			dataSource.setPoolName("shard-" + i);
+			dataSource.setMaximumPoolSize(tamanhoPool);
+			shards.add(dataSource);
+		}
+		return Collections.unmodifiableList(shards);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("shards") List<DataSource> shards) {
+		return new LazyConnectionDataSourceProxy(new ShardDataSource(shards));
+	}
+
+	/**
+	 * O Flyway do Spring Boot migra apenas o catálogo; os demais shards recebem
+	 * as mesmas migrações com a sua faixa de ids.
+	 */
+	@Bean
+	public FlywayMigrationStrategy migracaoShards(@Qualifier("shards") List<DataSource> shards) {
+		return flyway -> {
+			flyway.migrate();
+			for (int i = 1; i < shards.size(); i++) {
+				Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+				placeholders.put("inicio_ids", String.valueOf(i * FAIXA_IDS));
+				Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shards.get(i))
+						.placeholders(placeholders).load().migrate();
+			}
+		};
+	}
+
+	@Bean
+	public ResolvedorShardDiretorio resolvedorShard(@Qualifier("shards") List<DataSource> shards,
+			@Value("${minhasfinancas.shard.nos-virtuais:128}") int nosVirtuais,
+			@Value("${minhasfinancas.shard.cache-segundos:30}") long cacheSegundos) {
+		return new ResolvedorShardDiretorio(new JdbcTemplate(shards.get(0)), shards.size(), nosVirtuais,
+				cacheSegundos);
+	}
+
+	@Bean
+	public MigracaoShardService migracaoShardService(ResolvedorShardDiretorio resolvedorShard,
+			@Qualifier("shards") List<DataSource> shards,
+			@Value("${minhasfinancas.shard.cache-segundos:30}") long cacheSegundos) {
+		// Um segundo de folga além da validade do cache de posições
+		return new MigracaoShardServiceImpl(resolvedorShard, shards, (cacheSegundos + 1) * 1000);
+	}
+
+	/**
+	 * Leva o shard da requisição às tarefas assíncronas, como a exportação em
+	 * {@code StreamingResponseBody}.
+	 */
+	@Bean
+	public TaskDecorator propagacaoShard() {
+		return tarefa -> {
+			Integer shard = ContextoShard.atual();
+			if (shard == null) {
+				return tarefa;
+			}
+			return () -> ContextoShard.executar(shard, () -> {
+				tarefa.run();
+				return null;
+			});
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<ShardFilter> shardFilter(ResolvedorShardDiretorio resolvedorShard) {
+		FilterRegistrationBean<ShardFilter> registro = new FilterRegistrationBean<>(
+				new ShardFilter(resolvedorShard));
+		registro.addUrlPatterns("/api/*");
+		registro.setOrder(SegurancaConfig.ORDEM_SHARD);
+		return registro;
+	}
+
+}
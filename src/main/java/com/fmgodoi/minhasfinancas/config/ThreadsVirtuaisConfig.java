@@ -0,0 +1,57 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * Executa as requisições do Tomcat, o trabalho {@code @Async} e as respostas
+ * assíncronas do MVC em threads virtuais (JDK 21+). Nesse modo o pool do
+ * Hikari passa a ser o único limitador de concorrência.
+ */
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.threads-virtuais.habilitado", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService executorThreadsVirtuais() {
+		try {
+			// O projeto compila para Java 8; a API só existe em tempo de execução no JDK 21+
+			Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) fabrica.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Threads virtuais exigem JDK 21 ou superior (em uso: "
+					+ System.getProperty("java.version") + ").", e);
+		}
+	}
+
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatThreadsVirtuais(
+			ExecutorService executorThreadsVirtuais) {
+		return factory -> factory.addConnectorCustomizers(
+				connector -> connector.getProtocolHandler().setExecutor(executorThreadsVirtuais));
+	}
+
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public AsyncTaskExecutor applicationTaskExecutor(ExecutorService executorThreadsVirtuais,
+			ObjectProvider<TaskDecorator> taskDecorator) {
+		TaskExecutorAdapter executor = new TaskExecutorAdapter(executorThreadsVirtuais);
+		// Mesmo decorador que o Spring Boot aplicaria ao pool padrão
+		taskDecorator.ifUnique(executor::setTaskDecorator);
+		return executor;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.fmgodoi.minhasfinancas.job;
+
+import java.time.Year;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.service.ArquivoLancamentoService;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Arquiva os lançamentos encerrados dos anos anteriores aos
+ * {@code anos-abertos} mais recentes, contando o ano corrente.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.arquivo.habilitado", havingValue = "true")
+public class ArquivamentoLancamentosJob {
+
+	private final ArquivoLancamentoService arquivoService;
+	private final ResolvedorShard resolvedorShard;
+	private final int anosAbertos;
+
+	public ArquivamentoLancamentosJob(ArquivoLancamentoService arquivoService, ResolvedorShard resolvedorShard,
+			@Value("${minhasfinancas.arquivo.anos-abertos:2}") int anosAbertos) {
+		this.arquivoService = arquivoService;
+		this.resolvedorShard = resolvedorShard;
+		this.anosAbertos = Math.max(anosAbertos, 1);
+	}
+
+	@Scheduled(cron = "${minhasfinancas.arquivo.cron:0 0 4 1 * *}")
+	public void arquivar() {
+		int anoLimite = Year.now().getValue() - anosAbertos + 1;
+		long inicio = System.nanoTime();
+		int arquivados = 0;
+		for (int shard : resolvedorShard.getShards()) {
+			arquivados += ContextoShard.executar(shard, () -> arquivoService.arquivar(anoLimite));
+		}
+		log.info("Lançamentos anteriores a {} arquivados: {} em {} ms", anoLimite, arquivados,
+				(System.nanoTime() - inicio) / 1_000_000);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.fmgodoi.minhasfinancas.job;
+
+import java.time.YearMonth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.service.RecorrenciaService;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gera antecipadamente os lançamentos das recorrências até
+ * {@code meses-antecedencia} meses à frente do mês corrente.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.recorrencia.geracao.habilitado", havingValue = "true", matchIfMissing = true)
+public class GeracaoRecorrenciasJob {
+
+	private final RecorrenciaService recorrenciaService;
+	private final ResolvedorShard resolvedorShard;
+	private final int mesesAntecedencia;
+
+	public GeracaoRecorrenciasJob(RecorrenciaService recorrenciaService, ResolvedorShard resolvedorShard,
+			@Value("${minhasfinancas.recorrencia.geracao.meses-antecedencia:3}") int mesesAntecedencia) {
+		this.recorrenciaService = recorrenciaService;
+		this.resolvedorShard = resolvedorShard;
+		this.mesesAntecedencia = mesesAntecedencia;
+	}
+
+	@Scheduled(cron = "${minhasfinancas.recorrencia.geracao.cron:0 0 3 * * *}")
+	public void gerar() {
+		YearMonth ate = YearMonth.now().plusMonths(mesesAntecedencia);
+		long inicio = System.nanoTime();
+		int gerados = 0;
+		for (int shard : resolvedorShard.getShards()) {
+			gerados += ContextoShard.executar(shard,
+					() -> recorrenciaService.gerar(ate.getYear(), ate.getMonthValue()));
+		}
+		log.info("Recorrências geradas até {}: {} lançamento(s) em {} ms", ate, gerados,
+				(System.nanoTime() - inicio) / 1_000_000);
+	}
+
+}
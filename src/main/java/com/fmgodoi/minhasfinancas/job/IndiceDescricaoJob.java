@@ -0,0 +1,26 @@
+package com.fmgodoi.minhasfinancas.job;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.fmgodoi.minhasfinancas.service.IndiceDescricaoService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Carrega o índice de descrições na inicialização. Enquanto não estiver
+ * pronto, as buscas usam apenas o banco de dados.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceDescricaoJob implements ApplicationRunner {
+
+	private final IndiceDescricaoService indiceDescricao;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		indiceDescricao.reconstruir();
+	}
+
+}
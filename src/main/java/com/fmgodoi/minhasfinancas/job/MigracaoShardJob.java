@@ -0,0 +1,46 @@
+package com.fmgodoi.minhasfinancas.job;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fmgodoi.minhasfinancas.service.MigracaoShardService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Move usuários entre shards com a aplicação no ar. Executado na
+ * inicialização com {@code --shard.mover=<id do usuário>:<shard de destino>},
+ * que pode ser repetido.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minhasfinancas.shard.habilitado", havingValue = "true")
+public class MigracaoShardJob implements ApplicationRunner {
+
+	static final String MOVER = "shard.mover";
+
+	private final MigracaoShardService migracaoService;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!args.containsOption(MOVER)) {
+			return;
+		}
+
+		for (String movimento : args.getOptionValues(MOVER)) {
+			String[] partes = movimento.split(":");
+			if (partes.length != 2) {
+				throw new IllegalArgumentException("Use --" + MOVER + "=<id do usuário>:<shard>: " + movimento);
+			}
+			Long idUsuario = Long.valueOf(partes[0].trim());
+			int destino = Integer.parseInt(partes[1].trim());
+			int linhas = migracaoService.mover(idUsuario, destino);
+			log.info("Usuário {} migrado para o shard {} ({} linha(s)).", idUsuario, destino, linhas);
+		}
+	}
+
+}
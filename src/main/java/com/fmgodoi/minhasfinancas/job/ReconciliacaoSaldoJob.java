@@ -0,0 +1,50 @@
+package com.fmgodoi.minhasfinancas.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.service.DivergenciaSaldo;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+import com.fmgodoi.minhasfinancas.service.SaldoUsuarioService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recalcula o saldo de todos os usuários a partir da tabela de lançamentos.
+ * Executado na inicialização com {@code --saldo.verificar} (apenas relata as
+ * divergências) ou {@code --saldo.reconstruir} (relata e corrige).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconciliacaoSaldoJob implements ApplicationRunner {
+
+	static final String VERIFICAR = "saldo.verificar";
+	static final String RECONSTRUIR = "saldo.reconstruir";
+
+	private final SaldoUsuarioService saldoService;
+	private final ResolvedorShard resolvedorShard;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		boolean reconstruir = args.containsOption(RECONSTRUIR);
+		if (!reconstruir && !args.containsOption(VERIFICAR)) {
+			return;
+		}
+
+		List<DivergenciaSaldo> divergencias = new ArrayList<>();
+		for (int shard : resolvedorShard.getShards()) {
+			divergencias.addAll(ContextoShard.executar(shard, () -> saldoService.reconciliar(reconstruir)));
+		}
+		divergencias.forEach(d -> log.warn("Saldo divergente: {}", d));
+		log.info("Reconciliação de saldos concluída: {} divergência(s){}", divergencias.size(),
+				reconstruir ? " corrigida(s)" : "");
+	}
+
+}
@@ -0,0 +1,279 @@
+package com.fmgodoi.minhasfinancas.model.arquivo;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+/**
+ * Lançamentos de um usuário em um ano, gravados por coluna e lidos por
+ * mapeamento de memória. As linhas ficam ordenadas por mês e id.
+ *
+ * <pre>
+ * cabeçalho   magico, versao, ano, quantidade, entradas do dicionário, reservado (int)
+ * id          long[quantidade]
+ * valor       long[quantidade]   centavos
+ * cadastro    int[quantidade]    dia epoch, {@link Integer#MIN_VALUE} quando nulo
+ * descricao   int[quantidade]    código no dicionário, -1 quando nula
+ * mes         byte[quantidade]
+ * tipo        byte[quantidade]   ordinal de {@link TipoLancamento}
+ * status      byte[quantidade]   ordinal de {@link StatusLancamento}
+ * dicionário  int[entradas + 1]  deslocamentos, seguidos das descrições em UTF-8
+ * </pre>
+ *
+ * Alterar a ordem das constantes dos enums exige uma nova {@link #VERSAO}.
+ */
+public class SegmentoLancamentos {
+
+	static final int MAGICO = 0x4D465347;
+	static final int VERSAO = 1;
+	static final int TAMANHO_CABECALHO = 24;
+	static final int SEM_DATA = Integer.MIN_VALUE;
+	static final int SEM_DESCRICAO = -1;
+
+	private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+
+	private final ByteBuffer dados;
+	private final FileTime modificadoEm;
+	private final int ano;
+	private final int quantidade;
+	private final int entradas;
+	private final int inicioValor;
+	private final int inicioCadastro;
+	private final int inicioDescricao;
+	private final int inicioMes;
+	private final int inicioTipo;
+	private final int inicioStatus;
+	private final int inicioDicionario;
+	private final int inicioTextos;
+	private final String[] dicionario;
+
+	SegmentoLancamentos(ByteBuffer dados, FileTime modificadoEm) {
+		if (dados.limit() < TAMANHO_CABECALHO || dados.getInt(0) != MAGICO) {
+			throw new IllegalArgumentException("Segmento de lançamentos inválido.");
+		}
+		if (dados.getInt(4) != VERSAO) {
+			throw new IllegalArgumentException("Versão de segmento não suportada: " + dados.getInt(4));
+		}
+
+		this.dados = dados;
+		this.modificadoEm = modificadoEm;
+		this.ano = dados.getInt(8);
+		this.quantidade = dados.getInt(12);
+		this.entradas = dados.getInt(16);
+		this.inicioValor = TAMANHO_CABECALHO + quantidade * Long.BYTES;
+		this.inicioCadastro = inicioValor + quantidade * Long.BYTES;
+		this.inicioDescricao = inicioCadastro + quantidade * Integer.BYTES;
+		this.inicioMes = inicioDescricao + quantidade * Integer.BYTES;
+		this.inicioTipo = inicioMes + quantidade;
+		this.inicioStatus = inicioTipo + quantidade;
+		this.inicioDicionario = inicioStatus + quantidade;
+		this.inicioTextos = inicioDicionario + (entradas + 1) * Integer.BYTES;
+		this.dicionario = new String[entradas];
+	}
+
+	public static SegmentoLancamentos abrir(Path arquivo) throws IOException {
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			// O mapeamento continua válido depois de fechar o canal
+			MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			return new SegmentoLancamentos(dados, Files.getLastModifiedTime(arquivo));
+		}
+	}
+
+	/**
+	 * Grava o segmento em um arquivo temporário e o move para o destino, de
+	 * modo que leitores nunca enxergam um segmento incompleto.
+	 */
+	public static void gravar(Path arquivo, int ano, List<LancamentoView> lancamentos) throws IOException {
+		List<LancamentoView> ordenados = new ArrayList<>(lancamentos);
+		ordenados.sort(Comparator.comparing(LancamentoView::getMes).thenComparing(LancamentoView::getId));
+
+		Map<String, Integer> codigos = new HashMap<>();
+		List<byte[]> textos = new ArrayList<>();
+		int tamanhoTextos = 0;
+		int[] descricoes = new int[ordenados.size()];
+		for (int i = 0; i < ordenados.size(); i++) {
+			String descricao = ordenados.get(i).getDescricao();
+			if (descricao == null) {
+				descricoes[i] = SEM_DESCRICAO;
+				continue;
+			}
+
+			Integer codigo = codigos.get(descricao);
+			if (codigo == null) {
+				codigo = textos.size();
+				codigos.put(descricao, codigo);
+				byte[] texto = descricao.getBytes(StandardCharsets.UTF_8);
+				textos.add(texto);
+				tamanhoTextos += texto.length;
+			}
+			descricoes[i] = codigo;
+		}
+
+		int n = ordenados.size();
+		int tamanho = TAMANHO_CABECALHO + n * (2 * Long.BYTES + 2 * Integer.BYTES + 3)
+				+ (textos.size() + 1) * Integer.BYTES + tamanhoTextos;
+		ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+		buffer.putInt(MAGICO).putInt(VERSAO).putInt(ano).putInt(n).putInt(textos.size()).putInt(0);
+		for (LancamentoView lancamento : ordenados) {
+			buffer.putLong(lancamento.getId());
+		}
+		for (LancamentoView lancamento : ordenados) {
+			buffer.putLong(centavos(lancamento.getValor()));
+		}
+		for (LancamentoView lancamento : ordenados) {
+			LocalDate cadastro = lancamento.getDataCadastro();
+			buffer.putInt(cadastro == null ? SEM_DATA : (int) cadastro.toEpochDay());
+		}
+		for (int descricao : descricoes) {
+			buffer.putInt(descricao);
+		}
+		for (LancamentoView lancamento : ordenados) {
+			buffer.put(lancamento.getMes().byteValue());
+		}
+		for (LancamentoView lancamento : ordenados) {
+			buffer.put((byte) lancamento.getTipo().ordinal());
+		}
+		for (LancamentoView lancamento : ordenados) {
+			buffer.put((byte) lancamento.getStatus().ordinal());
+		}
+		int deslocamento = 0;
+		for (byte[] texto : textos) {
+			buffer.putInt(deslocamento);
+			deslocamento += texto.length;
+		}
+		buffer.putInt(deslocamento);
+		for (byte[] texto : textos) {
+			buffer.put(texto);
+		}
+		buffer.flip();
+
+		Files.createDirectories(arquivo.getParent());
+		Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+		try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				canal.write(buffer);
+			}
+			canal.force(true);
+		}
+		Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public FileTime getModificadoEm() {
+		return modificadoEm;
+	}
+
+	public int getAno() {
+		return ano;
+	}
+
+	public int getQuantidade() {
+		return quantidade;
+	}
+
+	public long getId(int linha) {
+		return dados.getLong(TAMANHO_CABECALHO + linha * Long.BYTES);
+	}
+
+	public long getValorCentavos(int linha) {
+		return dados.getLong(inicioValor + linha * Long.BYTES);
+	}
+
+	public BigDecimal getValor(int linha) {
+		return BigDecimal.valueOf(getValorCentavos(linha), 2);
+	}
+
+	public LocalDate getDataCadastro(int linha) {
+		int dia = dados.getInt(inicioCadastro + linha * Integer.BYTES);
+		return dia == SEM_DATA ? null : LocalDate.ofEpochDay(dia);
+	}
+
+	public int getCodigoDescricao(int linha) {
+		return dados.getInt(inicioDescricao + linha * Integer.BYTES);
+	}
+
+	public String getDescricao(int linha) {
+		int codigo = getCodigoDescricao(linha);
+		return codigo == SEM_DESCRICAO ? null : descricao(codigo);
+	}
+
+	public int getMes(int linha) {
+		return dados.get(inicioMes + linha);
+	}
+
+	public TipoLancamento getTipo(int linha) {
+		return TIPOS[dados.get(inicioTipo + linha)];
+	}
+
+	public StatusLancamento getStatus(int linha) {
+		return STATUS[dados.get(inicioStatus + linha)];
+	}
+
+	public LancamentoView ler(int linha, Long idUsuario) {
+		return new LancamentoView(getId(linha), getDescricao(linha), getMes(linha), ano, getValor(linha), idUsuario,
+				getTipo(linha), getStatus(linha), getDataCadastro(linha));
+	}
+
+	/**
+	 * Avalia o termo uma vez por entrada do dicionário, e não por linha.
+	 */
+	public boolean[] descricoesContendo(String termo) {
+		String procurado = termo.toLowerCase(Locale.ROOT);
+		boolean[] contem = new boolean[entradas];
+		for (int codigo = 0; codigo < entradas; codigo++) {
+			contem[codigo] = descricao(codigo).toLowerCase(Locale.ROOT).contains(procurado);
+		}
+		return contem;
+	}
+
+	public List<LancamentoView> lerTodos(Long idUsuario) {
+		List<LancamentoView> lancamentos = new ArrayList<>(quantidade);
+		for (int linha = 0; linha < quantidade; linha++) {
+			lancamentos.add(ler(linha, idUsuario));
+		}
+		return lancamentos;
+	}
+
+	private String descricao(int codigo) {
+		// Corrida benigna: duas threads podem decodificar a mesma entrada
+		String descricao = dicionario[codigo];
+		if (descricao == null) {
+			int inicio = dados.getInt(inicioDicionario + codigo * Integer.BYTES);
+			int fim = dados.getInt(inicioDicionario + (codigo + 1) * Integer.BYTES);
+			byte[] texto = new byte[fim - inicio];
+			ByteBuffer leitura = dados.duplicate();
+			leitura.position(inicioTextos + inicio);
+			leitura.get(texto);
+			descricao = new String(texto, StandardCharsets.UTF_8);
+			dicionario[codigo] = descricao;
+		}
+		return descricao;
+	}
+
+	private static long centavos(BigDecimal valor) {
+		return valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.fmgodoi.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import model.enums.TipoLancamento;
+
+/**
+ * Lançamento que se repete todo mês a partir de {@code anoInicio}/{@code mesInicio}:
+ * {@code quantidade} vezes, ou indefinidamente quando nula. As ocorrências até
+ * {@code geradas - 1} já existem como {@link Lancamento}; {@code proximaCompetencia}
+ * ({@code ano * 12 + mes - 1}) é a próxima a gerar, ou nula quando encerrada.
+ */
+@Entity
+@Table(name = "recorrencia", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recorrencia {
+
+	@Id
+	@Column(name = "id")
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "descricao")
+	private String descricao;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "ano_inicio")
+	private Integer anoInicio;
+
+	@Column(name = "mes_inicio")
+	private Integer mesInicio;
+
+	@Column(name = "quantidade")
+	private Integer quantidade;
+
+	@Column(name = "parcelada")
+	private boolean parcelada;
+
+	@Column(name = "geradas")
+	private int geradas;
+
+	@Column(name = "proxima_competencia")
+	private Integer proximaCompetencia;
+
+	public static int competencia(int ano, int mes) {
+		return ano * 12 + mes - 1;
+	}
+
+	public int competenciaInicial() {
+		return competencia(anoInicio, mesInicio);
+	}
+
+	/**
+	 * Índice da última ocorrência com competência até {@code ate}, limitado à
+	 * quantidade, ou -1 se nenhuma.
+	 */
+	public int ultimaOcorrenciaAte(int ate) {
+		int ultima = ate - competenciaInicial();
+		return quantidade == null ? ultima : Math.min(ultima, quantidade - 1);
+	}
+
+	public Lancamento ocorrencia(int indice) {
+		int competencia = competenciaInicial() + indice;
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(parcelada ? descricao + " " + (indice + 1) + "/" + quantidade : descricao);
+		lancamento.setAno(competencia / 12);
+		lancamento.setMes(competencia % 12 + 1);
+		lancamento.setValor(valor);
+		lancamento.setTipo(tipo);
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
+		return lancamento;
+	}
+
+	public void registrarGeradas(int geradas) {
+		this.geradas = geradas;
+		boolean encerrada = quantidade != null && geradas >= quantidade;
+		this.proximaCompetencia = encerrada ? null : competenciaInicial() + geradas;
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.fmgodoi.minhasfinancas.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "resposta_idempotente", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespostaIdempotente {
+
+	@Id
+	@Column(name = "chave")
+	private String chave;
+
+	@Column(name = "metodo")
+	private String metodo;
+
+	@Column(name = "caminho")
+	private String caminho;
+
+	@Column(name = "hash_corpo")
+	private String hashCorpo;
+
+	@Column(name = "status")
+	private Integer status;
+
+	@Column(name = "tipo_conteudo")
+	private String tipoConteudo;
+
+	@Column(name = "corpo")
+	private byte[] corpo;
+
+	@Column(name = "criado_em")
+	@Convert(converter = Jsr310JpaConverters.InstantConverter.class)
+	private Instant criadoEm;
+
+	public boolean isMesmaRequisicao(String metodo, String caminho, String hashCorpo) {
+		// Respostas gravadas antes do hash do corpo só comparam método e caminho
+		return this.metodo.equals(metodo) && this.caminho.equals(caminho)
+				&& (this.hashCorpo == null || this.hashCorpo.equals(hashCorpo));
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.fmgodoi.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "receitas")
+	private BigDecimal receitas;
+
+	@Column(name = "despesas")
+	private BigDecimal despesas;
+
+	@Column(name = "quantidade")
+	private Long quantidade;
+
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+
+	public BigDecimal getSaldo() {
+		return receitas.subtract(despesas);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.fmgodoi.minhasfinancas.model.paginacao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CursorLancamento {
+
+	public static final Comparator<CursorLancamento> ORDEM = Comparator.comparing(CursorLancamento::getAno)
+			.thenComparing(CursorLancamento::getMes).thenComparing(CursorLancamento::getId);
+
+	private Integer ano;
+	private Integer mes;
+	private Long id;
+
+	public static CursorLancamento apos(Lancamento lancamento) {
+		return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+	}
+
+	public static CursorLancamento apos(LancamentoView lancamento) {
+		return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+	}
+
+	public static CursorLancamento decodificar(String valor) {
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(valor), StandardCharsets.UTF_8).split(":");
+			return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]),
+					Long.valueOf(partes[2]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new RegraNegocioException("Cursor de paginação inválido.");
+		}
+	}
+
+	public String codificar() {
+		String valor = ano + ":" + mes + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
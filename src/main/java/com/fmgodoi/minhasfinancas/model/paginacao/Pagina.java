@@ -0,0 +1,15 @@
+package com.fmgodoi.minhasfinancas.model.paginacao;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class Pagina<T> {
+
+	private List<T> itens;
+	private String next;
+
+}
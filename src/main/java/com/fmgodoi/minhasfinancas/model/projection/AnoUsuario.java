@@ -0,0 +1,13 @@
+package com.fmgodoi.minhasfinancas.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AnoUsuario {
+
+	private Long idUsuario;
+	private Integer ano;
+
+}
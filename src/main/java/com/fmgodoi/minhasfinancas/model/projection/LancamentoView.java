@@ -0,0 +1,25 @@
+package com.fmgodoi.minhasfinancas.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+@Data
+@AllArgsConstructor
+public class LancamentoView {
+
+	private Long id;
+	private String descricao;
+	private Integer mes;
+	private Integer ano;
+	private BigDecimal valor;
+	private Long usuarioId;
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+	private LocalDate dataCadastro;
+
+}
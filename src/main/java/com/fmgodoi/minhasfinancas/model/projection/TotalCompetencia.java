@@ -0,0 +1,18 @@
+package com.fmgodoi.minhasfinancas.model.projection;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import model.enums.TipoLancamento;
+
+@Data
+@AllArgsConstructor
+public class TotalCompetencia {
+
+	private Integer ano;
+	private Integer mes;
+	private TipoLancamento tipo;
+	private BigDecimal total;
+
+}
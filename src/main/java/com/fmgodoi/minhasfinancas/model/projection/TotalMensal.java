@@ -0,0 +1,20 @@
+package com.fmgodoi.minhasfinancas.model.projection;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+@Data
+@AllArgsConstructor
+public class TotalMensal {
+
+	private Integer mes;
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+	private BigDecimal total;
+	private Long quantidade;
+
+}
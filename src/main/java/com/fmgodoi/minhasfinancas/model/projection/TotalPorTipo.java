@@ -0,0 +1,22 @@
+package com.fmgodoi.minhasfinancas.model.projection;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import model.enums.TipoLancamento;
+
+@Data
+@AllArgsConstructor
+public class TotalPorTipo {
+
+	private Long idUsuario;
+	private TipoLancamento tipo;
+	private BigDecimal total;
+	private Long quantidade;
+
+	public TotalPorTipo(Long idUsuario, TipoLancamento tipo, BigDecimal total) {
+		this(idUsuario, tipo, total, 1L);
+	}
+
+}
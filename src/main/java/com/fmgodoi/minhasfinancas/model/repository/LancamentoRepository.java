@@ -1,22 +1,86 @@
 package com.fmgodoi.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.AnoUsuario;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalCompetencia;
+import com.fmgodoi.minhasfinancas.model.projection.TotalMensal;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
 
+import model.enums.StatusLancamento;
 import model.enums.TipoLancamento;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
 
 	@Query(value = "select sum(l.valor) from Lancamento l join l.usuario u"
 			+ " where u.id = :idUsuario and l.tipo = :tipo group by u")
 	BigDecimal obterSaldoPorTipoLancamentoEUsuario(@Param("idUsuario") Long idUsuario,
 			@Param("tipo") TipoLancamento tipo);
 
+	@Query(value = "select new com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo(l.usuario.id, l.tipo, l.valor)"
+			+ " from Lancamento l where l.id = :id")
+	@QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+	Optional<TotalPorTipo> obterTotalPersistido(@Param("id") Long id);
+
+	@Query(value = "select new com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo(l.usuario.id, l.tipo, sum(l.valor), count(l))"
+			+ " from Lancamento l where l.usuario.id = :idUsuario group by l.usuario.id, l.tipo")
+	List<TotalPorTipo> totalizarPorUsuario(@Param("idUsuario") Long idUsuario);
+
+	@Query(value = "select new com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo(l.usuario.id, l.tipo, sum(l.valor), count(l))"
+			+ " from Lancamento l group by l.usuario.id, l.tipo")
+	List<TotalPorTipo> totalizarTodos();
+
+	@Query(value = "select new com.fmgodoi.minhasfinancas.model.projection.TotalMensal(l.mes, l.tipo, l.status, sum(l.valor), count(l))"
+			+ " from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano group by l.mes, l.tipo, l.status")
+	List<TotalMensal> totalizarPorMes(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+	@Query(value = "select l from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id")
+	@QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	Stream<Lancamento> percorrerPorUsuario(@Param("idUsuario") Long idUsuario);
+
+	@Query(value = "select new com.fmgodoi.minhasfinancas.model.projection.LancamentoView(l.id, l.descricao, l.mes, l.ano,"
+			+ " l.valor, l.usuario.id, l.tipo, l.status, l.dataCadastro) from Lancamento l")
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	Stream<LancamentoView> percorrerViews();
+
+	@Query(value = "select new com.fmgodoi.minhasfinancas.model.projection.TotalCompetencia(l.ano, l.mes, l.tipo, sum(l.valor))"
+			+ " from Lancamento l where l.usuario.id = :idUsuario"
+			+ " and (l.ano > :ano or (l.ano = :ano and l.mes > :mes))"
+			+ " group by l.ano, l.mes, l.tipo order by l.ano desc, l.mes desc")
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	Stream<TotalCompetencia> percorrerTotaisPosteriores(@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano, @Param("mes") Integer mes);
+
+	@Query(value = "select distinct new com.fmgodoi.minhasfinancas.model.projection.AnoUsuario(l.usuario.id, l.ano)"
+			+ " from Lancamento l where l.ano < :ano and l.status in :status order by l.usuario.id, l.ano")
+	List<AnoUsuario> buscarAnosArquivaveis(@Param("ano") Integer ano,
+			@Param("status") Collection<StatusLancamento> status);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query(value = "select l from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano and l.status in :status")
+	List<Lancamento> travarArquivaveis(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano,
+			@Param("status") Collection<StatusLancamento> status);
+
+	@Modifying
+	@Query(value = "delete from Lancamento l where l.id in :ids")
+	int removerPorIds(@Param("ids") Collection<Long> ids);
+
 }
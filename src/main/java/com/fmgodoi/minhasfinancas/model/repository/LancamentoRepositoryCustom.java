@@ -0,0 +1,22 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+
+import model.enums.StatusLancamento;
+
+public interface LancamentoRepositoryCustom {
+
+	List<LancamentoView> buscarViews(Lancamento filtro, Collection<Long> ids, CursorLancamento apos, Integer limite);
+
+	int atualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status);
+
+	void descarregar();
+
+	void desanexar(Lancamento lancamento);
+
+}
@@ -0,0 +1,133 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+
+import model.enums.StatusLancamento;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<LancamentoView> buscarViews(Lancamento filtro, Collection<Long> ids, CursorLancamento apos,
+			Integer limite) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoView> query = cb.createQuery(LancamentoView.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		query.select(cb.construct(LancamentoView.class, root.get("id"), root.get("descricao"), root.get("mes"),
+				root.get("ano"), root.get("valor"), root.get("usuario").get("id"), root.get("tipo"),
+				root.get("status"), root.get("dataCadastro")));
+
+		List<Predicate> predicados = filtrar(cb, root, filtro);
+		if (ids != null) {
+			predicados.add(root.get("id").in(ids));
+		}
+
+		if (apos != null) {
+			predicados.add(posteriorA(cb, root, apos));
+		}
+
+		query.where(predicados.toArray(new Predicate[0]));
+		query.orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+
+		TypedQuery<LancamentoView> typedQuery = entityManager.createQuery(query);
+		if (limite != null) {
+			typedQuery.setMaxResults(limite);
+		}
+		return typedQuery.getResultList();
+	}
+
+	@Override
+	public int atualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+		Root<Lancamento> root = update.from(Lancamento.class);
+		update.set(root.<StatusLancamento>get("status"), status);
+
+		List<Predicate> predicados = filtrar(cb, root, filtro);
+		if (ids != null && !ids.isEmpty()) {
+			predicados.add(root.get("id").in(ids));
+		}
+		update.where(predicados.toArray(new Predicate[0]));
+
+		entityManager.flush();
+		int atualizados = entityManager.createQuery(update).executeUpdate();
+		entityManager.clear();
+		return atualizados;
+	}
+
+	@Override
+	public void descarregar() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Override
+	public void desanexar(Lancamento lancamento) {
+		entityManager.detach(lancamento);
+	}
+
+	private List<Predicate> filtrar(CriteriaBuilder cb, Root<Lancamento> root, Lancamento filtro) {
+		List<Predicate> predicados = new ArrayList<>();
+
+		if (filtro.getUsuario() != null && filtro.getUsuario().getId() != null) {
+			predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuario().getId()));
+		}
+
+		if (filtro.getDescricao() != null) {
+			predicados.add(cb.like(cb.lower(root.<String>get("descricao")), contendo(filtro.getDescricao()), '\\'));
+		}
+
+		if (filtro.getAno() != null) {
+			predicados.add(cb.equal(root.get("ano"), filtro.getAno()));
+		}
+
+		if (filtro.getMes() != null) {
+			predicados.add(cb.equal(root.get("mes"), filtro.getMes()));
+		}
+
+		if (filtro.getTipo() != null) {
+			predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+		}
+
+		if (filtro.getStatus() != null) {
+			predicados.add(cb.equal(root.get("status"), filtro.getStatus()));
+		}
+
+		return predicados;
+	}
+
+	private Predicate posteriorA(CriteriaBuilder cb, Root<Lancamento> root, CursorLancamento apos) {
+		Path<Integer> ano = root.get("ano");
+		Path<Integer> mes = root.get("mes");
+		Path<Long> id = root.get("id");
+
+		return cb.or(cb.greaterThan(ano, apos.getAno()),
+				cb.and(cb.equal(ano, apos.getAno()), cb.greaterThan(mes, apos.getMes())),
+				cb.and(cb.equal(ano, apos.getAno()), cb.equal(mes, apos.getMes()), cb.greaterThan(id, apos.getId())));
+	}
+
+	private static String contendo(String descricao) {
+		String escapado = descricao.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+		return "%" + escapado + "%";
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.fmgodoi.minhasfinancas.model.entity.Recorrencia;
+
+public interface RecorrenciaRepository extends JpaRepository<Recorrencia, Long> {
+
+	List<Recorrencia> findByIdUsuarioOrderById(Long idUsuario);
+
+	@Query(value = "select r from Recorrencia r where r.proximaCompetencia <= :ate and r.id > :aposId order by r.id")
+	List<Recorrencia> buscarPendentes(@Param("ate") int ate, @Param("aposId") long aposId, Pageable pagina);
+
+	@Query(value = "select r from Recorrencia r where r.idUsuario = :idUsuario and r.proximaCompetencia <= :ate"
+			+ " order by r.id")
+	List<Recorrencia> buscarPendentesDoUsuario(@Param("idUsuario") Long idUsuario, @Param("ate") int ate);
+
+}
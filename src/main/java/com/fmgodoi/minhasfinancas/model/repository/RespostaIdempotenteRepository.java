@@ -0,0 +1,20 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fmgodoi.minhasfinancas.model.entity.RespostaIdempotente;
+
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+	@Modifying
+	@Transactional
+	@Query(value = "delete from RespostaIdempotente r where r.criadoEm < :limite")
+	int removerAnteriores(@Param("limite") Instant limite);
+
+}
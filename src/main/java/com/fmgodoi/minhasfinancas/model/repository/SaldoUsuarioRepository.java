@@ -0,0 +1,24 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.fmgodoi.minhasfinancas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+	@Modifying
+	@Query(value = "update SaldoUsuario s set s.receitas = s.receitas + :receitas, s.despesas = s.despesas + :despesas,"
+			+ " s.quantidade = s.quantidade + :quantidade, s.versao = s.versao + 1 where s.idUsuario = :idUsuario")
+	int acumular(@Param("idUsuario") Long idUsuario, @Param("receitas") BigDecimal receitas,
+			@Param("despesas") BigDecimal despesas, @Param("quantidade") Long quantidade);
+
+	@Query("select s.versao from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+
+}
@@ -0,0 +1,15 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import com.fmgodoi.minhasfinancas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepositoryCustom {
+
+	/**
+	 * Insere {@code inicial} ou, se outra transação já criou o registro do
+	 * usuário, soma as diferenças a ele, em um único comando atômico.
+	 */
+	void criarOuAcumular(SaldoUsuario inicial, BigDecimal receitas, BigDecimal despesas, Long quantidade);
+
+}
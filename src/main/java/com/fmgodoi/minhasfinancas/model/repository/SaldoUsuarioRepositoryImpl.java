@@ -0,0 +1,50 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import com.fmgodoi.minhasfinancas.model.entity.SaldoUsuario;
+
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+	private static final String UPSERT_POSTGRESQL = "insert into financas.saldo_usuario as s"
+			+ " (id_usuario, receitas, despesas, quantidade, versao)"
+			+ " values (:idUsuario, :receitasIniciais, :despesasIniciais, :quantidadeInicial, 0)"
+			+ " on conflict (id_usuario) do update set receitas = s.receitas + :receitas,"
+			+ " despesas = s.despesas + :despesas, quantidade = s.quantidade + :quantidade, versao = s.versao + 1";
+
+	private static final String UPSERT_PADRAO = "merge into financas.saldo_usuario s"
+			+ " using (select cast(:idUsuario as bigint) as id_usuario from dual) n on s.id_usuario = n.id_usuario"
+			+ " when matched then update set receitas = s.receitas + :receitas, despesas = s.despesas + :despesas,"
+			+ " quantidade = s.quantidade + :quantidade, versao = s.versao + 1"
+			+ " when not matched then insert (id_usuario, receitas, despesas, quantidade, versao)"
+			+ " values (:idUsuario, :receitasIniciais, :despesasIniciais, :quantidadeInicial, 0)";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private volatile String upsert;
+
+	@Override
+	public void criarOuAcumular(SaldoUsuario inicial, BigDecimal receitas, BigDecimal despesas, Long quantidade) {
+		entityManager.createNativeQuery(upsert()).setParameter("idUsuario", inicial.getIdUsuario())
+				.setParameter("receitasIniciais", inicial.getReceitas())
+				.setParameter("despesasIniciais", inicial.getDespesas())
+				.setParameter("quantidadeInicial", inicial.getQuantidade()).setParameter("receitas", receitas)
+				.setParameter("despesas", despesas).setParameter("quantidade", quantidade).executeUpdate();
+	}
+
+	private String upsert() {
+		if (upsert == null) {
+			String banco = entityManager.unwrap(Session.class)
+					.doReturningWork(conexao -> conexao.getMetaData().getDatabaseProductName());
+			upsert = "PostgreSQL".equals(banco) ? UPSERT_POSTGRESQL : UPSERT_PADRAO;
+		}
+		return upsert;
+	}
+
+}
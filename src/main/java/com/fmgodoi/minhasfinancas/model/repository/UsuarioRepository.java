@@ -1,15 +1,35 @@
 package com.fmgodoi.minhasfinancas.model.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fmgodoi.minhasfinancas.config.CacheConfig;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
 	boolean existsByEmail(String email);
 
+	@Cacheable(cacheNames = CacheConfig.USUARIOS_POR_EMAIL, unless = "#result == null")
 	Optional<Usuario> findByEmail(String email);
 
+	@Query(value = "select u.id from Usuario u")
+	List<Long> buscarIds();
+
+	@Modifying
+	@Transactional
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#p0"),
+			@CacheEvict(cacheNames = CacheConfig.USUARIOS_POR_EMAIL, key = "#p1") })
+	@Query(value = "update Usuario u set u.senha = :senha where u.id = :id and u.email = :email")
+	int atualizarSenha(@Param("id") Long id, @Param("email") String email, @Param("senha") String senha);
+
 }
@@ -0,0 +1,35 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalMensal;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
+
+public interface ArquivoLancamentoService {
+
+	/**
+	 * Move para os segmentos os lançamentos efetivados e cancelados de anos
+	 * anteriores a {@code anoLimite}.
+	 *
+	 * @return quantidade de lançamentos arquivados
+	 */
+	int arquivar(int anoLimite);
+
+	/**
+	 * Lançamentos arquivados do usuário do filtro, na ordem de ano, mês e id.
+	 */
+	List<LancamentoView> buscar(Lancamento filtro, CursorLancamento apos, Integer limite);
+
+	Stream<LancamentoView> percorrerPorUsuario(Long idUsuario);
+
+	List<TotalPorTipo> totalizarPorUsuario(Long idUsuario);
+
+	List<TotalPorTipo> totalizarTodos();
+
+	List<TotalMensal> totalizarPorMes(Long idUsuario, Integer ano);
+
+}
@@ -0,0 +1,20 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DivergenciaSaldo {
+
+	private Long idUsuario;
+	private BigDecimal receitasRegistradas;
+	private BigDecimal receitasCalculadas;
+	private BigDecimal despesasRegistradas;
+	private BigDecimal despesasCalculadas;
+	private Long quantidadeRegistrada;
+	private Long quantidadeCalculada;
+
+}
@@ -0,0 +1,13 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ErroLote {
+
+	private int indice;
+	private String mensagem;
+
+}
@@ -0,0 +1,19 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EstatisticasIndice {
+
+	private long usuarios;
+	private long lancamentos;
+	private long trigramas;
+	private long bytesEstimados;
+
+	public long getBytesPorMilhaoDeLancamentos() {
+		return lancamentos == 0 ? 0 : bytesEstimados * 1_000_000L / lancamentos;
+	}
+
+}
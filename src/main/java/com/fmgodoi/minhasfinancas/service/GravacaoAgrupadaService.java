@@ -0,0 +1,11 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+
+public interface GravacaoAgrupadaService {
+
+	boolean isHabilitada();
+
+	Lancamento salvar(Lancamento lancamento);
+
+}
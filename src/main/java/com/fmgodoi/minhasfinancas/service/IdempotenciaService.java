@@ -0,0 +1,21 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import com.fmgodoi.minhasfinancas.model.entity.RespostaIdempotente;
+
+public interface IdempotenciaService {
+
+	/**
+	 * Reserva a chave para a requisição atual ({@link Optional#empty()}) ou
+	 * devolve a resposta já registrada para ela, aguardando a execução em
+	 * andamento se houver.
+	 */
+	Optional<RespostaIdempotente> reservar(String chave) throws TimeoutException;
+
+	void concluir(RespostaIdempotente resposta);
+
+	void liberar(String chave);
+
+}
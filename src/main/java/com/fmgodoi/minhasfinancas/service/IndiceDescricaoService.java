@@ -0,0 +1,20 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface IndiceDescricaoService {
+
+	boolean isDisponivel();
+
+	void indexar(Long idUsuario, Long idLancamento, String descricao);
+
+	void remover(Long idUsuario, Long idLancamento);
+
+	Optional<Set<Long>> buscarCandidatos(Long idUsuario, String termo);
+
+	void reconstruir();
+
+	EstatisticasIndice obterEstatisticas();
+
+}
@@ -0,0 +1,24 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.List;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class LancamentoAlteradoEvent {
+
+	public enum Alteracao {
+		INCLUSAO, ALTERACAO, EXCLUSAO, STATUS
+	}
+
+	private final Alteracao alteracao;
+	private final Long idUsuario;
+	private final List<Lancamento> lancamentos;
+
+}
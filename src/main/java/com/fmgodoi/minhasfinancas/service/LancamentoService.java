@@ -4,8 +4,12 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.Pagina;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
 
 import model.enums.StatusLancamento;
 
@@ -13,18 +17,32 @@ public interface LancamentoService {
 
 	Lancamento salvar(Lancamento lancamento);
 
+	ResultadoLote salvarLote(List<Lancamento> lancamentos);
+
 	Lancamento atualizar(Lancamento lancamento);
 
 	void deletar(Lancamento lancamento);
 
 	List<Lancamento> buscar(Lancamento lancamentoFiltro);
 
+	List<LancamentoView> buscarView(Lancamento lancamentoFiltro);
+
+	Pagina<LancamentoView> buscar(Lancamento lancamentoFiltro, CursorLancamento apos, int limite);
+
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 
+	int atualizarStatus(Lancamento filtro, List<Long> ids, StatusLancamento status);
+
 	void validar(Lancamento lancamento);
 
 	Optional<Lancamento> obterPorId(Long id);
 
 	BigDecimal obterSaldoPorUsuario(Long id);
 
+	Optional<Long> obterVersaoDados(Long idUsuario);
+
+	ResumoAnual obterResumo(Long idUsuario, Integer ano);
+
+	void exportar(Long idUsuario, Consumer<Lancamento> consumidor);
+
 }
@@ -0,0 +1,11 @@
+package com.fmgodoi.minhasfinancas.service;
+
+public interface MigracaoShardService {
+
+	/**
+	 * Move o usuário e os seus registros para o shard de destino e retorna a
+	 * quantidade de linhas copiadas.
+	 */
+	int mover(Long idUsuario, int destino);
+
+}
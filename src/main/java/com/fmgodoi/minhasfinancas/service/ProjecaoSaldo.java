@@ -0,0 +1,15 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProjecaoSaldo {
+
+	private BigDecimal saldoAtual;
+	private final List<SaldoProjetado> meses = new ArrayList<>();
+
+}
@@ -0,0 +1,7 @@
+package com.fmgodoi.minhasfinancas.service;
+
+public interface ProjecaoSaldoService {
+
+	ProjecaoSaldo projetar(Long idUsuario, int meses);
+
+}
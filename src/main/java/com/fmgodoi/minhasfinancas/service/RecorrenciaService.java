@@ -0,0 +1,33 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.fmgodoi.minhasfinancas.model.entity.Recorrencia;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+
+public interface RecorrenciaService {
+
+	Recorrencia salvar(Recorrencia recorrencia);
+
+	void encerrar(Recorrencia recorrencia);
+
+	Optional<Recorrencia> obterPorId(Long id);
+
+	List<Recorrencia> buscar(Long idUsuario);
+
+	/**
+	 * Ocorrências ainda não geradas até {@code ano}/{@code mes}, sem persisti-las.
+	 */
+	List<LancamentoView> projetar(Long idUsuario, Integer ano, Integer mes);
+
+	/**
+	 * Gera em lote os lançamentos de todas as recorrências até {@code ano}/{@code mes}.
+	 *
+	 * @return quantidade de lançamentos incluídos
+	 */
+	int gerar(int ano, int mes);
+
+	void validar(Recorrencia recorrencia);
+
+}
@@ -0,0 +1,35 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+
+/**
+ * Indica em qual shard ficam o usuário e os seus lançamentos. O shard
+ * {@link #CATALOGO} guarda o diretório e os dados anteriores à distribuição.
+ */
+public interface ResolvedorShard {
+
+	int CATALOGO = 0;
+
+	List<Integer> getShards();
+
+	int shardDoUsuario(Long idUsuario);
+
+	/**
+	 * Shard do usuário com o email, quando ele já estiver registrado no
+	 * diretório.
+	 */
+	Optional<Integer> shardDoEmail(String email);
+
+	/**
+	 * Shard onde um novo usuário deve ser cadastrado.
+	 */
+	int posicionar(String email);
+
+	void registrar(Usuario usuario, int shard);
+
+	boolean isMigrando(Long idUsuario);
+
+}
@@ -0,0 +1,15 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResultadoLote {
+
+	private int inseridos;
+	private List<ErroLote> erros;
+
+}
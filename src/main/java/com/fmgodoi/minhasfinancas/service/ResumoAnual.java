@@ -0,0 +1,16 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ResumoAnual extends Totais {
+
+	private final int ano;
+	private final List<ResumoMensal> meses = new ArrayList<>();
+
+}
@@ -0,0 +1,17 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import model.enums.StatusLancamento;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ResumoMensal extends Totais {
+
+	private final int mes;
+	private final Map<StatusLancamento, Totais> porStatus = new EnumMap<>(StatusLancamento.class);
+
+}
@@ -0,0 +1,19 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Receitas e despesas de um mês futuro e o saldo ao final dele.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class SaldoProjetado extends Totais {
+
+	private final int ano;
+	private final int mes;
+	private BigDecimal saldoFinal;
+
+}
@@ -0,0 +1,28 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
+
+public interface SaldoUsuarioService {
+
+	void registrarInclusao(Lancamento lancamento);
+
+	void registrarInclusoes(List<Lancamento> lancamentos);
+
+	void registrarAlteracao(TotalPorTipo anterior, Lancamento atual);
+
+	void registrarExclusao(TotalPorTipo anterior);
+
+	void registrarAlteracaoStatus(Long idUsuario);
+
+	Optional<BigDecimal> obterSaldo(Long idUsuario);
+
+	Optional<Long> obterVersao(Long idUsuario);
+
+	List<DivergenciaSaldo> reconciliar(boolean corrigir);
+
+}
@@ -0,0 +1,11 @@
+package com.fmgodoi.minhasfinancas.service;
+
+public interface SenhaService {
+
+	String codificar(String senha);
+
+	boolean conferir(String senha, String senhaArmazenada);
+
+	boolean precisaAtualizar(String senhaArmazenada);
+
+}
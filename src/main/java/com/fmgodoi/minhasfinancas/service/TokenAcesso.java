@@ -0,0 +1,15 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TokenAcesso {
+
+	private String valor;
+	private Instant expiraEm;
+
+}
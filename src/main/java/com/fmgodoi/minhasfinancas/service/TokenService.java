@@ -0,0 +1,11 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.Optional;
+
+public interface TokenService {
+
+	TokenAcesso gerarToken(Long idUsuario);
+
+	Optional<Long> validarToken(String token);
+
+}
@@ -0,0 +1,26 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import model.enums.TipoLancamento;
+
+@Data
+public class Totais {
+
+	private BigDecimal receita = BigDecimal.ZERO;
+	private BigDecimal despesa = BigDecimal.ZERO;
+
+	public BigDecimal getSaldo() {
+		return receita.subtract(despesa);
+	}
+
+	public void somar(TipoLancamento tipo, BigDecimal valor) {
+		if (tipo == TipoLancamento.RECEITA) {
+			receita = receita.add(valor);
+		} else {
+			despesa = despesa.add(valor);
+		}
+	}
+
+}
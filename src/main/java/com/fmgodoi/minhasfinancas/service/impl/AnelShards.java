@@ -0,0 +1,47 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hashing consistente: cada shard ocupa {@code nosVirtuais} pontos de um anel
+ * de 64 bits e a chave pertence ao primeiro ponto seguinte ao seu hash. Ao
+ * acrescentar o shard N+1, só cerca de 1/(N+1) das chaves muda de lugar.
+ */
+public class AnelShards {
+
+	private final TreeMap<Long, Integer> anel = new TreeMap<>();
+
+	public AnelShards(int quantidade, int nosVirtuais) {
+		if (quantidade < 1 || nosVirtuais < 1) {
+			throw new IllegalArgumentException("O anel exige ao menos um shard e um nó virtual.");
+		}
+		for (int shard = 0; shard < quantidade; shard++) {
+			for (int no = 0; no < nosVirtuais; no++) {
+				anel.put(hash("shard-" + shard + "#" + no), shard);
+			}
+		}
+	}
+
+	public int shard(String chave) {
+		Map.Entry<Long, Integer> ponto = anel.ceilingEntry(hash(chave));
+		return (ponto == null ? anel.firstEntry() : ponto).getValue();
+	}
+
+	/**
+	 * FNV-1a de 64 bits seguido da mistura final do SplitMix64, que espalha
+	 * chaves parecidas como "usuario1" e "usuario2".
+	 */
+	static long hash(String chave) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : chave.getBytes(StandardCharsets.UTF_8)) {
+			h ^= b & 0xff;
+			h *= 0x100000001b3L;
+		}
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	}
+
+}
@@ -0,0 +1,344 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import com.fmgodoi.minhasfinancas.model.arquivo.SegmentoLancamentos;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.projection.AnoUsuario;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalMensal;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.service.ArquivoLancamentoService;
+import com.fmgodoi.minhasfinancas.service.IndiceDescricaoService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+/**
+ * Segmentos em {@code <diretorio>/<idUsuario>/<ano>.seg}. Os lançamentos saem
+ * da tabela na mesma transação que grava o segmento; o saldo do usuário não
+ * muda, pois {@code saldo_usuario} continua contando os arquivados.
+ */
+@Slf4j
+@Service
+public class ArquivoLancamentoServiceImpl implements ArquivoLancamentoService {
+
+	static final Set<StatusLancamento> ARQUIVAVEIS = Collections
+			.unmodifiableSet(EnumSet.of(StatusLancamento.EFETIVADO, StatusLancamento.CANCELADO));
+	static final String EXTENSAO = ".seg";
+	static final int TAMANHO_REMOCAO = 1000;
+
+	private final LancamentoRepository repository;
+	private final IndiceDescricaoService indiceDescricao;
+	private final PlatformTransactionManager transactionManager;
+	private final Path diretorio;
+	private final Cache<Path, SegmentoLancamentos> segmentos;
+
+	public ArquivoLancamentoServiceImpl(LancamentoRepository repository, IndiceDescricaoService indiceDescricao,
+			PlatformTransactionManager transactionManager,
+			@Value("${minhasfinancas.arquivo.diretorio:arquivo-lancamentos}") String diretorio,
+			@Value("${minhasfinancas.arquivo.segmentos-abertos:256}") long segmentosAbertos) {
+		this.repository = repository;
+		this.indiceDescricao = indiceDescricao;
+		this.transactionManager = transactionManager;
+		this.diretorio = Paths.get(diretorio);
+		this.segmentos = Caffeine.newBuilder().maximumSize(segmentosAbertos).build();
+	}
+
+	@Override
+	public int arquivar(int anoLimite) {
+		int arquivados = 0;
+		for (AnoUsuario grupo : repository.buscarAnosArquivaveis(anoLimite, ARQUIVAVEIS)) {
+			arquivados += arquivar(grupo.getIdUsuario(), grupo.getAno());
+		}
+		return arquivados;
+	}
+
+	@Override
+	public List<LancamentoView> buscar(Lancamento filtro, CursorLancamento apos, Integer limite) {
+		List<LancamentoView> encontrados = new ArrayList<>();
+		if (filtro.getUsuario() == null || filtro.getUsuario().getId() == null) {
+			return encontrados;
+		}
+
+		Long idUsuario = filtro.getUsuario().getId();
+		for (SegmentoLancamentos segmento : segmentos(idUsuario, filtro.getAno())) {
+			if (apos != null && segmento.getAno() < apos.getAno()) {
+				continue;
+			}
+
+			boolean[] descricoes = filtro.getDescricao() == null ? null
+					: segmento.descricoesContendo(filtro.getDescricao());
+			for (int linha = 0; linha < segmento.getQuantidade(); linha++) {
+				if (atende(segmento, linha, filtro, descricoes, apos)) {
+					encontrados.add(segmento.ler(linha, idUsuario));
+					if (limite != null && encontrados.size() >= limite) {
+						return encontrados;
+					}
+				}
+			}
+		}
+		return encontrados;
+	}
+
+	@Override
+	public Stream<LancamentoView> percorrerPorUsuario(Long idUsuario) {
+		return segmentos(idUsuario, null).stream().flatMap(segmento -> IntStream
+				.range(0, segmento.getQuantidade()).mapToObj(linha -> segmento.ler(linha, idUsuario)));
+	}
+
+	@Override
+	public List<TotalPorTipo> totalizarPorUsuario(Long idUsuario) {
+		long[] centavos = new long[TipoLancamento.values().length];
+		long[] quantidades = new long[centavos.length];
+		for (SegmentoLancamentos segmento : segmentos(idUsuario, null)) {
+			for (int linha = 0; linha < segmento.getQuantidade(); linha++) {
+				int tipo = segmento.getTipo(linha).ordinal();
+				centavos[tipo] += segmento.getValorCentavos(linha);
+				quantidades[tipo]++;
+			}
+		}
+
+		List<TotalPorTipo> totais = new ArrayList<>();
+		for (TipoLancamento tipo : TipoLancamento.values()) {
+			if (quantidades[tipo.ordinal()] > 0) {
+				totais.add(new TotalPorTipo(idUsuario, tipo, BigDecimal.valueOf(centavos[tipo.ordinal()], 2),
+						quantidades[tipo.ordinal()]));
+			}
+		}
+		return totais;
+	}
+
+	@Override
+	public List<TotalPorTipo> totalizarTodos() {
+		List<TotalPorTipo> totais = new ArrayList<>();
+		for (Long idUsuario : usuarios()) {
+			totais.addAll(totalizarPorUsuario(idUsuario));
+		}
+		return totais;
+	}
+
+	@Override
+	public List<TotalMensal> totalizarPorMes(Long idUsuario, Integer ano) {
+		List<SegmentoLancamentos> doAno = segmentos(idUsuario, ano);
+		if (doAno.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		SegmentoLancamentos segmento = doAno.get(0);
+		Map<List<Object>, long[]> grupos = new LinkedHashMap<>();
+		for (int linha = 0; linha < segmento.getQuantidade(); linha++) {
+			long[] grupo = grupos.computeIfAbsent(
+					Arrays.asList(segmento.getMes(linha), segmento.getTipo(linha), segmento.getStatus(linha)),
+					chave -> new long[2]);
+			grupo[0] += segmento.getValorCentavos(linha);
+			grupo[1]++;
+		}
+
+		List<TotalMensal> totais = new ArrayList<>(grupos.size());
+		grupos.forEach((chave, grupo) -> totais.add(new TotalMensal((Integer) chave.get(0),
+				(TipoLancamento) chave.get(1), (StatusLancamento) chave.get(2), BigDecimal.valueOf(grupo[0], 2),
+				grupo[1])));
+		return totais;
+	}
+
+	private int arquivar(Long idUsuario, int ano) {
+		Path arquivo = caminho(idUsuario, ano);
+		Path anterior = arquivo.resolveSibling(arquivo.getFileName() + ".anterior");
+		List<Long> ids = new ArrayList<>();
+		TransactionStatus transacao = null;
+		try {
+			Files.deleteIfExists(anterior);
+			boolean existia = Files.exists(arquivo);
+			if (existia) {
+				Files.copy(arquivo, anterior);
+			}
+
+			transacao = transactionManager.getTransaction(new DefaultTransactionDefinition());
+			List<Lancamento> lancamentos = repository.travarArquivaveis(idUsuario, ano, ARQUIVAVEIS);
+			if (!lancamentos.isEmpty()) {
+				// Por id: uma execução interrompida antes do commit pode ter deixado no
+				// segmento linhas que continuam na tabela; a versão da tabela prevalece
+				Map<Long, LancamentoView> linhas = new LinkedHashMap<>();
+				if (existia) {
+					SegmentoLancamentos.abrir(arquivo).lerTodos(idUsuario)
+							.forEach(lancamento -> linhas.put(lancamento.getId(), lancamento));
+				}
+				for (Lancamento lancamento : lancamentos) {
+					linhas.put(lancamento.getId(), view(lancamento, idUsuario));
+					ids.add(lancamento.getId());
+				}
+
+				SegmentoLancamentos.gravar(arquivo, ano, new ArrayList<>(linhas.values()));
+				for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_REMOCAO) {
+					repository.removerPorIds(ids.subList(inicio, Math.min(inicio + TAMANHO_REMOCAO, ids.size())));
+				}
+			}
+			transactionManager.commit(transacao);
+		} catch (IOException | RuntimeException e) {
+			if (transacao != null && !transacao.isCompleted()) {
+				transactionManager.rollback(transacao);
+			}
+			restaurar(arquivo, anterior);
+			if (e instanceof IOException) {
+				throw new UncheckedIOException((IOException) e);
+			}
+			throw (RuntimeException) e;
+		} finally {
+			segmentos.invalidate(arquivo);
+		}
+
+		excluirAnterior(anterior);
+		ids.forEach(id -> indiceDescricao.remover(idUsuario, id));
+		if (!ids.isEmpty()) {
+			log.info("Arquivados {} lançamento(s) do usuário {} em {}", ids.size(), idUsuario, ano);
+		}
+		return ids.size();
+	}
+
+	private void restaurar(Path arquivo, Path anterior) {
+		try {
+			if (Files.exists(anterior)) {
+				Files.move(anterior, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} else {
+				Files.deleteIfExists(arquivo);
+			}
+		} catch (IOException e) {
+			log.error("Não foi possível restaurar o segmento {}", arquivo, e);
+		}
+	}
+
+	private void excluirAnterior(Path anterior) {
+		try {
+			Files.deleteIfExists(anterior);
+		} catch (IOException e) {
+			log.warn("Não foi possível excluir a cópia do segmento {}", anterior, e);
+		}
+	}
+
+	private static boolean atende(SegmentoLancamentos segmento, int linha, Lancamento filtro, boolean[] descricoes,
+			CursorLancamento apos) {
+		if (filtro.getMes() != null && segmento.getMes(linha) != filtro.getMes()) {
+			return false;
+		}
+
+		if (filtro.getTipo() != null && segmento.getTipo(linha) != filtro.getTipo()) {
+			return false;
+		}
+
+		if (filtro.getStatus() != null && segmento.getStatus(linha) != filtro.getStatus()) {
+			return false;
+		}
+
+		if (descricoes != null) {
+			int codigo = segmento.getCodigoDescricao(linha);
+			if (codigo < 0 || !descricoes[codigo]) {
+				return false;
+			}
+		}
+
+		if (apos != null && segmento.getAno() == apos.getAno()) {
+			int mes = segmento.getMes(linha);
+			return mes > apos.getMes() || (mes == apos.getMes() && segmento.getId(linha) > apos.getId());
+		}
+		return true;
+	}
+
+	private List<SegmentoLancamentos> segmentos(Long idUsuario, Integer ano) {
+		if (ano != null) {
+			return abrir(caminho(idUsuario, ano)).map(Collections::singletonList).orElseGet(Collections::emptyList);
+		}
+
+		Path pasta = diretorio.resolve(String.valueOf(idUsuario));
+		if (!Files.isDirectory(pasta)) {
+			return Collections.emptyList();
+		}
+
+		TreeMap<Integer, SegmentoLancamentos> porAno = new TreeMap<>();
+		try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(pasta, "*" + EXTENSAO)) {
+			for (Path arquivo : arquivos) {
+				String nome = arquivo.getFileName().toString();
+				Integer anoArquivo = Integer.valueOf(nome.substring(0, nome.length() - EXTENSAO.length()));
+				abrir(arquivo).ifPresent(segmento -> porAno.put(anoArquivo, segmento));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new ArrayList<>(porAno.values());
+	}
+
+	private Optional<SegmentoLancamentos> abrir(Path arquivo) {
+		try {
+			SegmentoLancamentos segmento = segmentos.getIfPresent(arquivo);
+			// Outra instância pode ter regravado o segmento no diretório compartilhado
+			if (segmento == null || !segmento.getModificadoEm().equals(Files.getLastModifiedTime(arquivo))) {
+				segmento = SegmentoLancamentos.abrir(arquivo);
+				segmentos.put(arquivo, segmento);
+			}
+			return Optional.of(segmento);
+		} catch (NoSuchFileException e) {
+			segmentos.invalidate(arquivo);
+			return Optional.empty();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private List<Long> usuarios() {
+		List<Long> usuarios = new ArrayList<>();
+		if (!Files.isDirectory(diretorio)) {
+			return usuarios;
+		}
+
+		try (DirectoryStream<Path> pastas = Files.newDirectoryStream(diretorio, Files::isDirectory)) {
+			for (Path pasta : pastas) {
+				usuarios.add(Long.valueOf(pasta.getFileName().toString()));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return usuarios;
+	}
+
+	private Path caminho(Long idUsuario, int ano) {
+		return diretorio.resolve(String.valueOf(idUsuario)).resolve(ano + EXTENSAO);
+	}
+
+	private static LancamentoView view(Lancamento lancamento, Long idUsuario) {
+		return new LancamentoView(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+				lancamento.getAno(), lancamento.getValor(), idUsuario, lancamento.getTipo(), lancamento.getStatus(),
+				lancamento.getDataCadastro());
+	}
+
+}
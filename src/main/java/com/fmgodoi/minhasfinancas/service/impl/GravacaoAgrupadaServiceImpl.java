@@ -0,0 +1,307 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.service.ErroLote;
+import com.fmgodoi.minhasfinancas.service.GravacaoAgrupadaService;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+import com.fmgodoi.minhasfinancas.service.ResultadoLote;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit das inclusões de lançamento: as requisições entram em uma fila
+ * limitada e uma única thread grava lotes de até {@code tamanhoLote}
+ * lançamentos, ou o que chegar em {@code esperaMs}, em uma só transação com
+ * {@link LancamentoService#salvarLote(List)}. Se o lote falhar no banco, cada
+ * lançamento é regravado isoladamente para que só o causador receba o erro.
+ * Cada lote é dividido pelo shard das requisições que o formaram, e os
+ * pedidos de usuários em migração de shard são recusados, pois a requisição
+ * pode ter passado pelo {@code ShardFilter} antes de a migração começar.
+ * <p>
+ * Quem espera o lote desiste após {@code esperaResultadoMs} se o pedido ainda
+ * estiver na fila; se já estiver em uma transação, aguarda o resultado dela.
+ * Se a thread de gravação parar, por encerramento ou erro, os pedidos ainda
+ * na fila são recusados e as próximas inclusões passam a ser gravadas
+ * diretamente.
+ */
+@Slf4j
+@Service
+public class GravacaoAgrupadaServiceImpl implements GravacaoAgrupadaService, MeterBinder {
+
+	private static final long ESPERA_FILA_VAZIA_MS = 100;
+
+	private final LancamentoService lancamentoService;
+	private final ResolvedorShard resolvedorShard;
+	private final boolean habilitada;
+	private final int tamanhoLote;
+	private final long esperaNanos;
+	private final long esperaResultadoMs;
+	private final BlockingQueue<Pedido> fila;
+	private final AtomicLong lotes = new AtomicLong();
+	private final AtomicLong linhas = new AtomicLong();
+	private volatile boolean ativa;
+	private Thread gravador;
+
+	public GravacaoAgrupadaServiceImpl(LancamentoService lancamentoService, ResolvedorShard resolvedorShard,
+			@Value("${minhasfinancas.gravacao-agrupada.habilitado:false}") boolean habilitada,
+			@Value("${minhasfinancas.gravacao-agrupada.tamanho-lote:100}") int tamanhoLote,
+			@Value("${minhasfinancas.gravacao-agrupada.espera-ms:5}") long esperaMs,
+			@Value("${minhasfinancas.gravacao-agrupada.fila:2000}") int fila,
+			@Value("${minhasfinancas.gravacao-agrupada.espera-resultado-ms:30000}") long esperaResultadoMs) {
+		this.lancamentoService = lancamentoService;
+		this.resolvedorShard = resolvedorShard;
+		this.habilitada = habilitada;
+		this.tamanhoLote = tamanhoLote;
+		this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMs);
+		this.esperaResultadoMs = esperaResultadoMs;
+		this.fila = new ArrayBlockingQueue<>(fila);
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		if (!habilitada) {
+			return;
+		}
+		ativa = true;
+		gravador = new Thread(this::gravar, "gravacao-agrupada");
+		gravador.setDaemon(true);
+		gravador.start();
+	}
+
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		ativa = false;
+		if (gravador != null) {
+			// A thread esvazia a fila antes de terminar
+			gravador.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		recusarPendentes();
+	}
+
+	@Override
+	public boolean isHabilitada() {
+		return habilitada;
+	}
+
+	@Override
+	public Lancamento salvar(Lancamento lancamento) {
+		if (!ativa) {
+			return lancamentoService.salvar(lancamento);
+		}
+
+		// Erros de validação não precisam esperar o lote
+		lancamentoService.validar(lancamento);
+
+		Pedido pedido = new Pedido(lancamento);
+		if (!fila.offer(pedido)) {
+			throw new RejectedExecutionException("Fila de gravação cheia.");
+		}
+		if (!ativa && fila.remove(pedido)) {
+			// A gravação parou entre a verificação acima e a inclusão na fila
+			throw new RejectedExecutionException("Gravação agrupada encerrada.");
+		}
+
+		try {
+			return aguardar(pedido);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("minhasfinancas.gravacao-agrupada.lotes", lotes, AtomicLong::get)
+				.description("Transações abertas pela gravação agrupada").register(registry);
+		FunctionCounter.builder("minhasfinancas.gravacao-agrupada.lancamentos", linhas, AtomicLong::get)
+				.description("Lançamentos gravados pela gravação agrupada").register(registry);
+	}
+
+	private Lancamento aguardar(Pedido pedido) throws InterruptedException, ExecutionException {
+		try {
+			return pedido.resultado.get(esperaResultadoMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			// Só desiste do pedido que ainda não entrou em uma transação; depois disso o resultado é o do banco
+			if (pedido.estado.compareAndSet(Estado.PENDENTE, Estado.CANCELADO)) {
+				pedido.resultado.cancel(false);
+				throw new RejectedExecutionException("Gravação agrupada sem resposta em " + esperaResultadoMs + " ms.");
+			}
+			return pedido.resultado.get();
+		}
+	}
+
+	private void gravar() {
+		try {
+			gravarLotes();
+		} finally {
+			// Sem a thread ninguém mais esvaziaria a fila
+			ativa = false;
+			recusarPendentes();
+		}
+	}
+
+	private void gravarLotes() {
+		List<Pedido> lote = new ArrayList<>(tamanhoLote);
+		while (ativa || !fila.isEmpty()) {
+			try {
+				Pedido primeiro = fila.poll(ESPERA_FILA_VAZIA_MS, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+
+				lote.add(primeiro);
+				long limite = System.nanoTime() + esperaNanos;
+				while (lote.size() < tamanhoLote) {
+					if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+						continue;
+					}
+					long restante = limite - System.nanoTime();
+					Pedido proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : null;
+					if (proximo == null) {
+						break;
+					}
+					lote.add(proximo);
+				}
+
+				descarregar(lote);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				lote.forEach(pedido -> pedido.resultado.completeExceptionally(e));
+				return;
+			} catch (RuntimeException e) {
+				log.error("Falha na gravação agrupada de lançamentos.", e);
+				lote.forEach(pedido -> pedido.resultado.completeExceptionally(e));
+			} catch (Error e) {
+				log.error("Gravação agrupada interrompida, as inclusões passam a ser gravadas diretamente.", e);
+				ativa = false;
+				lote.forEach(pedido -> pedido.resultado.completeExceptionally(e));
+				throw e;
+			} finally {
+				lote.clear();
+			}
+		}
+	}
+
+	private void descarregar(List<Pedido> lote) {
+		Map<Integer, List<Pedido>> porShard = new LinkedHashMap<>();
+		for (Pedido pedido : lote) {
+			if (!pedido.estado.compareAndSet(Estado.PENDENTE, Estado.GRAVANDO)) {
+				continue;
+			}
+			// A cópia da migração não levaria esta linha e a remoção da origem a apagaria
+			if (pedido.idUsuario != null && resolvedorShard.isMigrando(pedido.idUsuario)) {
+				pedido.resultado.completeExceptionally(
+						new RejectedExecutionException("Os dados do usuário estão sendo migrados."));
+				continue;
+			}
+			porShard.computeIfAbsent(pedido.shard, shard -> new ArrayList<>()).add(pedido);
+		}
+		porShard.forEach((shard, pedidos) -> ContextoShard.executar(shard, () -> {
+			descarregarNoShard(pedidos);
+			return null;
+		}));
+	}
+
+	private void descarregarNoShard(List<Pedido> lote) {
+		List<Lancamento> lancamentos = new ArrayList<>(lote.size());
+		lote.forEach(pedido -> lancamentos.add(pedido.lancamento));
+
+		ResultadoLote resultado;
+		try {
+			resultado = lancamentoService.salvarLote(lancamentos);
+		} catch (RuntimeException e) {
+			log.warn("Lote de {} lançamentos recusado pelo banco, gravando um a um.", lote.size(), e);
+			lote.forEach(this::salvarIsolado);
+			return;
+		}
+		lotes.incrementAndGet();
+		linhas.addAndGet(resultado.getInseridos());
+
+		Map<Integer, String> erros = new HashMap<>();
+		for (ErroLote erro : resultado.getErros()) {
+			erros.put(erro.getIndice(), erro.getMensagem());
+		}
+		for (int i = 0; i < lote.size(); i++) {
+			Pedido pedido = lote.get(i);
+			String erro = erros.get(i);
+			if (erro == null) {
+				pedido.resultado.complete(pedido.lancamento);
+			} else {
+				pedido.resultado.completeExceptionally(new RegraNegocioException(erro));
+			}
+		}
+	}
+
+	private void recusarPendentes() {
+		List<Pedido> pendentes = new ArrayList<>();
+		fila.drainTo(pendentes);
+		pendentes.forEach(pedido -> pedido.resultado
+				.completeExceptionally(new RejectedExecutionException("Gravação agrupada encerrada.")));
+	}
+
+	private void salvarIsolado(Pedido pedido) {
+		// O id gerado na transação desfeita não existe no banco
+		pedido.lancamento.setId(null);
+		try {
+			pedido.resultado.complete(lancamentoService.salvar(pedido.lancamento));
+			lotes.incrementAndGet();
+			linhas.incrementAndGet();
+		} catch (RuntimeException e) {
+			pedido.resultado.completeExceptionally(e);
+		}
+	}
+
+	private enum Estado {
+		PENDENTE, GRAVANDO, CANCELADO
+	}
+
+	private static class Pedido {
+
+		private final Lancamento lancamento;
+		private final Long idUsuario;
+		private final int shard;
+		private final AtomicReference<Estado> estado = new AtomicReference<>(Estado.PENDENTE);
+		private final CompletableFuture<Lancamento> resultado = new CompletableFuture<>();
+
+		Pedido(Lancamento lancamento) {
+			this.lancamento = lancamento;
+			this.idUsuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+			Integer atual = ContextoShard.atual();
+			this.shard = atual == null ? ResolvedorShard.CATALOGO : atual;
+		}
+
+	}
+
+}
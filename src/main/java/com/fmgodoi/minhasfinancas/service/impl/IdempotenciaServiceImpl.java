@@ -0,0 +1,159 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fmgodoi.minhasfinancas.model.entity.RespostaIdempotente;
+import com.fmgodoi.minhasfinancas.model.repository.RespostaIdempotenteRepository;
+import com.fmgodoi.minhasfinancas.service.IdempotenciaService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Respostas por chave de idempotência em um cache Caffeine limitado e com
+ * expiração; opcionalmente também na tabela {@code resposta_idempotente}, para
+ * sobreviver a reinícios. As execuções em andamento ficam em um mapa à parte
+ * para que duplicatas simultâneas aguardem a primeira.
+ */
+@Slf4j
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+	private static final long INTERVALO_LIMPEZA_MS = TimeUnit.MINUTES.toMillis(1);
+
+	private final RespostaIdempotenteRepository repository;
+	private final boolean persistente;
+	private final Duration validade;
+	private final long esperaMs;
+	private final Clock relogio;
+	private final Cache<String, RespostaIdempotente> concluidas;
+	private final ConcurrentHashMap<String, CompletableFuture<RespostaIdempotente>> emExecucao = new ConcurrentHashMap<>();
+	private final AtomicLong ultimaLimpeza = new AtomicLong();
+
+	@Autowired
+	public IdempotenciaServiceImpl(RespostaIdempotenteRepository repository,
+			@Value("${minhasfinancas.idempotencia.persistente:false}") boolean persistente,
+			@Value("${minhasfinancas.idempotencia.validade-horas:24}") long validadeHoras,
+			@Value("${minhasfinancas.idempotencia.maximo-respostas:100000}") long maximoRespostas,
+			@Value("${minhasfinancas.idempotencia.espera-segundos:30}") long esperaSegundos) {
+		this(repository, persistente, Duration.ofHours(validadeHoras), maximoRespostas,
+				TimeUnit.SECONDS.toMillis(esperaSegundos), Clock.systemUTC());
+	}
+
+	IdempotenciaServiceImpl(RespostaIdempotenteRepository repository, boolean persistente, Duration validade,
+			long maximoRespostas, long esperaMs, Clock relogio) {
+		this.repository = repository;
+		this.persistente = persistente;
+		this.validade = validade;
+		this.esperaMs = esperaMs;
+		this.relogio = relogio;
+		this.concluidas = Caffeine.newBuilder().expireAfterWrite(validade.toMillis(), TimeUnit.MILLISECONDS)
+				.maximumSize(maximoRespostas).build();
+	}
+
+	@Override
+	public Optional<RespostaIdempotente> reservar(String chave) throws TimeoutException {
+		long limite = System.currentTimeMillis() + esperaMs;
+		while (true) {
+			RespostaIdempotente resposta = concluidas.getIfPresent(chave);
+			if (resposta != null) {
+				return Optional.of(resposta);
+			}
+
+			CompletableFuture<RespostaIdempotente> reserva = new CompletableFuture<>();
+			CompletableFuture<RespostaIdempotente> anterior = emExecucao.putIfAbsent(chave, reserva);
+			if (anterior == null) {
+				// Outra requisição pode ter concluído entre a consulta ao cache e a reserva
+				resposta = Optional.ofNullable(concluidas.getIfPresent(chave)).orElseGet(() -> buscarPersistida(chave));
+				if (resposta == null) {
+					return Optional.empty();
+				}
+				concluidas.put(chave, resposta);
+				emExecucao.remove(chave, reserva);
+				reserva.complete(resposta);
+				return Optional.of(resposta);
+			}
+
+			resposta = aguardar(anterior, limite - System.currentTimeMillis());
+			if (resposta != null) {
+				return Optional.of(resposta);
+			}
+			// A execução anterior falhou e liberou a chave: esta requisição tenta reservá-la
+		}
+	}
+
+	@Override
+	public void concluir(RespostaIdempotente resposta) {
+		resposta.setCriadoEm(relogio.instant());
+		concluidas.put(resposta.getChave(), resposta);
+		if (persistente) {
+			persistir(resposta);
+		}
+
+		CompletableFuture<RespostaIdempotente> reserva = emExecucao.remove(resposta.getChave());
+		if (reserva != null) {
+			reserva.complete(resposta);
+		}
+	}
+
+	@Override
+	public void liberar(String chave) {
+		CompletableFuture<RespostaIdempotente> reserva = emExecucao.remove(chave);
+		if (reserva != null) {
+			reserva.complete(null);
+		}
+	}
+
+	private RespostaIdempotente aguardar(CompletableFuture<RespostaIdempotente> reserva, long esperaMs)
+			throws TimeoutException {
+		if (esperaMs <= 0) {
+			throw new TimeoutException();
+		}
+
+		try {
+			return reserva.get(esperaMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+
+	private RespostaIdempotente buscarPersistida(String chave) {
+		if (!persistente) {
+			return null;
+		}
+		Instant limite = relogio.instant().minus(validade);
+		return repository.findById(chave).filter(resposta -> resposta.getCriadoEm().isAfter(limite)).orElse(null);
+	}
+
+	private void persistir(RespostaIdempotente resposta) {
+		try {
+			repository.save(resposta);
+			long agora = relogio.millis();
+			long anterior = ultimaLimpeza.get();
+			if (agora - anterior >= INTERVALO_LIMPEZA_MS && ultimaLimpeza.compareAndSet(anterior, agora)) {
+				repository.removerAnteriores(relogio.instant().minus(validade));
+			}
+		} catch (RuntimeException e) {
+			// A requisição já foi executada: perder a cópia persistida só reduz a proteção após um reinício
+			log.warn("Não foi possível persistir a resposta idempotente {}.", resposta.getChave(), e);
+		}
+	}
+
+}
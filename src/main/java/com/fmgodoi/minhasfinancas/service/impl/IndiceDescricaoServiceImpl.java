@@ -0,0 +1,318 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.service.EstatisticasIndice;
+import com.fmgodoi.minhasfinancas.service.IndiceDescricaoService;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice invertido de trigramas da descrição dos lançamentos, particionado por
+ * usuário. Os candidatos retornados são um superconjunto dos lançamentos cuja
+ * descrição contém o termo; a consulta ao banco continua aplicando o filtro.
+ * <p>
+ * O índice vive na memória desta JVM e só recebe as alterações confirmadas por
+ * ela. Com mais de uma instância, lançamentos gravados pelas outras ficariam de
+ * fora dos candidatos, por isso habilitá-lo exige
+ * {@code minhasfinancas.instancia-unica=true}.
+ */
+@Slf4j
+@Service
+public class IndiceDescricaoServiceImpl implements IndiceDescricaoService, MeterBinder {
+
+	static final int TAMANHO_TRIGRAMA = 3;
+
+	private final LancamentoRepository repository;
+	private final ResolvedorShard resolvedorShard;
+	private final TransactionTemplate leitura;
+	private final boolean habilitado;
+	private final Map<Long, IndiceUsuario> indices = new ConcurrentHashMap<>();
+	private volatile boolean pronto;
+
+	public IndiceDescricaoServiceImpl(LancamentoRepository repository, ResolvedorShard resolvedorShard,
+			PlatformTransactionManager transactionManager,
+			@Value("${minhasfinancas.indice-descricao.habilitado:false}") boolean habilitado,
+			@Value("${minhasfinancas.instancia-unica:false}") boolean instanciaUnica) {
+		if (habilitado && !instanciaUnica) {
+			throw new IllegalStateException("O índice de descrições só enxerga as gravações desta instância."
+					+ " Habilite-o apenas com minhasfinancas.instancia-unica=true.");
+		}
+		this.repository = repository;
+		this.resolvedorShard = resolvedorShard;
+		this.leitura = new TransactionTemplate(transactionManager);
+		this.leitura.setReadOnly(true);
+		this.habilitado = habilitado;
+	}
+
+	@Override
+	public boolean isDisponivel() {
+		return habilitado && pronto;
+	}
+
+	@Override
+	public void indexar(Long idUsuario, Long idLancamento, String descricao) {
+		if (!habilitado || idUsuario == null || idLancamento == null) {
+			return;
+		}
+		indices.computeIfAbsent(idUsuario, id -> new IndiceUsuario()).indexar(idLancamento, descricao, true);
+	}
+
+	@Override
+	public void remover(Long idUsuario, Long idLancamento) {
+		IndiceUsuario indice = idUsuario == null ? null : indices.get(idUsuario);
+		if (indice != null) {
+			indice.remover(idLancamento);
+		}
+	}
+
+	@Override
+	public Optional<Set<Long>> buscarCandidatos(Long idUsuario, String termo) {
+		if (!isDisponivel() || idUsuario == null || termo == null) {
+			return Optional.empty();
+		}
+
+		long[] trigramas = trigramas(normalizar(termo));
+		if (trigramas.length == 0) {
+			return Optional.empty();
+		}
+
+		IndiceUsuario indice = indices.get(idUsuario);
+		if (indice == null) {
+			return Optional.of(Collections.emptySet());
+		}
+		return Optional.of(indice.buscar(trigramas));
+	}
+
+	@Override
+	public void reconstruir() {
+		if (!habilitado) {
+			return;
+		}
+
+		pronto = false;
+		indices.clear();
+		long inicio = System.currentTimeMillis();
+		// Uma transação por shard; o índice só fica pronto depois de todos
+		for (int shard : resolvedorShard.getShards()) {
+			ContextoShard.executar(shard, () -> leitura.execute(status -> {
+				try (Stream<LancamentoView> lancamentos = repository.percorrerViews()) {
+					lancamentos.forEach(l -> indices.computeIfAbsent(l.getUsuarioId(), id -> new IndiceUsuario())
+							.indexar(l.getId(), l.getDescricao(), false));
+				}
+				return null;
+			}));
+		}
+		pronto = true;
+
+		EstatisticasIndice estatisticas = obterEstatisticas();
+		log.info("Índice de descrições reconstruído em {} ms: {} lançamento(s), {} usuário(s), ~{} KiB"
+				+ " (~{} MiB por milhão de lançamentos)", System.currentTimeMillis() - inicio,
+				estatisticas.getLancamentos(), estatisticas.getUsuarios(), estatisticas.getBytesEstimados() / 1024,
+				estatisticas.getBytesPorMilhaoDeLancamentos() / (1024 * 1024));
+	}
+
+	@Override
+	public EstatisticasIndice obterEstatisticas() {
+		long lancamentos = 0;
+		long trigramas = 0;
+		long bytes = 0;
+		for (IndiceUsuario indice : indices.values()) {
+			synchronized (indice) {
+				lancamentos += indice.descricoes.size();
+				trigramas += indice.postagens.size();
+				bytes += indice.estimarBytes();
+			}
+		}
+		return new EstatisticasIndice(indices.size(), lancamentos, trigramas, bytes);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void aoAlterarLancamento(LancamentoAlteradoEvent evento) {
+		if (!habilitado) {
+			return;
+		}
+
+		for (Lancamento lancamento : evento.getLancamentos()) {
+			switch (evento.getAlteracao()) {
+			case INCLUSAO:
+			case ALTERACAO:
+				indexar(evento.getIdUsuario(), lancamento.getId(), lancamento.getDescricao());
+				break;
+			case EXCLUSAO:
+				remover(evento.getIdUsuario(), lancamento.getId());
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("minhasfinancas.indice.descricao.lancamentos", this,
+				indice -> indice.obterEstatisticas().getLancamentos()).register(registry);
+		Gauge.builder("minhasfinancas.indice.descricao.memoria", this,
+				indice -> indice.obterEstatisticas().getBytesEstimados()).baseUnit("bytes").register(registry);
+	}
+
+	static String normalizar(String descricao) {
+		return descricao == null ? "" : descricao.toLowerCase(Locale.ROOT);
+	}
+
+	static long[] trigramas(String texto) {
+		if (texto.length() < TAMANHO_TRIGRAMA) {
+			return new long[0];
+		}
+
+		long[] trigramas = new long[texto.length() - TAMANHO_TRIGRAMA + 1];
+		for (int i = 0; i < trigramas.length; i++) {
+			trigramas[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+		}
+		return Arrays.stream(trigramas).distinct().toArray();
+	}
+
+	private static class IndiceUsuario {
+
+		private final Map<Long, ListaIds> postagens = new HashMap<>();
+		private final Map<Long, String> descricoes = new HashMap<>();
+
+		synchronized void indexar(Long id, String descricao, boolean substituir) {
+			String normalizada = normalizar(descricao);
+			String anterior = descricoes.get(id);
+			if (anterior != null) {
+				// Na reconstrução, um evento mais recente que a leitura já indexou o lançamento
+				if (!substituir || anterior.equals(normalizada)) {
+					return;
+				}
+				desindexar(id, anterior);
+			}
+
+			descricoes.put(id, normalizada);
+			for (long trigrama : trigramas(normalizada)) {
+				postagens.computeIfAbsent(trigrama, t -> new ListaIds()).adicionar(id);
+			}
+		}
+
+		synchronized void remover(Long id) {
+			String anterior = descricoes.remove(id);
+			if (anterior != null) {
+				desindexar(id, anterior);
+			}
+		}
+
+		synchronized Set<Long> buscar(long[] trigramas) {
+			ListaIds[] listas = new ListaIds[trigramas.length];
+			for (int i = 0; i < trigramas.length; i++) {
+				listas[i] = postagens.get(trigramas[i]);
+				if (listas[i] == null) {
+					return Collections.emptySet();
+				}
+			}
+			Arrays.sort(listas, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+			Set<Long> candidatos = new LinkedHashSet<>();
+			ListaIds menor = listas[0];
+			for (int i = 0; i < menor.tamanho; i++) {
+				long id = menor.ids[i];
+				boolean emTodas = true;
+				for (int j = 1; j < listas.length && emTodas; j++) {
+					emTodas = listas[j].contem(id);
+				}
+				if (emTodas) {
+					candidatos.add(id);
+				}
+			}
+			return candidatos;
+		}
+
+		long estimarBytes() {
+			// Estimativa para JVM 64 bits com ponteiros comprimidos: entradas de HashMap
+			// (32 bytes) com chave Long (16 bytes), arrays com cabeçalho de 16 bytes
+			long bytes = 0;
+			for (ListaIds lista : postagens.values()) {
+				bytes += 48 + 24 + 16 + 8L * lista.ids.length;
+			}
+			for (String descricao : descricoes.values()) {
+				bytes += 48 + 24 + 16 + 2L * descricao.length();
+			}
+			return bytes;
+		}
+
+		private void desindexar(Long id, String descricao) {
+			for (long trigrama : trigramas(descricao)) {
+				ListaIds lista = postagens.get(trigrama);
+				if (lista != null && lista.remover(id) && lista.tamanho == 0) {
+					postagens.remove(trigrama);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Lista ordenada de ids. Os ids vêm de uma sequence, logo a inclusão quase
+	 * sempre é um append.
+	 */
+	private static class ListaIds {
+
+		private long[] ids = new long[4];
+		private int tamanho;
+
+		void adicionar(long id) {
+			int posicao = tamanho == 0 || ids[tamanho - 1] < id ? -(tamanho + 1)
+					: Arrays.binarySearch(ids, 0, tamanho, id);
+			if (posicao >= 0) {
+				return;
+			}
+
+			posicao = -(posicao + 1);
+			if (tamanho == ids.length) {
+				ids = Arrays.copyOf(ids, tamanho + (tamanho >> 1) + 1);
+			}
+			System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+			ids[posicao] = id;
+			tamanho++;
+		}
+
+		boolean remover(long id) {
+			int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+			if (posicao < 0) {
+				return false;
+			}
+			System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+			tamanho--;
+			return true;
+		}
+
+		boolean contem(long id) {
+			return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+		}
+
+	}
+
+}
@@ -1,13 +1,24 @@
 package com.fmgodoi.minhasfinancas.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
@@ -16,8 +27,24 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.Pagina;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalMensal;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
 import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.service.ArquivoLancamentoService;
+import com.fmgodoi.minhasfinancas.service.ErroLote;
+import com.fmgodoi.minhasfinancas.service.IndiceDescricaoService;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent.Alteracao;
 import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ResultadoLote;
+import com.fmgodoi.minhasfinancas.service.ResumoAnual;
+import com.fmgodoi.minhasfinancas.service.ResumoMensal;
+import com.fmgodoi.minhasfinancas.service.Totais;
+import com.fmgodoi.minhasfinancas.service.SaldoUsuarioService;
 
 import model.enums.StatusLancamento;
 import model.enums.TipoLancamento;
@@ -25,18 +52,80 @@ import model.enums.TipoLancamento;
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 
+	static final int LIMITE_MAXIMO = 1000;
+	static final int TAMANHO_MAXIMO_LOTE = 10000;
+	static final int TAMANHO_BATCH = 50;
+	static final int MAXIMO_CANDIDATOS = 1000;
+
 	private LancamentoRepository repository;
+	private SaldoUsuarioService saldoService;
+	private IndiceDescricaoService indiceDescricao;
+	private ArquivoLancamentoService arquivo;
+	private ApplicationEventPublisher publisher;
 
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			IndiceDescricaoService indiceDescricao, ArquivoLancamentoService arquivo,
+			ApplicationEventPublisher publisher) {
 		this.repository = repository;
+		this.saldoService = saldoService;
+		this.indiceDescricao = indiceDescricao;
+		this.arquivo = arquivo;
+		this.publisher = publisher;
 	}
 
 	@Override
 	@Transactional
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
+		// Um id vindo do cliente faria o save sobrescrever um lançamento existente contado como inclusão
+		lancamento.setId(null);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		Lancamento salvo = repository.save(lancamento);
+		saldoService.registrarInclusao(salvo);
+		publicar(Alteracao.INCLUSAO, idUsuario(salvo), Collections.singletonList(salvo));
+		return salvo;
+	}
+
+	@Override
+	@Transactional
+	public ResultadoLote salvarLote(List<Lancamento> lancamentos) {
+		if (lancamentos.size() > TAMANHO_MAXIMO_LOTE) {
+			throw new RegraNegocioException("Informe no máximo " + TAMANHO_MAXIMO_LOTE + " lançamentos por lote.");
+		}
+
+		List<ErroLote> erros = new ArrayList<>();
+		List<Lancamento> validos = new ArrayList<>(lancamentos.size());
+		for (int i = 0; i < lancamentos.size(); i++) {
+			Lancamento lancamento = lancamentos.get(i);
+			try {
+				validar(lancamento);
+			} catch (RegraNegocioException e) {
+				erros.add(new ErroLote(i, e.getMessage()));
+				continue;
+			}
+			// Como em salvar: o lote só inclui, nunca sobrescreve um lançamento existente
+			lancamento.setId(null);
+			lancamento.setStatus(StatusLancamento.PENDENTE);
+			validos.add(lancamento);
+		}
+
+		for (int i = 0; i < validos.size(); i++) {
+			repository.save(validos.get(i));
+			if ((i + 1) % TAMANHO_BATCH == 0) {
+				repository.descarregar();
+			}
+		}
+		repository.descarregar();
+
+		if (!validos.isEmpty()) {
+			saldoService.registrarInclusoes(validos);
+			Map<Long, List<Lancamento>> porUsuario = new LinkedHashMap<>();
+			for (Lancamento lancamento : validos) {
+				porUsuario.computeIfAbsent(idUsuario(lancamento), id -> new ArrayList<>()).add(lancamento);
+			}
+			porUsuario.forEach((idUsuario, inseridos) -> publicar(Alteracao.INCLUSAO, idUsuario, inseridos));
+		}
+		return new ResultadoLote(validos.size(), erros);
 	}
 
 	@Override
@@ -44,14 +133,26 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
-		return repository.save(lancamento);
+		TotalPorTipo anterior = repository.obterTotalPersistido(lancamento.getId()).orElse(null);
+		Lancamento salvo = repository.save(lancamento);
+		saldoService.registrarAlteracao(anterior, salvo);
+		if (anterior != null && !anterior.getIdUsuario().equals(idUsuario(salvo))) {
+			publicar(Alteracao.EXCLUSAO, anterior.getIdUsuario(), Collections.singletonList(salvo));
+		}
+		publicar(Alteracao.ALTERACAO, idUsuario(salvo), Collections.singletonList(salvo));
+		return salvo;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		Optional<TotalPorTipo> anterior = repository.obterTotalPersistido(lancamento.getId());
 		repository.delete(lancamento);
+		anterior.ifPresent(total -> {
+			saldoService.registrarExclusao(total);
+			publicar(Alteracao.EXCLUSAO, total.getIdUsuario(), Collections.singletonList(lancamento));
+		});
 	}
 
 	@Override
@@ -59,16 +160,78 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
 		Example example = Example.of(lancamentoFiltro,
 				ExampleMatcher.matching().withIgnoreCase().withStringMatcher(StringMatcher.CONTAINING));
-		return repository.findAll(example);
+		List<Lancamento> lancamentos = repository.findAll(example);
+		List<LancamentoView> arquivados = arquivo.buscar(lancamentoFiltro, null, null);
+		if (arquivados.isEmpty()) {
+			return lancamentos;
+		}
+
+		List<Lancamento> vivos = new ArrayList<>(lancamentos);
+		vivos.sort(Comparator.comparing(CursorLancamento::apos, CursorLancamento.ORDEM));
+		return intercalar(vivos, CursorLancamento::apos, arquivados, LancamentoServiceImpl::lancamento,
+				Integer.MAX_VALUE);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoView> buscarView(Lancamento lancamentoFiltro) {
+		return intercalar(buscarVivos(lancamentoFiltro, null, null), arquivo.buscar(lancamentoFiltro, null, null),
+				Integer.MAX_VALUE);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Pagina<LancamentoView> buscar(Lancamento lancamentoFiltro, CursorLancamento apos, int limite) {
+		if (limite < 1 || limite > LIMITE_MAXIMO) {
+			throw new RegraNegocioException("Informe um limite entre 1 e " + LIMITE_MAXIMO + ".");
+		}
+
+		List<LancamentoView> lancamentos = intercalar(buscarVivos(lancamentoFiltro, apos, limite + 1),
+				arquivo.buscar(lancamentoFiltro, apos, limite + 1), limite + 1);
+		if (lancamentos.size() <= limite) {
+			return new Pagina<>(lancamentos, null);
+		}
+
+		List<LancamentoView> itens = new ArrayList<>(lancamentos.subList(0, limite));
+		return new Pagina<>(itens, CursorLancamento.apos(itens.get(limite - 1)).codificar());
 	}
 
 	@Override
+	@Transactional
 	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
 		lancamento.setStatus(status);
 		atualizar(lancamento);
 
 	}
 
+	@Override
+	@Transactional
+	public int atualizarStatus(Lancamento filtro, List<Long> ids, StatusLancamento status) {
+		if (filtro.getUsuario() == null || filtro.getUsuario().getId() == null) {
+			throw new RegraNegocioException("Informe um Usuário válido.");
+		}
+
+		if (status == null) {
+			throw new RegraNegocioException("Informe um Status válido.");
+		}
+
+		boolean porIds = ids != null && !ids.isEmpty();
+		if (!porIds && filtro.getAno() == null) {
+			throw new RegraNegocioException("Informe os lançamentos ou o Ano a atualizar.");
+		}
+
+		if (porIds && ids.size() > TAMANHO_MAXIMO_LOTE) {
+			throw new RegraNegocioException("Informe no máximo " + TAMANHO_MAXIMO_LOTE + " lançamentos por lote.");
+		}
+
+		int atualizados = repository.atualizarStatus(filtro, ids, status);
+		if (atualizados > 0) {
+			saldoService.registrarAlteracaoStatus(filtro.getUsuario().getId());
+			publicar(Alteracao.STATUS, filtro.getUsuario().getId(), Collections.emptyList());
+		}
+		return atualizados;
+	}
+
 	@Override
 	public void validar(Lancamento lancamento) {
 
@@ -106,6 +269,131 @@ public class LancamentoServiceImpl implements LancamentoService {
 	@Override
 	@Transactional(readOnly = true)
 	public BigDecimal obterSaldoPorUsuario(Long id) {
+		return saldoService.obterSaldo(id).orElseGet(() -> totalizarSaldo(id));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> obterVersaoDados(Long idUsuario) {
+		return saldoService.obterVersao(idUsuario);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public ResumoAnual obterResumo(Long idUsuario, Integer ano) {
+		ResumoAnual resumo = new ResumoAnual(ano);
+		for (int mes = 1; mes <= 12; mes++) {
+			resumo.getMeses().add(new ResumoMensal(mes));
+		}
+
+		List<TotalMensal> totais = new ArrayList<>(repository.totalizarPorMes(idUsuario, ano));
+		totais.addAll(arquivo.totalizarPorMes(idUsuario, ano));
+		for (TotalMensal total : totais) {
+			ResumoMensal resumoMensal = resumo.getMeses().get(total.getMes() - 1);
+			resumoMensal.somar(total.getTipo(), total.getTotal());
+			resumoMensal.getPorStatus().computeIfAbsent(total.getStatus(), status -> new Totais())
+					.somar(total.getTipo(), total.getTotal());
+			resumo.somar(total.getTipo(), total.getTotal());
+		}
+
+		return resumo;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Long idUsuario, Consumer<Lancamento> consumidor) {
+		try (Stream<Lancamento> lancamentos = repository.percorrerPorUsuario(idUsuario);
+				Stream<LancamentoView> arquivados = arquivo.percorrerPorUsuario(idUsuario)) {
+			Iterator<Lancamento> vivos = lancamentos.iterator();
+			Iterator<LancamentoView> anteriores = arquivados.iterator();
+			Lancamento vivo = vivos.hasNext() ? vivos.next() : null;
+			LancamentoView arquivado = anteriores.hasNext() ? anteriores.next() : null;
+			while (vivo != null || arquivado != null) {
+				int ordem = vivo == null ? 1
+						: arquivado == null ? -1
+								: CursorLancamento.ORDEM.compare(CursorLancamento.apos(vivo),
+										CursorLancamento.apos(arquivado));
+				if (ordem <= 0) {
+					consumidor.accept(vivo);
+					repository.desanexar(vivo);
+					vivo = vivos.hasNext() ? vivos.next() : null;
+				}
+				if (ordem >= 0) {
+					if (ordem > 0) {
+						consumidor.accept(lancamento(arquivado));
+					}
+					arquivado = anteriores.hasNext() ? anteriores.next() : null;
+				}
+			}
+		}
+	}
+
+	private List<LancamentoView> buscarVivos(Lancamento filtro, CursorLancamento apos, Integer limite) {
+		Optional<Set<Long>> candidatos = buscarCandidatos(filtro);
+		if (candidatos.isPresent() && candidatos.get().isEmpty()) {
+			return new ArrayList<>();
+		}
+		return repository.buscarViews(filtro, candidatos.orElse(null), apos, limite);
+	}
+
+	/**
+	 * Une as duas listas, já ordenadas por ano, mês e id. Um lançamento presente
+	 * nas duas (durante o arquivamento) aparece uma vez, na versão da tabela.
+	 */
+	private static List<LancamentoView> intercalar(List<LancamentoView> vivos, List<LancamentoView> arquivados,
+			int limite) {
+		return intercalar(vivos, CursorLancamento::apos, arquivados, Function.identity(), limite);
+	}
+
+	private static <T> List<T> intercalar(List<T> vivos, Function<T, CursorLancamento> cursor,
+			List<LancamentoView> arquivados, Function<LancamentoView, T> conversor, int limite) {
+		if (arquivados.isEmpty()) {
+			return vivos;
+		}
+
+		List<T> lancamentos = new ArrayList<>(Math.min(limite, vivos.size() + arquivados.size()));
+		int v = 0;
+		int a = 0;
+		while (lancamentos.size() < limite && (v < vivos.size() || a < arquivados.size())) {
+			int ordem = v == vivos.size() ? 1
+					: a == arquivados.size() ? -1
+							: CursorLancamento.ORDEM.compare(cursor.apply(vivos.get(v)),
+									CursorLancamento.apos(arquivados.get(a)));
+			if (ordem <= 0) {
+				lancamentos.add(vivos.get(v++));
+				a += ordem == 0 ? 1 : 0;
+			} else {
+				lancamentos.add(conversor.apply(arquivados.get(a++)));
+			}
+		}
+		return lancamentos;
+	}
+
+	private static Lancamento lancamento(LancamentoView view) {
+		return Lancamento.builder().id(view.getId()).descricao(view.getDescricao()).mes(view.getMes())
+				.ano(view.getAno()).valor(view.getValor()).usuario(Usuario.builder().id(view.getUsuarioId()).build())
+				.tipo(view.getTipo()).status(view.getStatus()).dataCadastro(view.getDataCadastro()).build();
+	}
+
+	private Optional<Set<Long>> buscarCandidatos(Lancamento filtro) {
+		if (filtro.getDescricao() == null || filtro.getUsuario() == null) {
+			return Optional.empty();
+		}
+
+		// Conjuntos grandes não compensam uma cláusula IN; o filtro LIKE resolve sozinho
+		return indiceDescricao.buscarCandidatos(filtro.getUsuario().getId(), filtro.getDescricao())
+				.filter(candidatos -> candidatos.size() <= MAXIMO_CANDIDATOS);
+	}
+
+	private void publicar(Alteracao alteracao, Long idUsuario, List<Lancamento> lancamentos) {
+		publisher.publishEvent(new LancamentoAlteradoEvent(alteracao, idUsuario, lancamentos));
+	}
+
+	private static Long idUsuario(Lancamento lancamento) {
+		return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+	}
+
+	private BigDecimal totalizarSaldo(Long id) {
 		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.RECEITA);
 		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.DESPESA);
 
@@ -116,6 +404,14 @@ public class LancamentoServiceImpl implements LancamentoService {
 		if (despesas == null) {
 			despesas = BigDecimal.ZERO;
 		}
+
+		for (TotalPorTipo arquivado : arquivo.totalizarPorUsuario(id)) {
+			if (arquivado.getTipo() == TipoLancamento.RECEITA) {
+				receitas = receitas.add(arquivado.getTotal());
+			} else {
+				despesas = despesas.add(arquivado.getTotal());
+			}
+		}
 		return receitas.subtract(despesas);
 	}
 
@@ -0,0 +1,165 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.service.MigracaoShardService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Move um usuário entre shards sem parar a aplicação:
+ *
+ * <ol>
+ * <li>marca o usuário como migrando no diretório, o que faz as escritas dele
+ * serem recusadas pela API e pela gravação agrupada e as recorrências dele
+ * serem adiadas, e espera o cache de posições expirar;</li>
+ * <li>copia usuário, saldo, recorrências e lançamentos para o destino em uma
+ * transação e confere as contagens;</li>
+ * <li>aponta o diretório para o destino, liberando as escritas;</li>
+ * <li>espera o cache expirar de novo, pois instâncias com a posição antiga
+ * ainda leem da origem, e só então apaga as linhas da origem.</li>
+ * </ol>
+ *
+ * Os ids são preservados: cada shard gera ids em uma faixa própria, ver
+ * {@code V7__faixa_ids_shard.sql}.
+ */
+@Slf4j
+public class MigracaoShardServiceImpl implements MigracaoShardService {
+
+	/** Em ordem de chave estrangeira; a remoção percorre ao contrário. */
+	private static final String[][] TABELAS = { { "usuario", "id" }, { "saldo_usuario", "id_usuario" },
+			{ "recorrencia", "id_usuario" }, { "lancamento", "id_usuario" } };
+	private static final int TAMANHO_LOTE = 1000;
+
+	private final ResolvedorShardDiretorio resolvedor;
+	private final List<DataSource> shards;
+	private final long esperaMs;
+
+	public MigracaoShardServiceImpl(ResolvedorShardDiretorio resolvedor, List<DataSource> shards, long esperaMs) {
+		this.resolvedor = resolvedor;
+		this.shards = shards;
+		this.esperaMs = esperaMs;
+	}
+
+	@Override
+	public int mover(Long idUsuario, int destino) {
+		if (destino < 0 || destino >= shards.size()) {
+			throw new RegraNegocioException("Shard de destino inexistente: " + destino);
+		}
+		int origem = resolvedor.shardDoUsuario(idUsuario);
+		if (origem == destino) {
+			throw new RegraNegocioException("O usuário já está no shard " + destino + ".");
+		}
+		if (resolvedor.isMigrando(idUsuario)) {
+			throw new RegraNegocioException("O usuário já está sendo migrado.");
+		}
+
+		JdbcTemplate leitura = new JdbcTemplate(shards.get(origem));
+		JdbcTemplate escrita = new JdbcTemplate(shards.get(destino));
+		if (leitura.queryForObject("select count(*) from financas.usuario where id = ?", Long.class,
+				idUsuario) == 0) {
+			throw new RegraNegocioException("Usuário não encontrado no shard " + origem + ".");
+		}
+
+		resolvedor.marcarMigracao(idUsuario, origem, true);
+		int copiadas;
+		try {
+			aguardarCache();
+			copiadas = transacao(shards.get(destino)).execute(status -> copiar(leitura, escrita, idUsuario));
+		} catch (RuntimeException e) {
+			resolvedor.marcarMigracao(idUsuario, origem, false);
+			throw e;
+		}
+		resolvedor.marcarMigracao(idUsuario, destino, false);
+		log.info("Usuário {} movido do shard {} para o {}: {} linha(s) copiada(s)", idUsuario, origem, destino,
+				copiadas);
+
+		aguardarCache();
+		transacao(shards.get(origem)).execute(status -> remover(leitura, idUsuario));
+		return copiadas;
+	}
+
+	private int copiar(JdbcTemplate origem, JdbcTemplate destino, Long idUsuario) {
+		int copiadas = 0;
+		for (String[] tabela : TABELAS) {
+			String filtro = " from financas." + tabela[0] + " where " + tabela[1] + " = ?";
+			int linhas = copiarTabela(origem, destino, "select *" + filtro, tabela[0], idUsuario);
+			long conferidas = destino.queryForObject("select count(*)" + filtro, Long.class, idUsuario);
+			if (conferidas != linhas) {
+				throw new IllegalStateException("Cópia de " + tabela[0] + " divergente: " + linhas
+						+ " lida(s), " + conferidas + " no destino.");
+			}
+			copiadas += linhas;
+		}
+		return copiadas;
+	}
+
+	private int copiarTabela(JdbcTemplate origem, JdbcTemplate destino, String consulta, String tabela,
+			Long idUsuario) {
+		List<Object[]> lote = new ArrayList<>(TAMANHO_LOTE);
+		String[] insercao = new String[1];
+		int[] total = new int[1];
+		origem.query(consulta, rs -> {
+			ResultSetMetaData metadados = rs.getMetaData();
+			int colunas = metadados.getColumnCount();
+			if (insercao[0] == null) {
+				StringBuilder nomes = new StringBuilder();
+				StringBuilder parametros = new StringBuilder();
+				for (int i = 1; i <= colunas; i++) {
+					nomes.append(i > 1 ? ", " : "").append(metadados.getColumnName(i));
+					parametros.append(i > 1 ? ", ?" : "?");
+				}
+				insercao[0] = "insert into financas." + tabela + " (" + nomes + ") values (" + parametros + ")";
+			}
+
+			Object[] linha = new Object[colunas];
+			for (int i = 1; i <= colunas; i++) {
+				linha[i - 1] = rs.getObject(i);
+			}
+			lote.add(linha);
+			total[0]++;
+			if (lote.size() == TAMANHO_LOTE) {
+				destino.batchUpdate(insercao[0], lote);
+				lote.clear();
+			}
+		}, idUsuario);
+
+		if (!lote.isEmpty()) {
+			destino.batchUpdate(insercao[0], lote);
+		}
+		return total[0];
+	}
+
+	private int remover(JdbcTemplate origem, Long idUsuario) {
+		int removidas = 0;
+		for (int i = TABELAS.length - 1; i >= 0; i--) {
+			removidas += origem.update("delete from financas." + TABELAS[i][0] + " where " + TABELAS[i][1] + " = ?",
+					idUsuario);
+		}
+		return removidas;
+	}
+
+	private void aguardarCache() {
+		try {
+			TimeUnit.MILLISECONDS.sleep(esperaMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Migração interrompida.", e);
+		}
+	}
+
+	private static TransactionTemplate transacao(DataSource dataSource) {
+		return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+}
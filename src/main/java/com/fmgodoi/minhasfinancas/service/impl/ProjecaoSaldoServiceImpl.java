@@ -0,0 +1,128 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Recorrencia;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalCompetencia;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ProjecaoSaldo;
+import com.fmgodoi.minhasfinancas.service.ProjecaoSaldoService;
+import com.fmgodoi.minhasfinancas.service.RecorrenciaService;
+import com.fmgodoi.minhasfinancas.service.SaldoProjetado;
+
+import model.enums.TipoLancamento;
+
+/**
+ * O saldo registrado já inclui os lançamentos futuros, de qualquer situação,
+ * então ele é o saldo ao final do último mês com lançamento. A projeção
+ * percorre uma única vez os totais posteriores ao mês corrente, do mais
+ * distante para o mais próximo, subtraindo cada mês de um só acumulador: antes
+ * de subtrair o mês {@code m}, o acumulador é o saldo ao final de {@code m}.
+ * O histórico anterior ao mês corrente não é lido.
+ */
+@Service
+public class ProjecaoSaldoServiceImpl implements ProjecaoSaldoService {
+
+	static final int MAXIMO_MESES = 120;
+
+	private LancamentoRepository repository;
+	private LancamentoService lancamentoService;
+	private RecorrenciaService recorrenciaService;
+
+	public ProjecaoSaldoServiceImpl(LancamentoRepository repository, LancamentoService lancamentoService,
+			RecorrenciaService recorrenciaService) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.recorrenciaService = recorrenciaService;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public ProjecaoSaldo projetar(Long idUsuario, int meses) {
+		if (meses < 1 || meses > MAXIMO_MESES) {
+			throw new RegraNegocioException("Informe entre 1 e " + MAXIMO_MESES + " meses.");
+		}
+
+		YearMonth atual = YearMonth.now();
+		int competenciaAtual = Recorrencia.competencia(atual.getYear(), atual.getMonthValue());
+		ProjecaoSaldo projecao = new ProjecaoSaldo();
+		List<SaldoProjetado> projetados = projecao.getMeses();
+		for (int i = 1; i <= meses; i++) {
+			YearMonth mes = atual.plusMonths(i);
+			projetados.add(new SaldoProjetado(mes.getYear(), mes.getMonthValue()));
+		}
+
+		BigDecimal acumulado = lancamentoService.obterSaldoPorUsuario(idUsuario);
+		int preenchidos = meses;
+		try (Stream<TotalCompetencia> totais = repository.percorrerTotaisPosteriores(idUsuario, atual.getYear(),
+				atual.getMonthValue())) {
+			Iterator<TotalCompetencia> iterator = totais.iterator();
+			while (iterator.hasNext()) {
+				TotalCompetencia total = iterator.next();
+				int indice = Recorrencia.competencia(total.getAno(), total.getMes()) - competenciaAtual - 1;
+				if (indice < meses) {
+					for (int i = indice; i < preenchidos; i++) {
+						projetados.get(i).setSaldoFinal(acumulado);
+					}
+					preenchidos = Math.min(preenchidos, indice);
+					projetados.get(indice).somar(total.getTipo(), total.getTotal());
+				}
+				acumulado = acumulado.subtract(assinado(total.getTipo(), total.getTotal()));
+			}
+		}
+		for (int i = 0; i < preenchidos; i++) {
+			projetados.get(i).setSaldoFinal(acumulado);
+		}
+		projecao.setSaldoAtual(acumulado);
+
+		somarRecorrencias(idUsuario, projecao, competenciaAtual);
+		return projecao;
+	}
+
+	/**
+	 * Ocorrências de recorrências ainda não geradas não fazem parte do saldo
+	 * registrado: entram como um acréscimo acumulado a partir do seu mês. As
+	 * atrasadas, até o mês corrente, entram no saldo atual.
+	 */
+	private void somarRecorrencias(Long idUsuario, ProjecaoSaldo projecao, int competenciaAtual) {
+		List<SaldoProjetado> projetados = projecao.getMeses();
+		SaldoProjetado ultimo = projetados.get(projetados.size() - 1);
+		BigDecimal atrasadas = BigDecimal.ZERO;
+		BigDecimal[] variacoes = new BigDecimal[projetados.size()];
+		for (LancamentoView ocorrencia : recorrenciaService.projetar(idUsuario, ultimo.getAno(), ultimo.getMes())) {
+			int indice = Recorrencia.competencia(ocorrencia.getAno(), ocorrencia.getMes()) - competenciaAtual - 1;
+			BigDecimal valor = assinado(ocorrencia.getTipo(), ocorrencia.getValor());
+			if (indice < 0) {
+				atrasadas = atrasadas.add(valor);
+				continue;
+			}
+			projetados.get(indice).somar(ocorrencia.getTipo(), ocorrencia.getValor());
+			variacoes[indice] = variacoes[indice] == null ? valor : variacoes[indice].add(valor);
+		}
+		projecao.setSaldoAtual(projecao.getSaldoAtual().add(atrasadas));
+
+		BigDecimal acrescimo = atrasadas;
+		for (int i = 0; i < projetados.size(); i++) {
+			if (variacoes[i] != null) {
+				acrescimo = acrescimo.add(variacoes[i]);
+			}
+			SaldoProjetado projetado = projetados.get(i);
+			projetado.setSaldoFinal(projetado.getSaldoFinal().add(acrescimo));
+		}
+	}
+
+	private static BigDecimal assinado(TipoLancamento tipo, BigDecimal valor) {
+		return tipo == TipoLancamento.RECEITA ? valor : valor.negate();
+	}
+
+}
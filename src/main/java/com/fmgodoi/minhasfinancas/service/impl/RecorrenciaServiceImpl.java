@@ -0,0 +1,203 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Recorrencia;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.repository.RecorrenciaRepository;
+import com.fmgodoi.minhasfinancas.service.ErroLote;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.RecorrenciaService;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+import com.fmgodoi.minhasfinancas.service.ResultadoLote;
+
+import lombok.extern.slf4j.Slf4j;
+import model.enums.StatusLancamento;
+
+@Slf4j
+@Service
+public class RecorrenciaServiceImpl implements RecorrenciaService {
+
+	static final int TAMANHO_PAGINA = 200;
+	static final int QUANTIDADE_MAXIMA = 600;
+	static final int MAXIMO_PROJETADOS = 10000;
+	// Espaço para o sufixo " 600/600" das parcelas na coluna descricao (100)
+	static final int TAMANHO_MAXIMO_DESCRICAO = 92;
+
+	private RecorrenciaRepository repository;
+	private LancamentoService lancamentoService;
+	private ResolvedorShard resolvedorShard;
+	private TransactionTemplate transacao;
+
+	public RecorrenciaServiceImpl(RecorrenciaRepository repository, LancamentoService lancamentoService,
+			ResolvedorShard resolvedorShard, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.resolvedorShard = resolvedorShard;
+		this.transacao = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	@Transactional
+	public Recorrencia salvar(Recorrencia recorrencia) {
+		validar(recorrencia);
+		recorrencia.registrarGeradas(0);
+		return repository.save(recorrencia);
+	}
+
+	@Override
+	@Transactional
+	public void encerrar(Recorrencia recorrencia) {
+		// As ocorrências já geradas continuam como lançamentos comuns
+		recorrencia.setQuantidade(recorrencia.getGeradas());
+		recorrencia.registrarGeradas(recorrencia.getGeradas());
+		repository.save(recorrencia);
+	}
+
+	@Override
+	public Optional<Recorrencia> obterPorId(Long id) {
+		return repository.findById(id);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Recorrencia> buscar(Long idUsuario) {
+		return repository.findByIdUsuarioOrderById(idUsuario);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoView> projetar(Long idUsuario, Integer ano, Integer mes) {
+		if (ano == null || mes == null || mes < 1 || mes > 12) {
+			throw new RegraNegocioException("Informe o Ano e o Mês da projeção.");
+		}
+
+		int ate = Recorrencia.competencia(ano, mes);
+		List<LancamentoView> projetados = new ArrayList<>();
+		for (Recorrencia recorrencia : repository.buscarPendentesDoUsuario(idUsuario, ate)) {
+			int ultima = recorrencia.ultimaOcorrenciaAte(ate);
+			if (projetados.size() + ultima - recorrencia.getGeradas() >= MAXIMO_PROJETADOS) {
+				throw new RegraNegocioException("A projeção excede " + MAXIMO_PROJETADOS + " lançamentos.");
+			}
+
+			for (int i = recorrencia.getGeradas(); i <= ultima; i++) {
+				Lancamento ocorrencia = recorrencia.ocorrencia(i);
+				projetados.add(new LancamentoView(null, ocorrencia.getDescricao(), ocorrencia.getMes(),
+						ocorrencia.getAno(), ocorrencia.getValor(), idUsuario, ocorrencia.getTipo(),
+						StatusLancamento.PENDENTE, null));
+			}
+		}
+		return projetados;
+	}
+
+	@Override
+	public int gerar(int ano, int mes) {
+		int ate = Recorrencia.competencia(ano, mes);
+		Progresso progresso = new Progresso();
+		while (!progresso.concluido) {
+			// Uma transação por página: os lançamentos e o avanço das recorrências são gravados juntos
+			long aposId = progresso.aposId;
+			Progresso pagina = transacao.execute(status -> gerarPagina(ate, aposId));
+			// O cursor só avança depois que a página foi confirmada
+			progresso.aposId = pagina.aposId;
+			progresso.inseridos += pagina.inseridos;
+			progresso.concluido = pagina.concluido;
+		}
+		return progresso.inseridos;
+	}
+
+	private Progresso gerarPagina(int ate, long aposId) {
+		Progresso progresso = new Progresso();
+		progresso.aposId = aposId;
+		List<Recorrencia> pendentes = repository.buscarPendentes(ate, aposId, PageRequest.of(0, TAMANHO_PAGINA));
+		progresso.concluido = pendentes.size() < TAMANHO_PAGINA;
+
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for (Recorrencia recorrencia : pendentes) {
+			progresso.aposId = recorrencia.getId();
+			if (resolvedorShard.isMigrando(recorrencia.getIdUsuario())) {
+				// A migração apagaria da origem o que fosse gravado agora; a recorrência continua pendente
+				log.info("Recorrência {} adiada: usuário {} em migração de shard", recorrencia.getId(),
+						recorrencia.getIdUsuario());
+				continue;
+			}
+			int ultima = recorrencia.ultimaOcorrenciaAte(ate);
+			for (int i = recorrencia.getGeradas(); i <= ultima; i++) {
+				lancamentos.add(recorrencia.ocorrencia(i));
+			}
+			// Alterada antes de salvarLote, que descarrega e limpa o contexto de persistência
+			recorrencia.registrarGeradas(Math.max(recorrencia.getGeradas(), ultima + 1));
+		}
+
+		for (int inicio = 0; inicio < lancamentos.size(); inicio += LancamentoServiceImpl.TAMANHO_MAXIMO_LOTE) {
+			List<Lancamento> lote = lancamentos.subList(inicio,
+					Math.min(inicio + LancamentoServiceImpl.TAMANHO_MAXIMO_LOTE, lancamentos.size()));
+			ResultadoLote resultado = lancamentoService.salvarLote(lote);
+			progresso.inseridos += resultado.getInseridos();
+			for (ErroLote erro : resultado.getErros()) {
+				log.warn("Ocorrência de recorrência recusada ({}): {}", lote.get(erro.getIndice()).getDescricao(),
+						erro.getMensagem());
+			}
+		}
+		return progresso;
+	}
+
+	@Override
+	public void validar(Recorrencia recorrencia) {
+
+		if (recorrencia.getDescricao() == null || recorrencia.getDescricao().trim().equals("")
+				|| recorrencia.getDescricao().length() > TAMANHO_MAXIMO_DESCRICAO) {
+			throw new RegraNegocioException("Informe uma Descrição válida.");
+		}
+
+		if (recorrencia.getMesInicio() == null || recorrencia.getMesInicio() < 1 || recorrencia.getMesInicio() > 12) {
+			throw new RegraNegocioException("Informe um Mês inicial válido.");
+		}
+
+		if (recorrencia.getAnoInicio() == null || recorrencia.getAnoInicio().toString().length() != 4) {
+			throw new RegraNegocioException("Informe um Ano inicial válido.");
+		}
+
+		if (recorrencia.getIdUsuario() == null) {
+			throw new RegraNegocioException("Informe um Usuário válido.");
+		}
+
+		if (recorrencia.getValor() == null || recorrencia.getValor().compareTo(BigDecimal.ZERO) < 1) {
+			throw new RegraNegocioException("Informe um Valor válido.");
+		}
+
+		if (recorrencia.getTipo() == null) {
+			throw new RegraNegocioException("Informe um Tipo de Lançamento válido.");
+		}
+
+		if (recorrencia.getQuantidade() != null
+				&& (recorrencia.getQuantidade() < 1 || recorrencia.getQuantidade() > QUANTIDADE_MAXIMA)) {
+			throw new RegraNegocioException("Informe uma Quantidade entre 1 e " + QUANTIDADE_MAXIMA + ".");
+		}
+
+		if (recorrencia.isParcelada() && recorrencia.getQuantidade() == null) {
+			throw new RegraNegocioException("Informe a Quantidade de parcelas.");
+		}
+
+	}
+
+	private static class Progresso {
+
+		private long aposId;
+		private int inseridos;
+		private boolean concluido;
+
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.Value;
+
+/**
+ * Novos usuários são posicionados pelo {@link AnelShards} e registrados na
+ * tabela {@code diretorio_usuario} do catálogo, que passa a ser a fonte da
+ * verdade: uma migração muda o diretório, e não o anel. Usuários ausentes do
+ * diretório são anteriores à distribuição e ficam no catálogo.
+ *
+ * As posições ficam em cache por {@code cacheSegundos}; a
+ * {@link MigracaoShardServiceImpl} espera esse prazo entre as etapas para que
+ * todas as instâncias enxerguem a mudança.
+ */
+public class ResolvedorShardDiretorio implements ResolvedorShard {
+
+	private static final Posicao NO_CATALOGO = new Posicao(CATALOGO, false);
+
+	private final JdbcTemplate catalogo;
+	private final List<Integer> shards;
+	private final AnelShards anel;
+	private final Cache<Long, Posicao> posicoes;
+
+	public ResolvedorShardDiretorio(JdbcTemplate catalogo, int quantidade, int nosVirtuais, long cacheSegundos) {
+		this.catalogo = catalogo;
+		this.shards = IntStream.range(0, quantidade).boxed().collect(Collectors.toList());
+		this.anel = new AnelShards(quantidade, nosVirtuais);
+		this.posicoes = Caffeine.newBuilder().expireAfterWrite(cacheSegundos, TimeUnit.SECONDS)
+				.maximumSize(100_000).build();
+	}
+
+	@Override
+	public List<Integer> getShards() {
+		return shards;
+	}
+
+	@Override
+	public int shardDoUsuario(Long idUsuario) {
+		return posicao(idUsuario).getShard();
+	}
+
+	@Override
+	public boolean isMigrando(Long idUsuario) {
+		return posicao(idUsuario).isMigrando();
+	}
+
+	@Override
+	public Optional<Integer> shardDoEmail(String email) {
+		List<Integer> registrado = catalogo.queryForList(
+				"select shard from financas.diretorio_usuario where email = ?", Integer.class, email);
+		if (!registrado.isEmpty()) {
+			return Optional.of(registrado.get(0));
+		}
+		boolean anterior = !catalogo
+				.queryForList("select id from financas.usuario where email = ?", Long.class, email).isEmpty();
+		return anterior ? Optional.of(CATALOGO) : Optional.empty();
+	}
+
+	@Override
+	public int posicionar(String email) {
+		return anel.shard(email == null ? "" : email);
+	}
+
+	@Override
+	public void registrar(Usuario usuario, int shard) {
+		try {
+			int alterados = catalogo.update(
+					"update financas.diretorio_usuario set email = ?, shard = ? where id_usuario = ?",
+					usuario.getEmail(), shard, usuario.getId());
+			if (alterados == 0) {
+				catalogo.update("insert into financas.diretorio_usuario (id_usuario, email, shard, migrando)"
+						+ " values (?, ?, ?, false)", usuario.getId(), usuario.getEmail(), shard);
+			}
+		} catch (DuplicateKeyException e) {
+			throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
+		}
+		posicoes.invalidate(usuario.getId());
+	}
+
+	void marcarMigracao(Long idUsuario, int shard, boolean migrando) {
+		int alterados = catalogo.update(
+				"update financas.diretorio_usuario set shard = ?, migrando = ? where id_usuario = ?", shard,
+				migrando, idUsuario);
+		if (alterados == 0) {
+			catalogo.update("insert into financas.diretorio_usuario (id_usuario, email, shard, migrando)"
+					+ " select id, email, ?, ? from financas.usuario where id = ?", shard, migrando, idUsuario);
+		}
+		posicoes.invalidate(idUsuario);
+	}
+
+	private Posicao posicao(Long idUsuario) {
+		return posicoes.get(idUsuario, id -> {
+			List<Posicao> registrada = catalogo.query(
+					"select shard, migrando from financas.diretorio_usuario where id_usuario = ?",
+					(rs, linha) -> new Posicao(rs.getInt(1), rs.getBoolean(2)), id);
+			return registrada.isEmpty() ? NO_CATALOGO : registrada.get(0);
+		});
+	}
+
+	@Value
+	private static class Posicao {
+
+		int shard;
+		boolean migrando;
+
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+
+/**
+ * Base única: todos os usuários ficam no catálogo e não há diretório.
+ */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.shard.habilitado", havingValue = "false", matchIfMissing = true)
+public class ResolvedorShardUnico implements ResolvedorShard {
+
+	@Override
+	public List<Integer> getShards() {
+		return Collections.singletonList(CATALOGO);
+	}
+
+	@Override
+	public int shardDoUsuario(Long idUsuario) {
+		return CATALOGO;
+	}
+
+	@Override
+	public Optional<Integer> shardDoEmail(String email) {
+		return Optional.empty();
+	}
+
+	@Override
+	public int posicionar(String email) {
+		return CATALOGO;
+	}
+
+	@Override
+	public void registrar(Usuario usuario, int shard) {
+	}
+
+	@Override
+	public boolean isMigrando(Long idUsuario) {
+		return false;
+	}
+
+}
@@ -0,0 +1,208 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.SaldoUsuario;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepository;
+import com.fmgodoi.minhasfinancas.service.ArquivoLancamentoService;
+import com.fmgodoi.minhasfinancas.service.DivergenciaSaldo;
+import com.fmgodoi.minhasfinancas.service.SaldoUsuarioService;
+
+import model.enums.TipoLancamento;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+	private SaldoUsuarioRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	private UsuarioRepository usuarioRepository;
+	private ArquivoLancamentoService arquivo;
+
+	public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+			UsuarioRepository usuarioRepository, ArquivoLancamentoService arquivo) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.usuarioRepository = usuarioRepository;
+		this.arquivo = arquivo;
+	}
+
+	@Override
+	@Transactional
+	public void registrarInclusao(Lancamento lancamento) {
+		acumular(lancamento.getUsuario().getId(), receita(lancamento.getTipo(), lancamento.getValor()),
+				despesa(lancamento.getTipo(), lancamento.getValor()), 1L);
+	}
+
+	@Override
+	@Transactional
+	public void registrarInclusoes(List<Lancamento> lancamentos) {
+		Map<Long, SaldoUsuario> incluidos = new HashMap<>();
+		for (Lancamento lancamento : lancamentos) {
+			Long idUsuario = lancamento.getUsuario().getId();
+			somar(incluidos.computeIfAbsent(idUsuario, SaldoUsuarioServiceImpl::zerado),
+					new TotalPorTipo(idUsuario, lancamento.getTipo(), lancamento.getValor()));
+		}
+
+		for (SaldoUsuario incluido : incluidos.values()) {
+			acumular(incluido.getIdUsuario(), incluido.getReceitas(), incluido.getDespesas(),
+					incluido.getQuantidade());
+		}
+	}
+
+	@Override
+	@Transactional
+	public void registrarAlteracao(TotalPorTipo anterior, Lancamento atual) {
+		Long idUsuario = atual.getUsuario().getId();
+
+		if (anterior == null) {
+			registrarInclusao(atual);
+			return;
+		}
+
+		if (!anterior.getIdUsuario().equals(idUsuario)) {
+			registrarExclusao(anterior);
+			registrarInclusao(atual);
+			return;
+		}
+
+		BigDecimal receitas = receita(atual.getTipo(), atual.getValor())
+				.subtract(receita(anterior.getTipo(), anterior.getTotal()));
+		BigDecimal despesas = despesa(atual.getTipo(), atual.getValor())
+				.subtract(despesa(anterior.getTipo(), anterior.getTotal()));
+		acumular(idUsuario, receitas, despesas, 0L);
+	}
+
+	@Override
+	@Transactional
+	public void registrarExclusao(TotalPorTipo anterior) {
+		acumular(anterior.getIdUsuario(), receita(anterior.getTipo(), anterior.getTotal()).negate(),
+				despesa(anterior.getTipo(), anterior.getTotal()).negate(), -1L);
+	}
+
+	@Override
+	@Transactional
+	public void registrarAlteracaoStatus(Long idUsuario) {
+		// O saldo não muda, mas a versão identifica os dados do usuário para o ETag
+		acumular(idUsuario, BigDecimal.ZERO, BigDecimal.ZERO, 0L);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<BigDecimal> obterSaldo(Long idUsuario) {
+		return repository.findById(idUsuario).map(SaldoUsuario::getSaldo);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> obterVersao(Long idUsuario) {
+		return repository.obterVersao(idUsuario);
+	}
+
+	@Override
+	@Transactional
+	public List<DivergenciaSaldo> reconciliar(boolean corrigir) {
+		Map<Long, SaldoUsuario> calculados = new HashMap<>();
+		List<TotalPorTipo> totais = new ArrayList<>(lancamentoRepository.totalizarTodos());
+		List<TotalPorTipo> arquivados = arquivo.totalizarTodos();
+		if (!arquivados.isEmpty()) {
+			// O diretório de arquivos é compartilhado entre os shards; só contam os usuários deste
+			Set<Long> usuarios = new HashSet<>(usuarioRepository.buscarIds());
+			arquivados.stream().filter(total -> usuarios.contains(total.getIdUsuario())).forEach(totais::add);
+		}
+		for (TotalPorTipo total : totais) {
+			somar(calculados.computeIfAbsent(total.getIdUsuario(), SaldoUsuarioServiceImpl::zerado), total);
+		}
+
+		List<DivergenciaSaldo> divergencias = new ArrayList<>();
+		for (SaldoUsuario registrado : repository.findAll()) {
+			SaldoUsuario calculado = calculados.remove(registrado.getIdUsuario());
+			if (calculado == null) {
+				calculado = zerado(registrado.getIdUsuario());
+			}
+
+			if (!mesmoSaldo(registrado, calculado)) {
+				divergencias.add(divergencia(registrado, calculado));
+				if (corrigir) {
+					registrado.setReceitas(calculado.getReceitas());
+					registrado.setDespesas(calculado.getDespesas());
+					registrado.setQuantidade(calculado.getQuantidade());
+				}
+			}
+		}
+
+		for (SaldoUsuario calculado : calculados.values()) {
+			divergencias.add(divergencia(zerado(calculado.getIdUsuario()), calculado));
+			if (corrigir) {
+				repository.save(calculado);
+			}
+		}
+
+		return divergencias;
+	}
+
+	private void acumular(Long idUsuario, BigDecimal receitas, BigDecimal despesas, Long quantidade) {
+		int atualizados = repository.acumular(idUsuario, receitas, despesas, quantidade);
+
+		if (atualizados == 0) {
+			// Outra transação pode criar o registro ao mesmo tempo; se ela vencer, soma-se só a diferença desta
+			repository.criarOuAcumular(recalcular(idUsuario), receitas, despesas, quantidade);
+		}
+	}
+
+	private SaldoUsuario recalcular(Long idUsuario) {
+		SaldoUsuario saldo = zerado(idUsuario);
+		for (TotalPorTipo total : lancamentoRepository.totalizarPorUsuario(idUsuario)) {
+			somar(saldo, total);
+		}
+		for (TotalPorTipo total : arquivo.totalizarPorUsuario(idUsuario)) {
+			somar(saldo, total);
+		}
+		return saldo;
+	}
+
+	private static void somar(SaldoUsuario saldo, TotalPorTipo total) {
+		saldo.setReceitas(saldo.getReceitas().add(receita(total.getTipo(), total.getTotal())));
+		saldo.setDespesas(saldo.getDespesas().add(despesa(total.getTipo(), total.getTotal())));
+		saldo.setQuantidade(saldo.getQuantidade() + total.getQuantidade());
+	}
+
+	private static SaldoUsuario zerado(Long idUsuario) {
+		return SaldoUsuario.builder().idUsuario(idUsuario).receitas(BigDecimal.ZERO).despesas(BigDecimal.ZERO)
+				.quantidade(0L).build();
+	}
+
+	private static boolean mesmoSaldo(SaldoUsuario registrado, SaldoUsuario calculado) {
+		return registrado.getReceitas().compareTo(calculado.getReceitas()) == 0
+				&& registrado.getDespesas().compareTo(calculado.getDespesas()) == 0
+				&& registrado.getQuantidade().equals(calculado.getQuantidade());
+	}
+
+	private static DivergenciaSaldo divergencia(SaldoUsuario registrado, SaldoUsuario calculado) {
+		return new DivergenciaSaldo(registrado.getIdUsuario(), registrado.getReceitas(), calculado.getReceitas(),
+				registrado.getDespesas(), calculado.getDespesas(), registrado.getQuantidade(),
+				calculado.getQuantidade());
+	}
+
+	private static BigDecimal receita(TipoLancamento tipo, BigDecimal valor) {
+		return tipo == TipoLancamento.RECEITA && valor != null ? valor : BigDecimal.ZERO;
+	}
+
+	private static BigDecimal despesa(TipoLancamento tipo, BigDecimal valor) {
+		return tipo == TipoLancamento.DESPESA && valor != null ? valor : BigDecimal.ZERO;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.fmgodoi.minhasfinancas.service.SenhaService;
+
+/**
+ * Senhas com BCrypt. O hash roda em um pool limitado com fila finita: uma
+ * rajada de logins recebe {@link java.util.concurrent.RejectedExecutionException}
+ * em vez de ocupar todas as threads de requisição.
+ */
+@Service
+public class SenhaServiceImpl implements SenhaService {
+
+	private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+	private final BCryptPasswordEncoder encoder;
+	private final ThreadPoolExecutor executor;
+
+	public SenhaServiceImpl(@Value("${minhasfinancas.senha.forca:10}") int forca,
+			@Value("${minhasfinancas.senha.threads:0}") int threads,
+			@Value("${minhasfinancas.senha.fila:64}") int fila) {
+		this.encoder = new BCryptPasswordEncoder(forca);
+		int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger contador = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(fila), r -> {
+					Thread thread = new Thread(r, "hash-senha-" + contador.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@Override
+	public String codificar(String senha) {
+		return executar(() -> encoder.encode(senha));
+	}
+
+	@Override
+	public boolean conferir(String senha, String senhaArmazenada) {
+		if (senha == null || senhaArmazenada == null) {
+			return false;
+		}
+
+		if (precisaAtualizar(senhaArmazenada)) {
+			// Cadastros anteriores ao BCrypt guardavam a senha em texto puro
+			return MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8),
+					senhaArmazenada.getBytes(StandardCharsets.UTF_8));
+		}
+		return executar(() -> encoder.matches(senha, senhaArmazenada));
+	}
+
+	@Override
+	public boolean precisaAtualizar(String senhaArmazenada) {
+		return senhaArmazenada != null && !BCRYPT.matcher(senhaArmazenada).matches();
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdownNow();
+	}
+
+	private <T> T executar(Callable<T> tarefa) {
+		try {
+			return executor.submit(tarefa).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.fmgodoi.minhasfinancas.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fmgodoi.minhasfinancas.service.TokenAcesso;
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token no formato {@code base64url(idUsuario:expiraEm).base64url(hmac)},
+ * assinado com HMAC-SHA256. A validação não consulta o banco.
+ */
+@Slf4j
+@Service
+public class TokenServiceImpl implements TokenService {
+
+	private static final String ALGORITMO = "HmacSHA256";
+
+	private final SecretKeySpec chave;
+	private final long expiracaoSegundos;
+
+	public TokenServiceImpl(@Value("${minhasfinancas.token.segredo:}") String segredo,
+			@Value("${minhasfinancas.token.expiracao-minutos:480}") long expiracaoMinutos) {
+		byte[] bytes = segredo.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length == 0) {
+			log.warn("minhasfinancas.token.segredo não configurado: usando um segredo aleatório,"
+					+ " os tokens não valerão após reiniciar nem entre instâncias.");
+			bytes = new byte[32];
+			new SecureRandom().nextBytes(bytes);
+		}
+		this.chave = new SecretKeySpec(bytes, ALGORITMO);
+		this.expiracaoSegundos = TimeUnit.MINUTES.toSeconds(expiracaoMinutos);
+	}
+
+	@Override
+	public TokenAcesso gerarToken(Long idUsuario) {
+		Instant expiraEm = Instant.ofEpochSecond(Instant.now().getEpochSecond() + expiracaoSegundos);
+		byte[] conteudo = (idUsuario + ":" + expiraEm.getEpochSecond()).getBytes(StandardCharsets.UTF_8);
+		Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+		return new TokenAcesso(base64.encodeToString(conteudo) + "." + base64.encodeToString(assinar(conteudo)),
+				expiraEm);
+	}
+
+	@Override
+	public Optional<Long> validarToken(String token) {
+		int separador = token == null ? -1 : token.indexOf('.');
+		if (separador < 0) {
+			return Optional.empty();
+		}
+
+		try {
+			Base64.Decoder base64 = Base64.getUrlDecoder();
+			byte[] conteudo = base64.decode(token.substring(0, separador));
+			byte[] assinatura = base64.decode(token.substring(separador + 1));
+			if (!MessageDigest.isEqual(assinar(conteudo), assinatura)) {
+				return Optional.empty();
+			}
+
+			String[] partes = new String(conteudo, StandardCharsets.UTF_8).split(":");
+			if (partes.length != 2 || Long.parseLong(partes[1]) <= Instant.now().getEpochSecond()) {
+				return Optional.empty();
+			}
+			return Optional.of(Long.valueOf(partes[0]));
+		} catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+
+	private byte[] assinar(byte[] conteudo) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITMO);
+			mac.init(chave);
+			return mac.doFinal(conteudo);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
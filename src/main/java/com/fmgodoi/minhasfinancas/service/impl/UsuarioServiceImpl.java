@@ -2,27 +2,46 @@ package com.fmgodoi.minhasfinancas.service.impl;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fmgodoi.minhasfinancas.config.CacheConfig;
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
 import com.fmgodoi.minhasfinancas.exception.ErroAutenticacao;
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
 import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepository;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+import com.fmgodoi.minhasfinancas.service.SenhaService;
 import com.fmgodoi.minhasfinancas.service.UsuarioService;
 
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 
 	private UsuarioRepository repository;
+	private SenhaService senhaService;
+	private ResolvedorShard resolvedorShard;
 
-	public UsuarioServiceImpl(UsuarioRepository repository) {
+	public UsuarioServiceImpl(UsuarioRepository repository, SenhaService senhaService,
+			ResolvedorShard resolvedorShard) {
 		super();
 		this.repository = repository;
+		this.senhaService = senhaService;
+		this.resolvedorShard = resolvedorShard;
 	}
 
 	@Override
 	public Usuario autenticar(String email, String senha) {
+		// Sem token ainda, o shard vem do diretório
+		int shard = resolvedorShard.shardDoEmail(email).orElse(ResolvedorShard.CATALOGO);
+		return ContextoShard.executar(shard, () -> autenticarNoShard(email, senha));
+	}
+
+	private Usuario autenticarNoShard(String email, String senha) {
 
 		Optional<Usuario> usuario = repository.findByEmail(email);
 
@@ -30,23 +49,41 @@ public class UsuarioServiceImpl implements UsuarioService {
 			throw new ErroAutenticacao("Usuário não encontrado.");
 		}
 
-		if (!usuario.get().getSenha().equals(senha)) {
+		String senhaArmazenada = usuario.get().getSenha();
+		if (!senhaService.conferir(senha, senhaArmazenada)) {
 			throw new ErroAutenticacao("Senha inválida.");
 		}
 
+		if (senhaService.precisaAtualizar(senhaArmazenada)) {
+			repository.atualizarSenha(usuario.get().getId(), email, senhaService.codificar(senha));
+		}
+
 		return usuario.get();
 	}
 
 	@Override
 	@Transactional
+	@Caching(put = @CachePut(cacheNames = CacheConfig.USUARIOS, key = "#result.id"),
+			evict = @CacheEvict(cacheNames = CacheConfig.USUARIOS_POR_EMAIL, key = "#usuario.email",
+					condition = "#usuario.email != null"))
 	public Usuario salvarUsuario(Usuario usuario) {
-		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
+		int shard = usuario.getId() == null ? resolvedorShard.posicionar(usuario.getEmail())
+				: resolvedorShard.shardDoUsuario(usuario.getId());
+		// A conexão da transação só é obtida no primeiro comando, já no shard escolhido
+		return ContextoShard.executar(shard, () -> {
+			validarEmail(usuario.getEmail());
+			if (usuario.getSenha() != null) {
+				usuario.setSenha(senhaService.codificar(usuario.getSenha()));
+			}
+			Usuario salvo = repository.save(usuario);
+			resolvedorShard.registrar(salvo, shard);
+			return salvo;
+		});
 	}
 
 	@Override
 	public void validarEmail(String email) {
-		boolean existe = repository.existsByEmail(email);
+		boolean existe = resolvedorShard.shardDoEmail(email).isPresent() || repository.existsByEmail(email);
 		if (existe) {
 			throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
 		}
@@ -54,8 +91,9 @@ public class UsuarioServiceImpl implements UsuarioService {
 	}
 
 	@Override
+	@Cacheable(cacheNames = CacheConfig.USUARIOS, unless = "#result == null")
 	public Optional<Usuario> obterPorId(Long id) {
-		return repository.findById(id);
+		return ContextoShard.executar(resolvedorShard.shardDoUsuario(id), () -> repository.findById(id));
 	}
 
 }
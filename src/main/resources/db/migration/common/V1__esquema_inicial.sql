@@ -0,0 +1,28 @@
+create table if not exists financas.usuario (
+	id bigint generated by default as identity primary key,
+	nome varchar(150),
+	email varchar(100),
+	senha varchar(100)
+);
+
+create table if not exists financas.lancamento (
+	id bigint primary key,
+	descricao varchar(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16, 2) not null,
+	tipo varchar(20) not null,
+	status varchar(20) not null,
+	id_usuario bigint references financas.usuario (id),
+	data_cadastro date default current_date
+);
+
+create sequence if not exists financas.lancamento_seq start with 1 increment by 50;
+
+create table if not exists financas.saldo_usuario (
+	id_usuario bigint primary key references financas.usuario (id),
+	receitas numeric(16, 2) not null,
+	despesas numeric(16, 2) not null,
+	quantidade bigint not null,
+	versao bigint not null
+);
@@ -0,0 +1,5 @@
+-- autenticar e validarEmail
+create unique index if not exists uk_usuario_email on financas.usuario (email);
+
+-- busca, paginação por (ano, mes, id), resumo anual e atualização de status em lote
+create index if not exists idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes);
@@ -0,0 +1,11 @@
+create table if not exists financas.resposta_idempotente (
+	chave varchar(300) primary key,
+	metodo varchar(10) not null,
+	caminho varchar(255) not null,
+	status integer not null,
+	tipo_conteudo varchar(100),
+	corpo bytea,
+	criado_em timestamp not null
+);
+
+create index if not exists idx_resposta_idempotente_criado_em on financas.resposta_idempotente (criado_em);
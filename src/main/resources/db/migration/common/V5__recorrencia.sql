@@ -0,0 +1,17 @@
+create table if not exists financas.recorrencia (
+	id bigint generated by default as identity primary key,
+	descricao varchar(100) not null,
+	valor numeric(16, 2) not null,
+	tipo varchar(20) not null,
+	id_usuario bigint not null references financas.usuario (id),
+	ano_inicio integer not null,
+	mes_inicio integer not null,
+	quantidade integer,
+	parcelada boolean not null,
+	geradas integer not null,
+	proxima_competencia integer
+);
+
+-- geração antecipada (varredura por competência pendente) e projeção por usuário
+create index if not exists idx_recorrencia_proxima_competencia on financas.recorrencia (proxima_competencia, id);
+create index if not exists idx_recorrencia_usuario on financas.recorrencia (id_usuario);
@@ -0,0 +1,13 @@
+-- Posição de cada usuário entre os shards, mantida apenas no catálogo (shard 0)
+create table if not exists financas.diretorio_usuario (
+	id_usuario bigint primary key,
+	email varchar(100),
+	shard integer not null,
+	migrando boolean default false not null
+);
+
+create unique index if not exists uk_diretorio_usuario_email on financas.diretorio_usuario (email);
+
+-- Usuários anteriores à distribuição ficam no catálogo
+insert into financas.diretorio_usuario (id_usuario, email, shard, migrando)
+	select id, email, 0, false from financas.usuario;
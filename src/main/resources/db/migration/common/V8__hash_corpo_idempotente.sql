@@ -0,0 +1 @@
+alter table financas.resposta_idempotente add column if not exists hash_corpo varchar(44);
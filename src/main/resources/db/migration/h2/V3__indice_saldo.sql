@@ -0,0 +1,2 @@
+-- O H2 não suporta INCLUDE: valor entra como última coluna da chave
+create index if not exists idx_lancamento_usuario_tipo on financas.lancamento (id_usuario, tipo, valor);
@@ -0,0 +1,4 @@
+-- Cada shard gera ids a partir de ${inicio_ids}, para que um usuário possa ser movido sem renumerar as linhas
+alter sequence financas.lancamento_seq restart with ${inicio_ids} + 50;
+alter table financas.usuario alter column id restart with ${inicio_ids} + 1;
+alter table financas.recorrencia alter column id restart with ${inicio_ids} + 1;
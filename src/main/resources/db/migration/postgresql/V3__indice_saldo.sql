@@ -0,0 +1,5 @@
+-- Soma de valor por usuário e tipo respondida apenas pelo índice (index-only scan)
+create index if not exists idx_lancamento_usuario_tipo on financas.lancamento (id_usuario, tipo) include (valor);
+
+-- Bases anteriores às migrações podem ter lançamentos com ids fora da sequence
+select setval('financas.lancamento_seq', coalesce(max(id), 0) + 50) from financas.lancamento;
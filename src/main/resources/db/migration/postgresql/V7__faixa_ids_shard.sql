@@ -0,0 +1,6 @@
+-- Cada shard gera ids a partir de ${inicio_ids}, para que um usuário possa ser movido sem renumerar as linhas
+select setval('financas.lancamento_seq', greatest(last_value, ${inicio_ids} + 50)) from financas.lancamento_seq;
+select setval(pg_get_serial_sequence('financas.usuario', 'id'), greatest(coalesce(max(id), 0), ${inicio_ids}) + 1, false)
+	from financas.usuario;
+select setval(pg_get_serial_sequence('financas.recorrencia', 'id'), greatest(coalesce(max(id), 0), ${inicio_ids}) + 1, false)
+	from financas.recorrencia;
@@ -0,0 +1,112 @@
+package com.fmgodoi.minhasfinancas.api.evento;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fmgodoi.minhasfinancas.api.filter.AutenticacaoTokenFilter;
+import com.fmgodoi.minhasfinancas.api.resource.UsuarioResource;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent.Alteracao;
+import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ProjecaoSaldoService;
+import com.fmgodoi.minhasfinancas.service.TokenService;
+import com.fmgodoi.minhasfinancas.service.UsuarioService;
+
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+public class BarramentoEventosTest {
+
+	LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+	BarramentoEventos barramento;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (barramento != null) {
+			barramento.encerrar();
+		}
+	}
+
+	@Test
+	public void deveEnviarOSaldoAtualEDepoisCadaAlteracaoDoUsuario() throws Exception {
+		// Cenario
+		barramento = new BarramentoEventos(lancamentoService, 32, 5, 100, 1, 100, Executors.newSingleThreadExecutor());
+		barramento.iniciar();
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new UsuarioResource(Mockito.mock(UsuarioService.class),
+				lancamentoService, Mockito.mock(TokenService.class), Mockito.mock(ProjecaoSaldoService.class),
+				barramento)).build();
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(new BigDecimal("100.00"),
+				new BigDecimal("150.00"));
+		Lancamento lancamento = Lancamento.builder().id(10l).descricao("Salário").mes(1).ano(2020)
+				.valor(new BigDecimal("50.00")).tipo(TipoLancamento.RECEITA).status(StatusLancamento.PENDENTE).build();
+
+		// Execução
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/1/eventos")
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		barramento.aoAlterarLancamento(
+				new LancamentoAlteradoEvent(Alteracao.INCLUSAO, 2l, Collections.singletonList(lancamento)));
+		barramento.aoAlterarLancamento(
+				new LancamentoAlteradoEvent(Alteracao.INCLUSAO, 1l, Collections.singletonList(lancamento)));
+
+		// Verificação
+		// O nome do evento e os dados são escritos separadamente; os dados chegam por último
+		String corpo = aguardar(resultado, "\"descricao\":\"Salário\"");
+		Assertions.assertThat(corpo).contains("event:saldo", "\"saldo\":100.00", "event:lancamento",
+				"\"saldo\":150.00", "\"descricao\":\"Salário\"");
+		Assertions.assertThat(barramento.getAssinantes()).isEqualTo(1);
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(2l);
+	}
+
+	@Test
+	public void deveDesconectarOAssinanteQueNaoAcompanhaOsEventos() {
+		// Cenario: o envio nunca esvazia os buffers
+		barramento = new BarramentoEventos(lancamentoService, 2, 5, 100, 1, 100, tarefa -> {
+		});
+		barramento.assinar(1l);
+
+		// Execução
+		barramento.pulsar();
+		Assertions.assertThat(barramento.getAssinantes()).isEqualTo(1);
+		barramento.pulsar();
+
+		// Verificação
+		Assertions.assertThat(barramento.getAssinantes()).isZero();
+	}
+
+	@Test
+	public void deveLimitarAsConexoesPorUsuario() {
+		barramento = new BarramentoEventos(lancamentoService, 2, 1, 100, 1, 100, tarefa -> {
+		});
+		barramento.assinar(1l);
+
+		Assertions.assertThatThrownBy(() -> barramento.assinar(1l)).isInstanceOf(RejectedExecutionException.class);
+		barramento.assinar(2l);
+		Assertions.assertThat(barramento.getAssinantes()).isEqualTo(2);
+	}
+
+	private static String aguardar(MvcResult resultado, String trecho) throws Exception {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		String corpo = resultado.getResponse().getContentAsString();
+		while (!corpo.contains(trecho) && System.nanoTime() < limite) {
+			Thread.sleep(10);
+			corpo = resultado.getResponse().getContentAsString();
+		}
+		return corpo;
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+public class AutenticacaoTokenFilterTest {
+
+	TokenService tokenService = Mockito.mock(TokenService.class);
+	AutenticacaoTokenFilter filter = new AutenticacaoTokenFilter(tokenService, true);
+
+	@Test
+	public void deveExporOUsuarioDoTokenValido() throws Exception {
+		// Cenario
+		Mockito.when(tokenService.validarToken("abc")).thenReturn(Optional.of(1l));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.addHeader("Authorization", "Bearer abc");
+		MockFilterChain chain = new MockFilterChain();
+
+		// Execução
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		// Verificação
+		Assertions.assertThat(request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO)).isEqualTo(1l);
+		Assertions.assertThat(chain.getRequest()).isNotNull();
+	}
+
+	@Test
+	public void deveRetornarUnauthorizedSemToken() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/lancamentos"), response, chain);
+
+		Assertions.assertThat(response.getStatus()).isEqualTo(401);
+		Assertions.assertThat(chain.getRequest()).isNull();
+	}
+
+	@Test
+	public void deveRetornarUnauthorizedComTokenInvalido() throws Exception {
+		Mockito.when(tokenService.validarToken("abc")).thenReturn(Optional.empty());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.addHeader("Authorization", "Bearer abc");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain());
+
+		Assertions.assertThat(response.getStatus()).isEqualTo(401);
+	}
+
+	@Test
+	public void devePermitirAutenticacaoECadastroSemToken() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(new MockHttpServletRequest("POST", "/api/usuarios/autenticar"),
+				new MockHttpServletResponse(), chain);
+
+		Assertions.assertThat(chain.getRequest()).isNotNull();
+	}
+
+}
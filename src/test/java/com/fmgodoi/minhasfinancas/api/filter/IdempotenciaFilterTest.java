@@ -0,0 +1,166 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import com.fmgodoi.minhasfinancas.model.repository.RespostaIdempotenteRepository;
+import com.fmgodoi.minhasfinancas.service.impl.IdempotenciaServiceImpl;
+
+public class IdempotenciaFilterTest {
+
+	IdempotenciaFilter filter = new IdempotenciaFilter(
+			new IdempotenciaServiceImpl(Mockito.mock(RespostaIdempotenteRepository.class), false, 24, 1000, 5));
+	AtomicInteger execucoes = new AtomicInteger();
+	ExecutorService clientes = Executors.newFixedThreadPool(2);
+
+	@After
+	public void tearDown() {
+		clientes.shutdownNow();
+	}
+
+	@Test
+	public void deveRepetirARespostaSemExecutarNovamente() throws Exception {
+		// Execução
+		MockHttpServletResponse primeira = filtrar(post("chave-1"), criar(201));
+		MockHttpServletResponse repetida = filtrar(post("chave-1"), criar(201));
+
+		// Verificação
+		Assertions.assertThat(execucoes.get()).isEqualTo(1);
+		Assertions.assertThat(repetida.getStatus()).isEqualTo(201);
+		Assertions.assertThat(repetida.getContentAsString()).isEqualTo(primeira.getContentAsString());
+		Assertions.assertThat(repetida.getHeader(IdempotenciaFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+	}
+
+	@Test
+	public void deveAguardarADuplicataSimultaneaTerminar() throws Exception {
+		// Cenario
+		CountDownLatch emExecucao = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		FilterChain lenta = (request, response) -> {
+			emExecucao.countDown();
+			try {
+				liberar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			criar(201).doFilter(request, response);
+		};
+
+		// Execução
+		Future<MockHttpServletResponse> primeira = clientes.submit(() -> filtrar(post("chave-1"), lenta));
+		emExecucao.await();
+		Future<MockHttpServletResponse> duplicata = clientes.submit(() -> filtrar(post("chave-1"), criar(201)));
+		Thread.sleep(100);
+		liberar.countDown();
+
+		// Verificação
+		Assertions.assertThat(duplicata.get().getContentAsString()).isEqualTo(primeira.get().getContentAsString());
+		Assertions.assertThat(execucoes.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void naoDeveGuardarErrosDoServidor() throws Exception {
+		filtrar(post("chave-1"), criar(500));
+		MockHttpServletResponse nova = filtrar(post("chave-1"), criar(201));
+
+		Assertions.assertThat(execucoes.get()).isEqualTo(2);
+		Assertions.assertThat(nova.getStatus()).isEqualTo(201);
+	}
+
+	@Test
+	public void deveSepararAsChavesPorUsuario() throws Exception {
+		MockHttpServletRequest outroUsuario = post("chave-1");
+		outroUsuario.setAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 2l);
+
+		filtrar(post("chave-1"), criar(201));
+		filtrar(outroUsuario, criar(201));
+
+		Assertions.assertThat(execucoes.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void deveRecusarAChaveReutilizadaEmOutraRequisicao() throws Exception {
+		// Cenario
+		filtrar(post("chave-1"), criar(201));
+		MockHttpServletRequest outra = new MockHttpServletRequest("PUT", "/api/lancamentos/1");
+		outra.setAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l);
+		outra.addHeader(IdempotenciaFilter.IDEMPOTENCY_KEY, "chave-1");
+
+		// Execução
+		MockHttpServletResponse response = filtrar(outra, criar(200));
+
+		// Verificação
+		Assertions.assertThat(response.getStatus()).isEqualTo(422);
+		Assertions.assertThat(execucoes.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveRecusarAChaveReutilizadaComOutroCorpo() throws Exception {
+		// Cenario
+		MockHttpServletRequest original = post("chave-1");
+		original.setContent("{\"valor\":10}".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletRequest alterada = post("chave-1");
+		alterada.setContent("{\"valor\":20}".getBytes(StandardCharsets.UTF_8));
+		filtrar(original, criar(201));
+
+		// Execução
+		MockHttpServletResponse response = filtrar(alterada, criar(201));
+
+		// Verificação
+		Assertions.assertThat(response.getStatus()).isEqualTo(422);
+		Assertions.assertThat(execucoes.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveEntregarOCorpoLidoAoRestanteDaCadeia() throws Exception {
+		// Cenario
+		MockHttpServletRequest request = post("chave-1");
+		request.setContent("{\"valor\":10}".getBytes(StandardCharsets.UTF_8));
+		StringBuilder recebido = new StringBuilder();
+
+		// Execução
+		filtrar(request, (requisicao, response) -> recebido
+				.append(StreamUtils.copyToString(requisicao.getInputStream(), StandardCharsets.UTF_8)));
+
+		// Verificação
+		Assertions.assertThat(recebido.toString()).isEqualTo("{\"valor\":10}");
+	}
+
+	private MockHttpServletResponse filtrar(MockHttpServletRequest request, FilterChain chain) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private FilterChain criar(int status) {
+		return (request, response) -> {
+			int execucao = execucoes.incrementAndGet();
+			((HttpServletResponse) response).setStatus(status);
+			response.setContentType("application/json");
+			response.getOutputStream().write(("{\"id\":" + execucao + "}").getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private static MockHttpServletRequest post(String chave) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/lancamentos");
+		request.setAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l);
+		request.addHeader(IdempotenciaFilter.IDEMPOTENCY_KEY, chave);
+		return request;
+	}
+
+}
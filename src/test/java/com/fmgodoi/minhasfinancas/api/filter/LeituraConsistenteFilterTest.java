@@ -0,0 +1,69 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.FilterChain;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fmgodoi.minhasfinancas.config.ConsistenciaLeitura;
+import com.fmgodoi.minhasfinancas.config.RoteamentoDataSourceConfig;
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+public class LeituraConsistenteFilterTest {
+
+	ConsistenciaLeitura consistencia = new ConsistenciaLeitura(60000, 100);
+	TokenService tokenService = Mockito.mock(TokenService.class);
+	AtomicBoolean primarioExigido = new AtomicBoolean();
+	FilterChain recurso = (request, response) -> primarioExigido.set(ConsistenciaLeitura.isPrimarioExigido());
+
+	@Test
+	public void deveLerDoPrimarioAposUmaEscritaDoUsuarioDoToken() throws Exception {
+		// Cenario
+		Mockito.when(tokenService.validarToken("abc")).thenReturn(Optional.of(7l));
+		filtrar(requisicao("POST", "/api/lancamentos", "abc"));
+
+		// Execução
+		filtrar(requisicao("GET", "/api/lancamentos", "abc"));
+
+		// Verificação
+		Assertions.assertThat(primarioExigido.get()).isTrue();
+		Assertions.assertThat(ConsistenciaLeitura.isPrimarioExigido()).isFalse();
+	}
+
+	@Test
+	public void deveAutenticarNoPrimarioSemRegistrarUsuario() throws Exception {
+		// Execução: logo após o cadastro o usuário ainda pode faltar na réplica
+		filtrar(requisicao("POST", "/api/usuarios/autenticar", null));
+
+		// Verificação
+		Assertions.assertThat(primarioExigido.get()).isTrue();
+	}
+
+	@Test
+	public void naoDeveHabilitarAReplicaComTokenOpcional() {
+		Assertions.assertThatThrownBy(() -> new RoteamentoDataSourceConfig(false))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private static MockHttpServletRequest requisicao(String metodo, String uri, String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+		if (token != null) {
+			request.addHeader("Authorization", "Bearer " + token);
+		}
+		return request;
+	}
+
+	private void filtrar(MockHttpServletRequest request) throws Exception {
+		// O token é obrigatório sempre que a réplica está habilitada
+		LeituraConsistenteFilter filtro = new LeituraConsistenteFilter(consistencia);
+		new AutenticacaoTokenFilter(tokenService, true).doFilter(request, new MockHttpServletResponse(),
+				(requisicao, resposta) -> filtro.doFilter(requisicao, resposta, recurso));
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fmgodoi.minhasfinancas.api.filter.LimiteRequisicoesFilter.Limite;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LimiteRequisicoesFilterTest {
+
+	AtomicLong relogio = new AtomicLong();
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	LimiteRequisicoesFilter filter = new LimiteRequisicoesFilter(limites(), 10, 1000, registry, relogio::get);
+
+	@Test
+	public void deveAdmitirARajadaERecusarOExcedenteComRetryAfter() throws Exception {
+		// Cenario
+		filtrar(leitura(1l));
+		filtrar(leitura(1l));
+
+		// Execução
+		MockHttpServletResponse response = filtrar(leitura(1l));
+
+		// Verificação
+		Assertions.assertThat(response.getStatus()).isEqualTo(429);
+		Assertions.assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+		Assertions.assertThat(registry.get(LimiteRequisicoesFilter.REJEICOES).tag("classe", "leitura").counter()
+				.count()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveReporOsTokensComOTempo() throws Exception {
+		filtrar(leitura(1l));
+		filtrar(leitura(1l));
+		Assertions.assertThat(filtrar(leitura(1l)).getStatus()).isEqualTo(429);
+
+		relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+		Assertions.assertThat(filtrar(leitura(1l)).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void deveLimitarCadaUsuarioSeparadamente() throws Exception {
+		filtrar(leitura(1l));
+		filtrar(leitura(1l));
+
+		Assertions.assertThat(filtrar(leitura(1l)).getStatus()).isEqualTo(429);
+		Assertions.assertThat(filtrar(leitura(2l)).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void deveLimitarAAutenticacaoPorIp() throws Exception {
+		// Cenario
+		MockHttpServletRequest primeira = new MockHttpServletRequest("POST", "/api/usuarios/autenticar");
+		primeira.setRemoteAddr("10.0.0.1");
+		MockHttpServletRequest segunda = new MockHttpServletRequest("POST", "/api/usuarios/autenticar");
+		segunda.setRemoteAddr("10.0.0.1");
+		MockHttpServletRequest outroIp = new MockHttpServletRequest("POST", "/api/usuarios/autenticar");
+		outroIp.setRemoteAddr("10.0.0.2");
+
+		// Execução
+		filtrar(primeira);
+		MockHttpServletResponse recusada = filtrar(segunda);
+		MockHttpServletResponse admitida = filtrar(outroIp);
+
+		// Verificação
+		Assertions.assertThat(recusada.getStatus()).isEqualTo(429);
+		Assertions.assertThat(recusada.getHeader("Retry-After")).isEqualTo("60");
+		Assertions.assertThat(admitida.getStatus()).isEqualTo(200);
+	}
+
+	private MockHttpServletResponse filtrar(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest leitura(Long idUsuario) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.setAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, idUsuario);
+		return request;
+	}
+
+	private static Map<ClasseRequisicao, Limite> limites() {
+		Map<ClasseRequisicao, Limite> limites = new EnumMap<>(ClasseRequisicao.class);
+		limites.put(ClasseRequisicao.LEITURA, new Limite(2, 2));
+		limites.put(ClasseRequisicao.AUTENTICACAO, new Limite(1.0 / 60, 1));
+		return limites;
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.fmgodoi.minhasfinancas.api.filter;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.config.ShardingConfig;
+import com.fmgodoi.minhasfinancas.service.ResolvedorShard;
+import com.fmgodoi.minhasfinancas.service.TokenService;
+
+public class ShardFilterTest {
+
+	ResolvedorShard resolvedor = Mockito.mock(ResolvedorShard.class);
+	TokenService tokenService = Mockito.mock(TokenService.class);
+	AtomicReference<Integer> shardDaRequisicao = new AtomicReference<>();
+	FilterChain recurso = (request, response) -> shardDaRequisicao.set(ContextoShard.atual());
+
+	@Test
+	public void deveExecutarARequisicaoNoShardDoUsuarioDoToken() throws Exception {
+		// Cenario
+		Mockito.when(tokenService.validarToken("abc")).thenReturn(Optional.of(7l));
+		Mockito.when(resolvedor.shardDoUsuario(7l)).thenReturn(1);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.addHeader("Authorization", "Bearer abc");
+
+		// Execução
+		MockHttpServletResponse response = filtrar(request);
+
+		// Verificação
+		Assertions.assertThat(response.getStatus()).isEqualTo(200);
+		Assertions.assertThat(shardDaRequisicao.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveRecusarARequisicaoSemTokenAoUsuarioDeOutroShard() throws Exception {
+		// Cenario
+		Mockito.when(resolvedor.shardDoUsuario(7l)).thenReturn(1);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.setParameter("usuario", "7");
+
+		// Execução
+		MockHttpServletResponse response = filtrar(request);
+
+		// Verificação: sem token a requisição iria ao catálogo
+		Assertions.assertThat(response.getStatus()).isEqualTo(401);
+		Assertions.assertThat(shardDaRequisicao.get()).isNull();
+	}
+
+	@Test
+	public void naoDeveHabilitarOShardingComTokenOpcional() {
+		Assertions.assertThatThrownBy(() -> new ShardingConfig(false)).isInstanceOf(IllegalStateException.class);
+	}
+
+	private MockHttpServletResponse filtrar(MockHttpServletRequest request) throws Exception {
+		// O token é obrigatório sempre que o sharding está habilitado
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ShardFilter shardFilter = new ShardFilter(resolvedor);
+		new AutenticacaoTokenFilter(tokenService, true).doFilter(request, response,
+				(requisicao, resposta) -> shardFilter.doFilter(requisicao, resposta, recurso));
+		return response;
+	}
+
+}
@@ -1,5 +1,12 @@
 package com.fmgodoi.minhasfinancas.api.resource;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -7,7 +14,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -15,14 +24,27 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fmgodoi.minhasfinancas.api.dto.UsuarioDTO;
+import com.fmgodoi.minhasfinancas.api.evento.BarramentoEventos;
+import com.fmgodoi.minhasfinancas.api.filter.AutenticacaoTokenFilter;
+import com.fmgodoi.minhasfinancas.config.FormatosBinariosConfig;
 import com.fmgodoi.minhasfinancas.exception.ErroAutenticacao;
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
 import com.fmgodoi.minhasfinancas.service.LancamentoService;
+import com.fmgodoi.minhasfinancas.service.ProjecaoSaldo;
+import com.fmgodoi.minhasfinancas.service.ProjecaoSaldoService;
+import com.fmgodoi.minhasfinancas.service.ResumoAnual;
+import com.fmgodoi.minhasfinancas.service.TokenAcesso;
+import com.fmgodoi.minhasfinancas.service.TokenService;
 import com.fmgodoi.minhasfinancas.service.UsuarioService;
 
+import model.enums.TipoLancamento;
+
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = UsuarioResource.class)
@@ -41,6 +63,15 @@ public class UsuarioResourceTest {
 	@MockBean
 	LancamentoService lancamentoService;
 
+	@MockBean
+	TokenService tokenService;
+
+	@MockBean
+	ProjecaoSaldoService projecaoSaldoService;
+
+	@MockBean
+	BarramentoEventos barramentoEventos;
+
 	@Test
 	public void deveAutenticarUmUsuario() throws Exception {
 
@@ -53,6 +84,7 @@ public class UsuarioResourceTest {
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 
 		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(tokenService.gerarToken(1l)).thenReturn(new TokenAcesso("token", Instant.now()));
 
 		String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -63,7 +95,8 @@ public class UsuarioResourceTest {
 		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
 				.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 				.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+				.andExpect(MockMvcResultMatchers.jsonPath("token").value("token"));
 	}
 
 	@Test
@@ -86,6 +119,36 @@ public class UsuarioResourceTest {
 		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isBadRequest());
 	}
 
+	@Test
+	public void deveNegociarFormatosBinariosNaRequisicaoENaResposta() throws Exception {
+
+		// Cenario
+		String email = "usuario@email.com";
+		String senha = "123";
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+
+		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
+
+		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(tokenService.gerarToken(1l)).thenReturn(new TokenAcesso("token", Instant.now()));
+
+		byte[] smile = new ObjectMapper(new SmileFactory()).writeValueAsBytes(dto);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar"))
+				.accept(FormatosBinariosConfig.CBOR).contentType(FormatosBinariosConfig.SMILE).content(smile);
+
+		MockHttpServletResponse response = mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(FormatosBinariosConfig.CBOR))
+				.andReturn().getResponse();
+
+		// Verificação
+		Assertions.assertThat(MediaType.parseMediaType(response.getContentType()).getCharset()).isNull();
+		JsonNode resposta = new ObjectMapper(new CBORFactory()).readTree(response.getContentAsByteArray());
+		Assertions.assertThat(resposta.get("id").asLong()).isEqualTo(1l);
+		Assertions.assertThat(resposta.get("token").asText()).isEqualTo("token");
+	}
+
 	@Test
 	public void deveCriarUmNovoUsuario() throws Exception {
 
@@ -132,4 +195,170 @@ public class UsuarioResourceTest {
 
 	}
 
+	@Test
+	public void deveRetornarServiceUnavailableQuandoOHashDaSenhaEstaSobrecarregado() throws Exception {
+
+		// Cenario
+		UsuarioDTO dto = UsuarioDTO.builder().email("usuario@email.com").senha("123").build();
+		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class)))
+				.thenThrow(new RejectedExecutionException("Fila de hash de senhas cheia."));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API).accept(JSON).contentType(JSON)
+				.content(new ObjectMapper().writeValueAsString(dto));
+
+		// Verificação
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+	}
+
+	@Test
+	public void deveRetornarOResumoAnualDoUsuario() throws Exception {
+
+		// Cenario
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		ResumoAnual resumo = new ResumoAnual(2020);
+		resumo.somar(TipoLancamento.RECEITA, BigDecimal.valueOf(100));
+
+		Mockito.when(service.obterPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(lancamentoService.obterResumo(1l, 2020)).thenReturn(resumo);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/resumo"))
+				.param("ano", "2020").accept(JSON);
+
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("ano").value(2020))
+				.andExpect(MockMvcResultMatchers.jsonPath("saldo").value(100));
+	}
+
+	@Test
+	public void deveRetornarNotFoundAoPedirOResumoDeUmUsuarioInexistente() throws Exception {
+
+		// Cenario
+		Mockito.when(service.obterPorId(1l)).thenReturn(Optional.empty());
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/resumo"))
+				.param("ano", "2020").accept(JSON);
+
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+
+	@Test
+	public void deveRetornarForbiddenAoPedirOResumoDeOutroUsuario() throws Exception {
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/2/resumo"))
+				.param("ano", "2020").requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).accept(JSON);
+
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isForbidden());
+		Mockito.verifyZeroInteractions(lancamentoService);
+	}
+
+	@Test
+	public void naoDeveConsultarOUsuarioQuandoAutenticadoPorToken() throws Exception {
+
+		// Cenario
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).accept(JSON);
+
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk());
+		Mockito.verify(service, Mockito.never()).obterPorId(Mockito.anyLong());
+	}
+
+	@Test
+	public void deveRetornarOSaldoComETagDaVersaoDosDados() throws Exception {
+
+		// Cenario
+		Mockito.when(lancamentoService.obterVersaoDados(1l)).thenReturn(Optional.of(7l));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).accept(JSON);
+
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, Matchers.startsWith("\"7-")))
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+	}
+
+	@Test
+	public void naoDeveAceitarOETagDeOutroFormatoDoSaldo() throws Exception {
+
+		// Cenario
+		Mockito.when(lancamentoService.obterVersaoDados(1l)).thenReturn(Optional.of(7l));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+		String etag = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).accept(JSON)).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).header(HttpHeaders.IF_NONE_MATCH, etag)
+				.accept(FormatosBinariosConfig.CBOR);
+
+		// Verificação
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentType(FormatosBinariosConfig.CBOR))
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+	}
+
+	@Test
+	public void deveRetornarNotModifiedSemConsultarOSaldoQuandoOETagConfere() throws Exception {
+
+		// Cenario
+		Mockito.when(lancamentoService.obterVersaoDados(1l)).thenReturn(Optional.of(7l));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+		String etag = mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).accept(JSON)).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		Mockito.clearInvocations(lancamentoService);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).header(HttpHeaders.IF_NONE_MATCH, etag)
+				.accept(JSON);
+
+		// Verificação
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isNotModified());
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+	}
+
+	@Test
+	public void deveRetornarOSaldoAtualQuandoAVersaoMudou() throws Exception {
+
+		// Cenario
+		Mockito.when(lancamentoService.obterVersaoDados(1l)).thenReturn(Optional.of(8l));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/saldo"))
+				.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+				.header(HttpHeaders.IF_NONE_MATCH, "\"7-0\"").accept(JSON);
+
+		// Verificação
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk());
+		Mockito.verify(lancamentoService).obterSaldoPorUsuario(1l);
+	}
+
+	@Test
+	public void deveRetornarAProjecaoDeSaldoDoUsuario() throws Exception {
+
+		// Cenario
+		ProjecaoSaldo projecao = new ProjecaoSaldo();
+		projecao.setSaldoAtual(BigDecimal.TEN);
+		Mockito.when(projecaoSaldoService.projetar(1l, 6)).thenReturn(projecao);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(API.concat("/1/projecao"))
+				.param("meses", "6").requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l).accept(JSON);
+
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("saldoAtual").value(10));
+	}
+
 }
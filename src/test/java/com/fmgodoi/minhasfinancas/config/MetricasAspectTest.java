@@ -0,0 +1,37 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasAspectTest {
+
+	@Test
+	public void deveRegistrarOTempoDeCadaMetodoDoRepositorio() {
+		// Cenario
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		UsuarioRepository repository = Mockito.mock(UsuarioRepository.class);
+		Mockito.when(repository.existsByEmail("usuario@email.com")).thenReturn(true);
+
+		AspectJProxyFactory factory = new AspectJProxyFactory(repository);
+		factory.addAspect(new MetricasAspect(registry));
+		UsuarioRepository proxy = factory.getProxy();
+
+		// Execução
+		proxy.existsByEmail("usuario@email.com");
+		proxy.existsByEmail("usuario@email.com");
+
+		// Verificação
+		Timer timer = registry.find(MetricasAspect.REPOSITORY).tag("repository", "UsuarioRepository")
+				.tag("method", "existsByEmail").tag("exception", "none").timer();
+		Assertions.assertThat(timer).isNotNull();
+		Assertions.assertThat(timer.count()).isEqualTo(2);
+	}
+
+}
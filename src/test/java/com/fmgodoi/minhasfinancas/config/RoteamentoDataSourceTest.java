@@ -0,0 +1,108 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class RoteamentoDataSourceTest {
+
+	DataSource primario = criarBanco("primario");
+	DataSource replica = criarBanco("replica");
+	MonitorReplica monitor = new MonitorReplica(new JdbcTemplate(replica), "select atraso from origem", 1000);
+	JdbcTemplate jdbcTemplate;
+	TransactionTemplate transacao;
+
+	@Before
+	public void setUp() {
+		DataSource roteamento = new LazyConnectionDataSourceProxy(
+				new RoteamentoDataSource(primario, replica, monitor::isDisponivel));
+		jdbcTemplate = new JdbcTemplate(roteamento);
+		transacao = new TransactionTemplate(new DataSourceTransactionManager(roteamento));
+		monitor.verificar();
+	}
+
+	@After
+	public void tearDown() {
+		ConsistenciaLeitura.exigirPrimario(false);
+		new JdbcTemplate(primario).execute("drop all objects");
+		new JdbcTemplate(replica).execute("drop all objects");
+	}
+
+	@Test
+	public void deveLerDaReplicaEmTransacoesSomenteLeitura() {
+		transacao.setReadOnly(true);
+
+		String origem = transacao.execute(status -> origem());
+
+		Assertions.assertThat(origem).isEqualTo("replica");
+	}
+
+	@Test
+	public void deveEscreverNoPrimario() {
+		String origem = transacao.execute(status -> origem());
+
+		Assertions.assertThat(origem).isEqualTo("primario");
+		Assertions.assertThat(origem()).isEqualTo("primario");
+	}
+
+	@Test
+	public void deveLerDoPrimarioLogoAposUmaEscritaDoUsuario() {
+		// Cenario
+		ConsistenciaLeitura consistencia = new ConsistenciaLeitura(60000, 100);
+		consistencia.registrarEscrita(1l);
+		ConsistenciaLeitura.exigirPrimario(consistencia.escreveuRecentemente(1l));
+		transacao.setReadOnly(true);
+
+		// Execução
+		String origem = transacao.execute(status -> origem());
+
+		// Verificação
+		Assertions.assertThat(origem).isEqualTo("primario");
+		Assertions.assertThat(consistencia.escreveuRecentemente(2l)).isFalse();
+	}
+
+	@Test
+	public void deveLerDoPrimarioEnquantoAReplicaEstiverAtrasada() {
+		// Cenario
+		new JdbcTemplate(replica).update("update origem set atraso = 5000");
+		monitor.verificar();
+		transacao.setReadOnly(true);
+
+		// Execução
+		String origem = transacao.execute(status -> origem());
+
+		// Verificação
+		Assertions.assertThat(monitor.isDisponivel()).isFalse();
+		Assertions.assertThat(origem).isEqualTo("primario");
+	}
+
+	@Test
+	public void deveRetirarAReplicaDoRoteamentoQuandoAMedicaoFalhar() {
+		new JdbcTemplate(replica).execute("drop table origem");
+
+		monitor.verificar();
+
+		Assertions.assertThat(monitor.isDisponivel()).isFalse();
+	}
+
+	private String origem() {
+		return jdbcTemplate.queryForObject("select nome from origem", String.class);
+	}
+
+	private static DataSource criarBanco(String nome) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table origem (nome varchar(20), atraso bigint)");
+		jdbcTemplate.update("insert into origem (nome, atraso) values (?, 0)", nome);
+		return dataSource;
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.fmgodoi.minhasfinancas.config;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(RoteamentoDataSourceConfig.class)
+@TestPropertySource(properties = { "minhasfinancas.replica.habilitado=true",
+		"minhasfinancas.replica.datasource.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+		"minhasfinancas.replica.datasource.username=sa", "minhasfinancas.replica.datasource.password=sa",
+		"minhasfinancas.replica.consulta-atraso=select 0",
+		"minhasfinancas.token.obrigatorio=true" })
+public class RoteamentoOpenInViewTest {
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	EntityManager entityManager;
+
+	@Before
+	public void setUp() {
+		// O que o OpenEntityManagerInViewInterceptor faz no início da requisição
+		entityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+	}
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+		entityManager.close();
+	}
+
+	@Test
+	public void deveEscolherOBancoACadaTransacaoDaMesmaRequisicao() {
+		// Cenario
+		TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+		leitura.setReadOnly(true);
+		TransactionTemplate escrita = new TransactionTemplate(transactionManager);
+
+		// Execução
+		String primeiraLeitura = leitura.execute(status -> banco());
+		String gravacao = escrita.execute(status -> banco());
+		String segundaLeitura = leitura.execute(status -> banco());
+
+		// Verificação
+		Assertions.assertThat(primeiraLeitura).isEqualTo("REPLICA");
+		Assertions.assertThat(gravacao).isEqualTo("DB");
+		Assertions.assertThat(segundaLeitura).isEqualTo("REPLICA");
+	}
+
+	private String banco() {
+		return (String) entityManager.createNativeQuery("select database()").getSingleResult();
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public class EsquemaBancoTest {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void deveBuscarLancamentosPeloIndiceDeUsuarioAnoEMes() {
+		String plano = explicar("select l.id from financas.lancamento l"
+				+ " where l.id_usuario = 1 and l.ano = 2020 and l.mes = 1 order by l.ano, l.mes, l.id");
+
+		Assertions.assertThat(plano).contains("IDX_LANCAMENTO_USUARIO_ANO_MES");
+	}
+
+	@Test
+	public void deveTotalizarOSaldoPeloIndiceDeUsuarioETipo() {
+		String plano = explicar(
+				"select sum(l.valor) from financas.lancamento l where l.id_usuario = 1 and l.tipo = 'RECEITA'");
+
+		Assertions.assertThat(plano).contains("IDX_LANCAMENTO_USUARIO_TIPO");
+	}
+
+	@Test
+	public void deveBuscarUsuarioPeloIndiceUnicoDeEmail() {
+		String plano = explicar("select u.id from financas.usuario u where u.email = 'usuario@email.com'");
+
+		Assertions.assertThat(plano).contains("UK_USUARIO_EMAIL");
+	}
+
+	@Test
+	public void deveRejeitarEmailDuplicado() {
+		jdbcTemplate.update("insert into financas.usuario (nome, email, senha) values ('a', 'duplicado@email.com', 's')");
+
+		Assertions.assertThatThrownBy(() -> jdbcTemplate
+				.update("insert into financas.usuario (nome, email, senha) values ('b', 'duplicado@email.com', 's')"))
+				.isInstanceOf(DuplicateKeyException.class);
+	}
+
+	private String explicar(String sql) {
+		return jdbcTemplate.queryForObject("explain " + sql, String.class).toUpperCase();
+	}
+
+}
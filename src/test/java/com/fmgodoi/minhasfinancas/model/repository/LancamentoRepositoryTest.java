@@ -2,9 +2,14 @@ package com.fmgodoi.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +21,10 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalCompetencia;
 
 import model.enums.StatusLancamento;
 import model.enums.TipoLancamento;
@@ -83,6 +92,104 @@ public class LancamentoRepositoryTest {
 		assertThat(lancamentoEncontrado.isPresent()).isTrue();
 	}
 
+	@Test
+	public void deveBuscarPaginasOrdenadasPorAnoMesEId() {
+		Lancamento dezembro = criarEPersistirUmLancamento(2019, 12);
+		Lancamento janeiro = criarEPersistirUmLancamento(2020, 1);
+		Lancamento marco = criarEPersistirUmLancamento(2019, 3);
+
+		List<LancamentoView> primeiraPagina = repository.buscarViews(new Lancamento(), null, null, 2);
+		List<LancamentoView> segundaPagina = repository.buscarViews(new Lancamento(), null,
+				CursorLancamento.apos(primeiraPagina.get(1)), 2);
+
+		assertThat(primeiraPagina).extracting(LancamentoView::getId).containsExactly(marco.getId(),
+				dezembro.getId());
+		assertThat(segundaPagina).extracting(LancamentoView::getId).containsExactly(janeiro.getId());
+	}
+
+	@Test
+	public void deveBuscarLancamentosComUmaUnicaInstrucaoSqlSemCarregarOUsuario() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		for (int i = 0; i < 3; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics estatisticas = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		estatisticas.setStatisticsEnabled(true);
+		estatisticas.clear();
+
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(usuario.getId()).build());
+		filtro.setDescricao("QUALQUER");
+		List<LancamentoView> lancamentos = repository.buscarViews(filtro, null, null, null);
+
+		assertThat(lancamentos).hasSize(3).allMatch(l -> usuario.getId().equals(l.getUsuarioId()));
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(estatisticas.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	public void deveAtualizarOStatusDosLancamentosDoFiltroComUmUnicoUpdate() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento janeiro = criarEPersistirUmLancamento(2020, 1);
+		janeiro.setUsuario(usuario);
+		Lancamento fevereiro = criarEPersistirUmLancamento(2020, 2);
+		fevereiro.setUsuario(usuario);
+		Lancamento outroUsuario = criarEPersistirUmLancamento(2020, 1);
+
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setAno(2020);
+		filtro.setMes(1);
+		filtro.setStatus(StatusLancamento.PENDENTE);
+		int atualizados = repository.atualizarStatus(filtro, null, StatusLancamento.EFETIVADO);
+
+		assertThat(atualizados).isEqualTo(1);
+		assertThat(entityManager.find(Lancamento.class, janeiro.getId()).getStatus())
+				.isEqualTo(StatusLancamento.EFETIVADO);
+		assertThat(entityManager.find(Lancamento.class, fevereiro.getId()).getStatus())
+				.isEqualTo(StatusLancamento.PENDENTE);
+		assertThat(entityManager.find(Lancamento.class, outroUsuario.getId()).getStatus())
+				.isEqualTo(StatusLancamento.PENDENTE);
+	}
+
+	@Test
+	public void devePercorrerOsTotaisPosterioresDoMaisDistanteParaOMaisProximo() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		for (int[] competencia : new int[][] { { 2019, 12 }, { 2020, 1 }, { 2020, 3 }, { 2020, 3 }, { 2021, 2 } }) {
+			Lancamento lancamento = criarEPersistirUmLancamento(competencia[0], competencia[1]);
+			lancamento.setUsuario(usuario);
+		}
+		Lancamento efetivado = criarEPersistirUmLancamento(2020, 2);
+		efetivado.setUsuario(usuario);
+		efetivado.setStatus(StatusLancamento.EFETIVADO);
+		entityManager.flush();
+
+		List<TotalCompetencia> totais;
+		try (Stream<TotalCompetencia> stream = repository.percorrerTotaisPosteriores(usuario.getId(), 2020,
+				1)) {
+			totais = stream.collect(Collectors.toList());
+		}
+
+		assertThat(totais).extracting(TotalCompetencia::getAno, TotalCompetencia::getMes).containsExactly(
+				tuple(2021, 2), tuple(2020, 3), tuple(2020, 2));
+		assertThat(totais.get(1).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(20));
+	}
+
+	private Lancamento criarEPersistirUmLancamento(Integer ano, Integer mes) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setAno(ano);
+		lancamento.setMes(mes);
+
+		entityManager.persist(lancamento);
+		return lancamento;
+	}
+
 	private Lancamento criarEPersistirUmLancamento() {
 		Lancamento lancamento = criarLancamento();
 
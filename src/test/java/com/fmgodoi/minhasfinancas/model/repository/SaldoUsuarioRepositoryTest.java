@@ -0,0 +1,69 @@
+package com.fmgodoi.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fmgodoi.minhasfinancas.model.entity.SaldoUsuario;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public class SaldoUsuarioRepositoryTest {
+
+	@Autowired
+	SaldoUsuarioRepository repository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveCriarORegistroComOSaldoInicial() {
+		// Cenario
+		Long idUsuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario()).getId();
+
+		// Ação
+		repository.criarOuAcumular(saldo(idUsuario, 100, 40, 3), BigDecimal.TEN, BigDecimal.ZERO, 1l);
+
+		// Verificação
+		SaldoUsuario saldo = entityManager.find(SaldoUsuario.class, idUsuario);
+		Assertions.assertThat(saldo.getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(60));
+		Assertions.assertThat(saldo.getQuantidade()).isEqualTo(3l);
+		Assertions.assertThat(saldo.getVersao()).isZero();
+	}
+
+	@Test
+	public void deveSomarApenasADiferencaQuandoORegistroJaFoiCriado() {
+		// Cenario: outra transação criou o registro depois do update sem linhas
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		entityManager.persist(saldo(usuario.getId(), 100, 40, 3));
+		entityManager.flush();
+		entityManager.clear();
+
+		// Ação
+		repository.criarOuAcumular(saldo(usuario.getId(), 999, 999, 99), BigDecimal.TEN, BigDecimal.ZERO, 1l);
+
+		// Verificação
+		SaldoUsuario saldo = entityManager.find(SaldoUsuario.class, usuario.getId());
+		Assertions.assertThat(saldo.getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(70));
+		Assertions.assertThat(saldo.getQuantidade()).isEqualTo(4l);
+		Assertions.assertThat(saldo.getVersao()).isEqualTo(1l);
+	}
+
+	private static SaldoUsuario saldo(Long idUsuario, long receitas, long despesas, long quantidade) {
+		return SaldoUsuario.builder().idUsuario(idUsuario).receitas(BigDecimal.valueOf(receitas))
+				.despesas(BigDecimal.valueOf(despesas)).quantidade(quantidade).build();
+	}
+
+}
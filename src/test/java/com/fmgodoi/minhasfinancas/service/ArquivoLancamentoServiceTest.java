@@ -0,0 +1,169 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.projection.AnoUsuario;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalMensal;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.service.impl.ArquivoLancamentoServiceImpl;
+
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+public class ArquivoLancamentoServiceTest {
+
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+
+	LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+	IndiceDescricaoService indiceDescricao = Mockito.mock(IndiceDescricaoService.class);
+	PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+	ArquivoLancamentoServiceImpl arquivo;
+
+	@Before
+	public void setUp() {
+		Mockito.when(transactionManager.getTransaction(Mockito.any()))
+				.thenReturn(Mockito.mock(TransactionStatus.class));
+		arquivo = new ArquivoLancamentoServiceImpl(repository, indiceDescricao, transactionManager,
+				pasta.getRoot().getPath(), 16);
+	}
+
+	@Test
+	public void deveArquivarOsLancamentosEncerradosERemoveLosDaTabela() {
+		// Cenario
+		Lancamento aluguel = criarLancamento(7l, "Aluguel", 3, TipoLancamento.DESPESA, "1200.00");
+		Lancamento salario = criarLancamento(3l, "Salário", 3, TipoLancamento.RECEITA, "5000.50");
+		Lancamento mercado = criarLancamento(9l, "Mercado", 1, TipoLancamento.DESPESA, "350.25");
+		arquivarDoUsuario1(aluguel, salario, mercado);
+
+		// Execução
+		int arquivados = arquivo.arquivar(2020);
+
+		// Verificação
+		Assertions.assertThat(arquivados).isEqualTo(3);
+		Mockito.verify(repository).removerPorIds(Arrays.asList(7l, 3l, 9l));
+		Mockito.verify(transactionManager).commit(Mockito.any());
+		Mockito.verify(indiceDescricao).remover(1l, 7l);
+
+		List<LancamentoView> lancamentos = arquivo.buscar(filtroDoUsuario1(), null, null);
+		Assertions.assertThat(lancamentos).extracting(LancamentoView::getId).containsExactly(9l, 3l, 7l);
+		Assertions.assertThat(lancamentos.get(1)).isEqualTo(new LancamentoView(3l, "Salário", 3, 2019,
+				new BigDecimal("5000.50"), 1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO,
+				LocalDate.of(2019, 3, 1)));
+	}
+
+	@Test
+	public void deveFiltrarOsArquivadosPelaDescricaoEContinuarAPartirDoCursor() {
+		// Cenario
+		arquivarDoUsuario1(criarLancamento(1l, "Mercado Central", 1, TipoLancamento.DESPESA, "10"),
+				criarLancamento(2l, "Farmácia", 1, TipoLancamento.DESPESA, "20"),
+				criarLancamento(3l, "mercado do bairro", 2, TipoLancamento.DESPESA, "30"),
+				criarLancamento(4l, "Mercado Central", 5, TipoLancamento.DESPESA, "40"));
+		arquivo.arquivar(2020);
+		Lancamento filtro = filtroDoUsuario1();
+		filtro.setDescricao("MERCADO");
+
+		// Execução
+		List<LancamentoView> primeiraPagina = arquivo.buscar(filtro, null, 2);
+		List<LancamentoView> segundaPagina = arquivo.buscar(filtro, CursorLancamento.apos(primeiraPagina.get(1)), 2);
+
+		// Verificação
+		Assertions.assertThat(primeiraPagina).extracting(LancamentoView::getId).containsExactly(1l, 3l);
+		Assertions.assertThat(segundaPagina).extracting(LancamentoView::getId).containsExactly(4l);
+	}
+
+	@Test
+	public void deveFiltrarOsArquivadosIgnorandoMaiusculasIndependenteDoLocalePadrao() {
+		Locale padrao = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			arquivarDoUsuario1(criarLancamento(1l, "INTERNET", 1, TipoLancamento.DESPESA, "100"));
+			arquivo.arquivar(2020);
+			Lancamento filtro = filtroDoUsuario1();
+			filtro.setDescricao("internet");
+
+			Assertions.assertThat(arquivo.buscar(filtro, null, null)).extracting(LancamentoView::getId)
+					.containsExactly(1l);
+		} finally {
+			Locale.setDefault(padrao);
+		}
+	}
+
+	@Test
+	public void deveTotalizarOsArquivadosPorTipoEPorMes() {
+		// Cenario
+		arquivarDoUsuario1(criarLancamento(1l, "Salário", 1, TipoLancamento.RECEITA, "100.10"),
+				criarLancamento(2l, "Aluguel", 1, TipoLancamento.DESPESA, "40"),
+				criarLancamento(3l, "Luz", 1, TipoLancamento.DESPESA, "0.05"));
+		arquivo.arquivar(2020);
+
+		// Execução
+		List<TotalPorTipo> porTipo = arquivo.totalizarPorUsuario(1l);
+		List<TotalMensal> porMes = arquivo.totalizarPorMes(1l, 2019);
+
+		// Verificação
+		Assertions.assertThat(porTipo).containsExactly(
+				new TotalPorTipo(1l, TipoLancamento.RECEITA, new BigDecimal("100.10"), 1l),
+				new TotalPorTipo(1l, TipoLancamento.DESPESA, new BigDecimal("40.05"), 2l));
+		Assertions.assertThat(porMes).contains(new TotalMensal(1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO,
+				new BigDecimal("40.05"), 2l));
+		Assertions.assertThat(arquivo.totalizarTodos()).isEqualTo(porTipo);
+	}
+
+	@Test
+	public void deveManterOSegmentoAnteriorQuandoARemocaoFalhar() {
+		// Cenario
+		arquivarDoUsuario1(criarLancamento(1l, "Aluguel", 1, TipoLancamento.DESPESA, "10"));
+		arquivo.arquivar(2020);
+		arquivarDoUsuario1(criarLancamento(2l, "Mercado", 2, TipoLancamento.DESPESA, "20"));
+		Mockito.when(repository.removerPorIds(Collections.singletonList(2l)))
+				.thenThrow(new IllegalStateException("falha"));
+
+		// Execução
+		Assertions.assertThatThrownBy(() -> arquivo.arquivar(2020)).isInstanceOf(IllegalStateException.class);
+
+		// Verificação
+		Mockito.verify(transactionManager).rollback(Mockito.any());
+		Assertions.assertThat(arquivo.percorrerPorUsuario(1l).map(LancamentoView::getId).collect(Collectors.toList()))
+				.containsExactly(1l);
+	}
+
+	private void arquivarDoUsuario1(Lancamento... lancamentos) {
+		Mockito.when(repository.buscarAnosArquivaveis(Mockito.eq(2020), Mockito.any()))
+				.thenReturn(Collections.singletonList(new AnoUsuario(1l, 2019)));
+		Mockito.when(repository.travarArquivaveis(Mockito.eq(1l), Mockito.eq(2019), Mockito.any()))
+				.thenReturn(Arrays.asList(lancamentos));
+	}
+
+	private static Lancamento filtroDoUsuario1() {
+		return Lancamento.builder().usuario(Usuario.builder().id(1l).build()).build();
+	}
+
+	private static Lancamento criarLancamento(Long id, String descricao, int mes, TipoLancamento tipo,
+			String valor) {
+		return Lancamento.builder().id(id).descricao(descricao).mes(mes).ano(2019).valor(new BigDecimal(valor))
+				.usuario(Usuario.builder().id(1l).build()).tipo(tipo).status(StatusLancamento.EFETIVADO)
+				.dataCadastro(LocalDate.of(2019, mes, 1)).build();
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.fmgodoi.minhasfinancas.service.impl.GravacaoAgrupadaServiceImpl;
+
+public class GravacaoAgrupadaServiceTest {
+
+	LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+	ResolvedorShard resolvedorShard = Mockito.mock(ResolvedorShard.class);
+	GravacaoAgrupadaServiceImpl gravacao = new GravacaoAgrupadaServiceImpl(lancamentoService, resolvedorShard, true,
+			10, 50, 100, 200);
+	ExecutorService clientes = Executors.newFixedThreadPool(10);
+
+	@After
+	public void tearDown() throws Exception {
+		clientes.shutdownNow();
+		gravacao.encerrar();
+	}
+
+	@Test
+	public void deveGravarRequisicoesConcorrentesEmUmUnicoLote() throws Exception {
+		// Cenario
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer(invocacao -> {
+			List<Lancamento> lancamentos = invocacao.getArgument(0);
+			for (int i = 0; i < lancamentos.size(); i++) {
+				lancamentos.get(i).setId((long) i + 1);
+			}
+			return new ResultadoLote(lancamentos.size(), Collections.emptyList());
+		});
+		gravacao.iniciar();
+
+		// Execução
+		List<Future<Lancamento>> resultados = enviar(10);
+
+		// Verificação
+		List<Long> ids = new ArrayList<>();
+		for (Future<Lancamento> resultado : resultados) {
+			ids.add(resultado.get().getId());
+		}
+		Assertions.assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+		Mockito.verify(lancamentoService, Mockito.atMost(2)).salvarLote(Mockito.anyList());
+		Mockito.verify(lancamentoService, Mockito.never()).salvar(Mockito.any());
+	}
+
+	@Test
+	public void deveDevolverOErroApenasAoLancamentoRecusadoNoLote() throws Exception {
+		// Cenario
+		Lancamento valido = LancamentoRepositoryTest.criarLancamento();
+		Lancamento recusado = LancamentoRepositoryTest.criarLancamento();
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer(invocacao -> {
+			List<Lancamento> lancamentos = invocacao.getArgument(0);
+			List<ErroLote> erros = new ArrayList<>();
+			for (int i = 0; i < lancamentos.size(); i++) {
+				if (lancamentos.get(i) == recusado) {
+					erros.add(new ErroLote(i, "Informe um Valor válido."));
+				}
+			}
+			return new ResultadoLote(lancamentos.size() - erros.size(), erros);
+		});
+		gravacao.iniciar();
+
+		// Execução
+		Future<Lancamento> primeiro = clientes.submit(() -> gravacao.salvar(valido));
+		Future<Lancamento> segundo = clientes.submit(() -> gravacao.salvar(recusado));
+
+		// Verificação
+		Assertions.assertThat(primeiro.get()).isSameAs(valido);
+		Assertions.assertThatThrownBy(segundo::get).hasCauseInstanceOf(RegraNegocioException.class)
+				.hasMessageContaining("Informe um Valor válido.");
+	}
+
+	@Test
+	public void deveGravarUmAUmQuandoOLoteFalhaNoBanco() throws Exception {
+		// Cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenThrow(new IllegalStateException("falha"));
+		Mockito.when(lancamentoService.salvar(lancamento)).thenReturn(lancamento);
+		gravacao.iniciar();
+
+		// Execução
+		Lancamento salvo = gravacao.salvar(lancamento);
+
+		// Verificação
+		Assertions.assertThat(salvo).isSameAs(lancamento);
+		Mockito.verify(lancamentoService).salvar(lancamento);
+	}
+
+	@Test
+	public void deveRecusarOPedidoQueNaoSaiuDaFilaATempo() throws Exception {
+		// Cenario: o primeiro lote prende a thread de gravação
+		Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+		Lancamento recusado = LancamentoRepositoryTest.criarLancamento();
+		CountDownLatch gravando = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		List<Lancamento> gravados = new CopyOnWriteArrayList<>();
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer(invocacao -> {
+			List<Lancamento> lancamentos = invocacao.getArgument(0);
+			gravados.addAll(lancamentos);
+			gravando.countDown();
+			liberar.await();
+			return new ResultadoLote(lancamentos.size(), Collections.emptyList());
+		});
+		gravacao.iniciar();
+		Future<Lancamento> emGravacao = clientes.submit(() -> gravacao.salvar(primeiro));
+		gravando.await();
+
+		// Execução
+		try {
+			Assertions.assertThatThrownBy(() -> gravacao.salvar(recusado))
+					.isInstanceOf(RejectedExecutionException.class);
+		} finally {
+			liberar.countDown();
+		}
+
+		// Verificação
+		Assertions.assertThat(emGravacao.get()).isSameAs(primeiro);
+		gravacao.encerrar();
+		Assertions.assertThat(gravados).containsExactly(primeiro);
+	}
+
+	@Test
+	public void deveAguardarOResultadoDoPedidoQueJaEstaEmGravacao() throws Exception {
+		// Cenario: a transação termina depois do tempo de espera
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		CountDownLatch gravando = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer(invocacao -> {
+			gravando.countDown();
+			liberar.await();
+			return new ResultadoLote(1, Collections.emptyList());
+		});
+		gravacao.iniciar();
+
+		// Execução
+		Future<Lancamento> resultado = clientes.submit(() -> gravacao.salvar(lancamento));
+		gravando.await();
+		Thread.sleep(400);
+		liberar.countDown();
+
+		// Verificação
+		Assertions.assertThat(resultado.get()).isSameAs(lancamento);
+	}
+
+	@Test
+	public void deveRecusarOPedidoDeUsuarioEmMigracao() throws Exception {
+		// Cenario: a migração começou depois de a requisição passar pelo filtro
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(7l).build());
+		Mockito.when(resolvedorShard.isMigrando(7l)).thenReturn(true);
+		gravacao.iniciar();
+
+		// Execução e Verificação
+		Assertions.assertThatThrownBy(() -> gravacao.salvar(lancamento))
+				.isInstanceOf(RejectedExecutionException.class);
+		Mockito.verify(lancamentoService, Mockito.never()).salvarLote(Mockito.anyList());
+	}
+
+	@Test
+	public void deveGravarDiretamenteQuandoAThreadDeGravacaoMorre() throws Exception {
+		// Cenario
+		Lancamento perdido = LancamentoRepositoryTest.criarLancamento();
+		Lancamento seguinte = LancamentoRepositoryTest.criarLancamento();
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenThrow(new OutOfMemoryError("teste"));
+		Mockito.when(lancamentoService.salvar(seguinte)).thenReturn(seguinte);
+		gravacao.iniciar();
+
+		// Execução
+		Assertions.assertThatThrownBy(() -> gravacao.salvar(perdido)).hasCauseInstanceOf(OutOfMemoryError.class);
+		Lancamento salvo = gravacao.salvar(seguinte);
+
+		// Verificação
+		Assertions.assertThat(salvo).isSameAs(seguinte);
+		Mockito.verify(lancamentoService).salvar(seguinte);
+	}
+
+	@Test
+	public void deveGravarDiretamenteQuandoDesabilitada() {
+		GravacaoAgrupadaServiceImpl desabilitada = new GravacaoAgrupadaServiceImpl(lancamentoService,
+				resolvedorShard, false, 10, 50, 100, 200);
+		desabilitada.iniciar();
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+
+		desabilitada.salvar(lancamento);
+
+		Mockito.verify(lancamentoService).salvar(lancamento);
+		Mockito.verify(lancamentoService, Mockito.never()).salvarLote(Mockito.anyList());
+	}
+
+	private List<Future<Lancamento>> enviar(int quantidade) {
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Lancamento>> resultados = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			resultados.add(clientes.submit(() -> {
+				largada.await();
+				return gravacao.salvar(LancamentoRepositoryTest.criarLancamento());
+			}));
+		}
+		largada.countDown();
+		return resultados;
+	}
+
+}
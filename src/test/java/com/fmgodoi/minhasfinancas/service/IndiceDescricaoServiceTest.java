@@ -0,0 +1,98 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent.Alteracao;
+import com.fmgodoi.minhasfinancas.service.impl.IndiceDescricaoServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.ResolvedorShardUnico;
+
+public class IndiceDescricaoServiceTest {
+
+	LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+	PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+	IndiceDescricaoServiceImpl indice = new IndiceDescricaoServiceImpl(repository, new ResolvedorShardUnico(),
+			transactionManager, true, true);
+
+	@Before
+	public void setUp() {
+		LancamentoView aluguel = new LancamentoView(1l, "Aluguel Janeiro", 1, 2020, null, 1l, null, null, null);
+		LancamentoView mercado = new LancamentoView(2l, "Mercado", 1, 2020, null, 1l, null, null, null);
+		LancamentoView outroUsuario = new LancamentoView(3l, "Aluguel", 1, 2020, null, 2l, null, null, null);
+		Mockito.when(repository.percorrerViews()).thenReturn(Stream.of(aluguel, mercado, outroUsuario));
+		indice.reconstruir();
+	}
+
+	@Test
+	public void deveRetornarOsCandidatosDoUsuarioIgnorandoMaiusculas() {
+		Assertions.assertThat(indice.buscarCandidatos(1l, "ALUG")).hasValue(Collections.singleton(1l));
+		Assertions.assertThat(indice.buscarCandidatos(2l, "alug")).hasValue(Collections.singleton(3l));
+		Assertions.assertThat(indice.buscarCandidatos(1l, "luz")).hasValue(Collections.emptySet());
+	}
+
+	@Test
+	public void naoDeveResponderTermosMenoresQueUmTrigrama() {
+		Assertions.assertThat(indice.buscarCandidatos(1l, "al")).isEmpty();
+	}
+
+	@Test
+	public void deveManterOIndiceAtualizadoComAsAlteracoes() {
+		// Cenario
+		Lancamento mercado = Lancamento.builder().id(2l).descricao("Farmácia").build();
+		Lancamento novo = Lancamento.builder().id(4l).descricao("Mercado").build();
+
+		// Execução
+		indice.aoAlterarLancamento(new LancamentoAlteradoEvent(Alteracao.ALTERACAO, 1l, Arrays.asList(mercado)));
+		indice.aoAlterarLancamento(new LancamentoAlteradoEvent(Alteracao.INCLUSAO, 1l, Arrays.asList(novo)));
+		indice.aoAlterarLancamento(new LancamentoAlteradoEvent(Alteracao.EXCLUSAO, 1l,
+				Arrays.asList(Lancamento.builder().id(1l).build())));
+
+		// Verificação
+		Assertions.assertThat(indice.buscarCandidatos(1l, "mercado")).hasValue(Collections.singleton(4l));
+		Assertions.assertThat(indice.buscarCandidatos(1l, "farm")).hasValue(Collections.singleton(2l));
+		Assertions.assertThat(indice.buscarCandidatos(1l, "aluguel")).hasValue(Collections.emptySet());
+		Assertions.assertThat(indice.obterEstatisticas().getLancamentos()).isEqualTo(3);
+	}
+
+	@Test
+	public void naoDeveResponderQuandoDesabilitado() {
+		IndiceDescricaoServiceImpl desabilitado = new IndiceDescricaoServiceImpl(repository,
+				new ResolvedorShardUnico(), transactionManager, false, false);
+		desabilitado.reconstruir();
+
+		Assertions.assertThat(desabilitado.buscarCandidatos(1l, "aluguel")).isEmpty();
+		Mockito.verify(repository, Mockito.times(1)).percorrerViews();
+	}
+
+	@Test
+	public void deveIgnorarMaiusculasIndependenteDoLocalePadrao() {
+		Locale padrao = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			indice.indexar(1l, 5l, "INTERNET");
+
+			Assertions.assertThat(indice.buscarCandidatos(1l, "internet")).hasValue(Collections.singleton(5l));
+		} finally {
+			Locale.setDefault(padrao);
+		}
+	}
+
+	@Test
+	public void naoDeveHabilitarOIndiceSemInstanciaUnica() {
+		Assertions.assertThatThrownBy(() -> new IndiceDescricaoServiceImpl(repository, new ResolvedorShardUnico(),
+				transactionManager, true, false)).isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("minhasfinancas.instancia-unica=true");
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.fmgodoi.minhasfinancas.service.impl.ArquivoLancamentoServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.IndiceDescricaoServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.ResolvedorShardUnico;
+import com.fmgodoi.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({ LancamentoServiceImpl.class, SaldoUsuarioServiceImpl.class, IndiceDescricaoServiceImpl.class,
+		ArquivoLancamentoServiceImpl.class, ResolvedorShardUnico.class })
+public class LancamentoExportacaoTest {
+
+	static final int QUANTIDADE = 20000;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveExportarTodosOsLancamentosSemAcumularEntidadesNaMemoria() {
+		// Cenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		for (int i = 0; i < QUANTIDADE; i++) {
+			Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+			if (i % 500 == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		Session session = entityManager.getEntityManager().unwrap(Session.class);
+		MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		long heapInicial = memoria.getHeapMemoryUsage().getUsed();
+		AtomicLong exportados = new AtomicLong();
+		AtomicLong picoHeap = new AtomicLong();
+		AtomicLong picoEntidades = new AtomicLong();
+
+		// Execução
+		service.exportar(usuario.getId(), lancamento -> {
+			exportados.incrementAndGet();
+			picoHeap.accumulateAndGet(memoria.getHeapMemoryUsage().getUsed() - heapInicial, Math::max);
+			picoEntidades.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+		});
+
+		// Verificação
+		log.info("Exportação de {} lançamentos: pico de heap {} KB acima do inicial, pico de {} entidades gerenciadas",
+				exportados.get(), picoHeap.get() / 1024, picoEntidades.get());
+		Assertions.assertThat(exportados.get()).isEqualTo(QUANTIDADE);
+		Assertions.assertThat(picoEntidades.get()).isLessThanOrEqualTo(2);
+	}
+
+}
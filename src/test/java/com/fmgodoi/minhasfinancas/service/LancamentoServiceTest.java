@@ -1,16 +1,25 @@
 package com.fmgodoi.minhasfinancas.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.assertj.core.api.Assertions;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Example;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -18,11 +27,17 @@ import org.springframework.test.context.junit4.SpringRunner;
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.paginacao.CursorLancamento;
+import com.fmgodoi.minhasfinancas.model.paginacao.Pagina;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalMensal;
 import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
 import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.fmgodoi.minhasfinancas.service.LancamentoAlteradoEvent.Alteracao;
 import com.fmgodoi.minhasfinancas.service.impl.LancamentoServiceImpl;
 
 import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
 
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
@@ -34,6 +49,23 @@ public class LancamentoServiceTest {
 	@MockBean
 	LancamentoRepository repository;
 
+	@MockBean
+	SaldoUsuarioService saldoService;
+
+	@MockBean
+	IndiceDescricaoService indiceDescricao;
+
+	@MockBean
+	ArquivoLancamentoService arquivo;
+
+	@Autowired
+	EventosPublicados eventos;
+
+	@Before
+	public void setUp() {
+		eventos.publicados.clear();
+	}
+
 	@Test
 	public void deveSalvarUmLancamento() {
 
@@ -55,6 +87,22 @@ public class LancamentoServiceTest {
 
 	}
 
+	@Test
+	public void deveIncluirUmNovoLancamentoMesmoQuandoOClienteInformaUmId() {
+
+		// Cenario: o id 5 pertence a um lançamento existente, possivelmente de outro usuário
+		Lancamento lancamentoASalvar = LancamentoRepositoryTest.criarLancamento();
+		lancamentoASalvar.setId(5l);
+		Mockito.doNothing().when(service).validar(lancamentoASalvar);
+		Mockito.when(repository.save(Mockito.any(Lancamento.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+		// Execução
+		service.salvar(lancamentoASalvar);
+
+		// Verificação
+		Mockito.verify(repository).save(Mockito.<Lancamento>argThat(lancamento -> lancamento.getId() == null));
+	}
+
 	@Test
 	public void naodeveSalvarUmLancamentoQuandoHouverErroDeValidacao() {
 		// Cenario
@@ -68,6 +116,44 @@ public class LancamentoServiceTest {
 
 	}
 
+	@Test
+	public void deveSalvarOsLancamentosValidosDeUmLoteERelatarOsInvalidos() {
+		// Cenario
+		Lancamento valido = LancamentoRepositoryTest.criarLancamento();
+		valido.setUsuario(Usuario.builder().id(1l).build());
+		Lancamento semDescricao = LancamentoRepositoryTest.criarLancamento();
+		semDescricao.setUsuario(Usuario.builder().id(1l).build());
+		semDescricao.setDescricao(null);
+
+		// Execução
+		ResultadoLote resultado = service.salvarLote(Arrays.asList(semDescricao, valido));
+
+		// Verificação
+		Assertions.assertThat(resultado.getInseridos()).isEqualTo(1);
+		Assertions.assertThat(resultado.getErros()).containsExactly(new ErroLote(0, "Informe uma Descrição válida."));
+		Mockito.verify(repository).save(valido);
+		Mockito.verify(repository, Mockito.never()).save(semDescricao);
+		Mockito.verify(saldoService).registrarInclusoes(Arrays.asList(valido));
+
+	}
+
+	@Test
+	public void deveIncluirNovosLancamentosNoLoteMesmoComIdsInformados() {
+		// Cenario
+		Lancamento comId = LancamentoRepositoryTest.criarLancamento();
+		comId.setUsuario(Usuario.builder().id(1l).build());
+		comId.setId(9l);
+
+		// Execução
+		ResultadoLote resultado = service.salvarLote(Arrays.asList(comId));
+
+		// Verificação
+		Assertions.assertThat(resultado.getInseridos()).isEqualTo(1);
+		Assertions.assertThat(comId.getId()).isNull();
+		Mockito.verify(repository).save(comId);
+
+	}
+
 	@Test
 	public void deveAtualizarUmLancamento() {
 
@@ -146,6 +232,133 @@ public class LancamentoServiceTest {
 
 	}
 
+	@Test
+	public void deveIntercalarOsArquivadosNaBuscaSemRepetirOsQueAindaEstaoNaTabela() {
+
+		// Cenario
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1l).build()).build();
+		Lancamento posterior = LancamentoRepositoryTest.criarLancamento();
+		posterior.setId(3l);
+		posterior.setAno(2020);
+		Lancamento emArquivamento = LancamentoRepositoryTest.criarLancamento();
+		emArquivamento.setId(2l);
+		emArquivamento.setAno(2019);
+		emArquivamento.setMes(1);
+		LancamentoView copiaArquivada = criarView(2l);
+		LancamentoView arquivado = criarView(5l);
+		arquivado.setAno(2018);
+
+		Mockito.when(repository.findAll(Mockito.any(Example.class)))
+				.thenReturn(Arrays.asList(posterior, emArquivamento));
+		Mockito.when(arquivo.buscar(filtro, null, null)).thenReturn(Arrays.asList(arquivado, copiaArquivada));
+
+		// Execução
+		List<Lancamento> resultado = service.buscar(filtro);
+
+		// Verificacao
+		Assertions.assertThat(resultado).extracting(Lancamento::getId).containsExactly(5l, 2l, 3l);
+		Assertions.assertThat(resultado.get(1)).isSameAs(emArquivamento);
+
+	}
+
+	@Test
+	public void deveRetornarCursorQuandoHouverMaisLancamentosQueOLimite() {
+
+		// Cenario
+		Lancamento filtro = new Lancamento();
+		LancamentoView primeiro = criarView(1l);
+		LancamentoView segundo = criarView(2l);
+
+		Mockito.when(repository.buscarViews(filtro, null, null, 2)).thenReturn(Arrays.asList(primeiro, segundo));
+
+		// Execução
+		Pagina<LancamentoView> pagina = service.buscar(filtro, null, 1);
+
+		// Verificacao
+		Assertions.assertThat(pagina.getItens()).containsExactly(primeiro);
+		Assertions.assertThat(CursorLancamento.decodificar(pagina.getNext()))
+				.isEqualTo(CursorLancamento.apos(primeiro));
+
+	}
+
+	@Test
+	public void deveRestringirABuscaAosCandidatosDoIndiceDeDescricao() {
+
+		// Cenario
+		Lancamento filtro = Lancamento.builder().descricao("mercado").usuario(Usuario.builder().id(1l).build()).build();
+		Set<Long> candidatos = new HashSet<>(Arrays.asList(3l, 7l));
+		LancamentoView lancamento = criarView(3l);
+
+		Mockito.when(indiceDescricao.buscarCandidatos(1l, "mercado")).thenReturn(Optional.of(candidatos));
+		Mockito.when(repository.buscarViews(filtro, candidatos, null, 11)).thenReturn(Arrays.asList(lancamento));
+
+		// Execução
+		Pagina<LancamentoView> pagina = service.buscar(filtro, null, 10);
+
+		// Verificacao
+		Assertions.assertThat(pagina.getItens()).containsExactly(lancamento);
+
+	}
+
+	@Test
+	public void naoDeveConsultarOBancoQuandoOIndiceNaoEncontrarCandidatos() {
+
+		// Cenario
+		Lancamento filtro = Lancamento.builder().descricao("inexistente").usuario(Usuario.builder().id(1l).build())
+				.build();
+		Mockito.when(indiceDescricao.buscarCandidatos(1l, "inexistente"))
+				.thenReturn(Optional.of(Collections.emptySet()));
+
+		// Execução
+		List<LancamentoView> resultado = service.buscarView(filtro);
+
+		// Verificacao
+		Assertions.assertThat(resultado).isEmpty();
+		Mockito.verify(repository, Mockito.never()).buscarViews(Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any());
+
+	}
+
+	@Test
+	public void naoDeveRetornarCursorNaUltimaPagina() {
+
+		// Cenario
+		Lancamento filtro = new Lancamento();
+		LancamentoView lancamento = criarView(1l);
+
+		Mockito.when(repository.buscarViews(filtro, null, null, 3)).thenReturn(Arrays.asList(lancamento));
+
+		// Execução
+		Pagina<LancamentoView> pagina = service.buscar(filtro, null, 2);
+
+		// Verificacao
+		Assertions.assertThat(pagina.getItens()).containsExactly(lancamento);
+		Assertions.assertThat(pagina.getNext()).isNull();
+
+	}
+
+	@Test
+	public void deveIntercalarOsLancamentosArquivadosNaOrdemDaPaginacao() {
+
+		// Cenario
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1l).build()).build();
+		LancamentoView arquivado = criarView(5l);
+		arquivado.setAno(2018);
+		LancamentoView vivo = criarView(2l);
+		LancamentoView posterior = criarView(3l);
+
+		Mockito.when(repository.buscarViews(filtro, null, null, 3)).thenReturn(Arrays.asList(vivo, posterior));
+		Mockito.when(arquivo.buscar(filtro, null, 3)).thenReturn(Arrays.asList(arquivado));
+
+		// Execução
+		Pagina<LancamentoView> pagina = service.buscar(filtro, null, 2);
+
+		// Verificacao
+		Assertions.assertThat(pagina.getItens()).containsExactly(arquivado, vivo);
+		Assertions.assertThat(CursorLancamento.decodificar(pagina.getNext())).isEqualTo(CursorLancamento.apos(vivo));
+
+	}
+
 	@Test
 	public void deveAtualizarOStatusDeUmLancamento() {
 
@@ -166,6 +379,66 @@ public class LancamentoServiceTest {
 
 	}
 
+	@Test
+	public void deveAtualizarOStatusDeVariosLancamentosDoUsuario() {
+
+		// Cenario
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(1l).build());
+		List<Long> ids = Arrays.asList(1l, 2l, 3l);
+		Mockito.when(repository.atualizarStatus(filtro, ids, StatusLancamento.EFETIVADO)).thenReturn(3);
+
+		// Execução
+		int atualizados = service.atualizarStatus(filtro, ids, StatusLancamento.EFETIVADO);
+
+		// Verificacao
+		Assertions.assertThat(atualizados).isEqualTo(3);
+		Mockito.verify(saldoService).registrarAlteracaoStatus(1l);
+		Assertions.assertThat(eventos.publicados).extracting(LancamentoAlteradoEvent::getAlteracao)
+				.containsExactly(Alteracao.STATUS);
+
+	}
+
+	@Test
+	public void naoDeveNotificarQuandoNenhumLancamentoMudarDeStatus() {
+
+		// Cenario
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(1l).build());
+		filtro.setAno(2020);
+		Mockito.when(repository.atualizarStatus(filtro, null, StatusLancamento.EFETIVADO)).thenReturn(0);
+
+		// Execução
+		int atualizados = service.atualizarStatus(filtro, null, StatusLancamento.EFETIVADO);
+
+		// Verificacao
+		Assertions.assertThat(atualizados).isZero();
+		Mockito.verify(saldoService, Mockito.never()).registrarAlteracaoStatus(Mockito.any());
+		Assertions.assertThat(eventos.publicados).isEmpty();
+
+	}
+
+	@Test
+	public void naoDeveAtualizarStatusEmLoteSemUsuarioOuSemFiltro() {
+
+		// Cenario
+		Lancamento semUsuario = new Lancamento();
+		semUsuario.setAno(2020);
+		Lancamento semFiltro = new Lancamento();
+		semFiltro.setUsuario(Usuario.builder().id(1l).build());
+
+		// Execução e verificação
+		Assertions.assertThat(Assertions.catchThrowable(
+				() -> service.atualizarStatus(semUsuario, null, StatusLancamento.EFETIVADO)))
+				.isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Usuário válido.");
+		Assertions.assertThat(Assertions.catchThrowable(
+				() -> service.atualizarStatus(semFiltro, null, StatusLancamento.EFETIVADO)))
+				.isInstanceOf(RegraNegocioException.class).hasMessage("Informe os lançamentos ou o Ano a atualizar.");
+
+		Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.any(), Mockito.any(), Mockito.any());
+
+	}
+
 	@Test
 	public void deveObterUmLancamentoPorId() {
 
@@ -201,6 +474,32 @@ public class LancamentoServiceTest {
 		Assertions.assertThat(resultado.isPresent()).isFalse();
 	}
 
+	@Test
+	public void deveMontarOResumoMensalPorStatusAPartirDosTotais() {
+
+		// Cenario
+		Long idUsuario = 1l;
+		Mockito.when(repository.totalizarPorMes(idUsuario, 2020)).thenReturn(Arrays.asList(
+				new TotalMensal(3, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(1000), 1l),
+				new TotalMensal(3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(300), 2l),
+				new TotalMensal(3, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(200), 1l)));
+
+		// Execução
+		ResumoAnual resumo = service.obterResumo(idUsuario, 2020);
+
+		// Verificacao
+		Assertions.assertThat(resumo.getMeses()).hasSize(12);
+		ResumoMensal marco = resumo.getMeses().get(2);
+		Assertions.assertThat(marco.getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(500));
+		Assertions.assertThat(marco.getPorStatus().get(StatusLancamento.EFETIVADO).getSaldo())
+				.isEqualByComparingTo(BigDecimal.valueOf(700));
+		Assertions.assertThat(marco.getPorStatus().get(StatusLancamento.PENDENTE).getDespesa())
+				.isEqualByComparingTo(BigDecimal.valueOf(200));
+		Assertions.assertThat(resumo.getMeses().get(0).getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+		Assertions.assertThat(resumo.getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(500));
+
+	}
+
 	@Test
 	public void deveLancarErrosAoValidarLancamentos() {
 
@@ -246,4 +545,21 @@ public class LancamentoServiceTest {
 
 	}
 
+	private LancamentoView criarView(Long id) {
+		return new LancamentoView(id, "lançamento qualquer", 1, 2019, BigDecimal.valueOf(10), 1l,
+				TipoLancamento.RECEITA, StatusLancamento.PENDENTE, LocalDate.now());
+	}
+
+	@Configuration
+	static class EventosPublicados {
+
+		final List<LancamentoAlteradoEvent> publicados = new CopyOnWriteArrayList<>();
+
+		@EventListener
+		void registrar(LancamentoAlteradoEvent evento) {
+			publicados.add(evento);
+		}
+
+	}
+
 }
@@ -0,0 +1,149 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fmgodoi.minhasfinancas.config.ContextoShard;
+import com.fmgodoi.minhasfinancas.config.ShardDataSource;
+import com.fmgodoi.minhasfinancas.config.ShardingConfig;
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.impl.MigracaoShardServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.ResolvedorShardDiretorio;
+
+public class MigracaoShardServiceTest {
+
+	static final int SHARDS = 3;
+
+	List<DataSource> shards = new ArrayList<>();
+	ResolvedorShardDiretorio resolvedor;
+	MigracaoShardServiceImpl migracao;
+
+	@Before
+	public void setUp() {
+		for (int i = 0; i < SHARDS; i++) {
+			shards.add(ResolvedorShardTest.criarShard("shard" + i, i * ShardingConfig.FAIXA_IDS));
+		}
+		resolvedor = new ResolvedorShardDiretorio(new JdbcTemplate(shards.get(0)), SHARDS, 128, 0);
+		migracao = new MigracaoShardServiceImpl(resolvedor, shards, 0);
+	}
+
+	@After
+	public void tearDown() {
+		shards.forEach(shard -> new JdbcTemplate(shard).execute("drop all objects"));
+	}
+
+	@Test
+	public void deveGerarIdsNaFaixaDoShard() {
+		Long idUsuario = cadastrar(2, "usuario@email.com", 0);
+
+		Assertions.assertThat(idUsuario).isGreaterThan(2 * ShardingConfig.FAIXA_IDS);
+		Assertions.assertThat(jdbc(2).queryForObject("select next value for financas.lancamento_seq", Long.class))
+				.isGreaterThan(2 * ShardingConfig.FAIXA_IDS);
+	}
+
+	@Test
+	public void deveExecutarAsTransacoesNoShardDoContexto() {
+		// Cenario
+		Long idUsuario = cadastrar(1, "usuario@email.com", 2);
+		DataSource roteamento = new LazyConnectionDataSourceProxy(new ShardDataSource(shards));
+		TransactionTemplate transacao = new TransactionTemplate(new DataSourceTransactionManager(roteamento));
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(roteamento);
+
+		// Execução
+		Long noShard = ContextoShard.executar(resolvedor.shardDoUsuario(idUsuario), () -> transacao.execute(
+				status -> jdbcTemplate.queryForObject("select count(*) from financas.lancamento", Long.class)));
+		Long semContexto = jdbcTemplate.queryForObject("select count(*) from financas.lancamento", Long.class);
+
+		// Verificação
+		Assertions.assertThat(noShard).isEqualTo(2);
+		Assertions.assertThat(semContexto).isZero();
+		Assertions.assertThat(ContextoShard.atual()).isNull();
+	}
+
+	@Test
+	public void deveMoverOUsuarioComSaldoELancamentos() {
+		// Cenario
+		Long idUsuario = cadastrar(1, "usuario@email.com", 3);
+		Long outro = cadastrar(1, "outro@email.com", 1);
+
+		// Execução
+		int copiadas = migracao.mover(idUsuario, 2);
+
+		// Verificação
+		Assertions.assertThat(copiadas).isEqualTo(5);
+		Assertions.assertThat(resolvedor.shardDoUsuario(idUsuario)).isEqualTo(2);
+		Assertions.assertThat(resolvedor.isMigrando(idUsuario)).isFalse();
+		Assertions.assertThat(contar(2, "lancamento", idUsuario)).isEqualTo(3);
+		Assertions.assertThat(contar(2, "saldo_usuario", idUsuario)).isEqualTo(1);
+		Assertions.assertThat(contar(1, "lancamento", idUsuario)).isZero();
+		Assertions.assertThat(contar(1, "usuario", idUsuario)).isZero();
+		Assertions.assertThat(contar(1, "lancamento", outro)).isEqualTo(1);
+		Assertions.assertThat(jdbc(2).queryForObject("select email from financas.usuario where id = ?",
+				String.class, idUsuario)).isEqualTo("usuario@email.com");
+	}
+
+	@Test
+	public void deveManterOUsuarioNaOrigemQuandoACopiaFalhar() {
+		// Cenario
+		Long idUsuario = cadastrar(1, "usuario@email.com", 2);
+		jdbc(2).update("insert into financas.usuario (id, nome, email) values (?, 'conflito', 'conflito@email.com')",
+				idUsuario);
+
+		// Execução
+		Assertions.assertThatThrownBy(() -> migracao.mover(idUsuario, 2)).isInstanceOf(RuntimeException.class);
+
+		// Verificação
+		Assertions.assertThat(resolvedor.shardDoUsuario(idUsuario)).isEqualTo(1);
+		Assertions.assertThat(resolvedor.isMigrando(idUsuario)).isFalse();
+		Assertions.assertThat(contar(1, "lancamento", idUsuario)).isEqualTo(2);
+		Assertions.assertThat(contar(2, "lancamento", idUsuario)).isZero();
+	}
+
+	@Test
+	public void naoDeveMoverParaOShardAtual() {
+		Long idUsuario = cadastrar(1, "usuario@email.com", 0);
+
+		Assertions.assertThatThrownBy(() -> migracao.mover(idUsuario, 1)).isInstanceOf(RegraNegocioException.class);
+		Assertions.assertThatThrownBy(() -> migracao.mover(idUsuario, SHARDS))
+				.isInstanceOf(RegraNegocioException.class);
+	}
+
+	private Long cadastrar(int shard, String email, int lancamentos) {
+		JdbcTemplate jdbcTemplate = jdbc(shard);
+		jdbcTemplate.update("insert into financas.usuario (nome, email, senha) values ('usuario', ?, 'senha')", email);
+		Long idUsuario = jdbcTemplate.queryForObject("select id from financas.usuario where email = ?", Long.class,
+				email);
+		jdbcTemplate.update("insert into financas.saldo_usuario (id_usuario, receitas, despesas, quantidade, versao)"
+				+ " values (?, 0, ?, ?, 0)", idUsuario, 10 * lancamentos, lancamentos);
+		for (int i = 0; i < lancamentos; i++) {
+			jdbcTemplate.update("insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status,"
+					+ " id_usuario) values (next value for financas.lancamento_seq, 'Mercado', 1, 2020, 10,"
+					+ " 'DESPESA', 'PENDENTE', ?)", idUsuario);
+		}
+		resolvedor.registrar(Usuario.builder().id(idUsuario).email(email).build(), shard);
+		return idUsuario;
+	}
+
+	private long contar(int shard, String tabela, Long idUsuario) {
+		String coluna = tabela.equals("usuario") ? "id" : "id_usuario";
+		return jdbc(shard).queryForObject("select count(*) from financas." + tabela + " where " + coluna + " = ?",
+				Long.class, idUsuario);
+	}
+
+	private JdbcTemplate jdbc(int shard) {
+		return new JdbcTemplate(shards.get(shard));
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.projection.TotalCompetencia;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.fmgodoi.minhasfinancas.service.impl.ProjecaoSaldoServiceImpl;
+
+import model.enums.StatusLancamento;
+import model.enums.TipoLancamento;
+
+public class ProjecaoSaldoServiceTest {
+
+	LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+	LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+	RecorrenciaService recorrenciaService = Mockito.mock(RecorrenciaService.class);
+	ProjecaoSaldoServiceImpl service = new ProjecaoSaldoServiceImpl(repository, lancamentoService,
+			recorrenciaService);
+
+	@Test
+	public void deveProjetarOSaldoAcumuladoComUmaUnicaLeituraDosTotaisFuturos() {
+		// Cenario
+		YearMonth atual = YearMonth.now();
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.valueOf(1000));
+		Mockito.when(repository.percorrerTotaisPosteriores(1l, atual.getYear(), atual.getMonthValue()))
+				.thenReturn(Stream.of(
+						total(atual.plusMonths(20), TipoLancamento.DESPESA, 50),
+						total(atual.plusMonths(3), TipoLancamento.RECEITA, 500),
+						total(atual.plusMonths(1), TipoLancamento.DESPESA, 100)));
+		Mockito.when(recorrenciaService.projetar(Mockito.eq(1l), Mockito.anyInt(), Mockito.anyInt()))
+				.thenReturn(Collections.emptyList());
+
+		// Execução
+		ProjecaoSaldo projecao = service.projetar(1l, 4);
+
+		// Verificação
+		Assertions.assertThat(projecao.getSaldoAtual()).isEqualByComparingTo(BigDecimal.valueOf(650));
+		Assertions.assertThat(projecao.getMeses()).extracting(SaldoProjetado::getSaldoFinal).usingElementComparator(
+				BigDecimal::compareTo).containsExactly(BigDecimal.valueOf(550), BigDecimal.valueOf(550),
+						BigDecimal.valueOf(1050), BigDecimal.valueOf(1050));
+		Assertions.assertThat(projecao.getMeses().get(0).getDespesa()).isEqualByComparingTo(BigDecimal.valueOf(100));
+		Mockito.verify(repository).percorrerTotaisPosteriores(Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveContarOLancamentoFuturoJaEfetivadoApenasAPartirDoSeuMes() {
+		// Cenario
+		YearMonth atual = YearMonth.now();
+		Lancamento efetivado = LancamentoRepositoryTest.criarLancamento();
+		efetivado.setAno(atual.plusMonths(2).getYear());
+		efetivado.setMes(atual.plusMonths(2).getMonthValue());
+		efetivado.setTipo(TipoLancamento.RECEITA);
+		efetivado.setValor(BigDecimal.valueOf(300));
+		efetivado.setStatus(StatusLancamento.EFETIVADO);
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.valueOf(1000));
+		Mockito.when(repository.percorrerTotaisPosteriores(1l, atual.getYear(), atual.getMonthValue()))
+				.thenReturn(Stream.of(new TotalCompetencia(efetivado.getAno(), efetivado.getMes(), efetivado.getTipo(),
+						efetivado.getValor())));
+		Mockito.when(recorrenciaService.projetar(Mockito.eq(1l), Mockito.anyInt(), Mockito.anyInt()))
+				.thenReturn(Collections.emptyList());
+
+		// Execução
+		ProjecaoSaldo projecao = service.projetar(1l, 3);
+
+		// Verificação
+		Assertions.assertThat(projecao.getSaldoAtual()).isEqualByComparingTo(BigDecimal.valueOf(700));
+		Assertions.assertThat(projecao.getMeses()).extracting(SaldoProjetado::getSaldoFinal).usingElementComparator(
+				BigDecimal::compareTo).containsExactly(BigDecimal.valueOf(700), BigDecimal.valueOf(1000),
+						BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	public void deveSomarAsOcorrenciasAtrasadasAoSaldoAtual() {
+		// Cenario
+		YearMonth atual = YearMonth.now();
+		YearMonth anterior = atual.minusMonths(1);
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.valueOf(1000));
+		Mockito.when(repository.percorrerTotaisPosteriores(1l, atual.getYear(), atual.getMonthValue()))
+				.thenReturn(Stream.empty());
+		Mockito.when(recorrenciaService.projetar(Mockito.eq(1l), Mockito.anyInt(), Mockito.anyInt()))
+				.thenReturn(Collections.singletonList(new LancamentoView(null, "Aluguel", anterior.getMonthValue(),
+						anterior.getYear(), BigDecimal.valueOf(400), 1l, TipoLancamento.DESPESA,
+						StatusLancamento.PENDENTE, null)));
+
+		// Execução
+		ProjecaoSaldo projecao = service.projetar(1l, 2);
+
+		// Verificação
+		Assertions.assertThat(projecao.getSaldoAtual()).isEqualByComparingTo(BigDecimal.valueOf(600));
+		Assertions.assertThat(projecao.getMeses()).extracting(SaldoProjetado::getSaldoFinal).usingElementComparator(
+				BigDecimal::compareTo).containsExactly(BigDecimal.valueOf(600), BigDecimal.valueOf(600));
+		Assertions.assertThat(projecao.getMeses().get(0).getDespesa()).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	@Test
+	public void naoDeveProjetarMaisQueOMaximoDeMeses() {
+		Assertions.assertThatThrownBy(() -> service.projetar(1l, 121)).isInstanceOf(RegraNegocioException.class);
+		Mockito.verifyZeroInteractions(repository);
+	}
+
+	private static TotalCompetencia total(YearMonth competencia, TipoLancamento tipo, int valor) {
+		return new TotalCompetencia(competencia.getYear(), competencia.getMonthValue(), tipo, BigDecimal.valueOf(valor));
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.Recorrencia;
+import com.fmgodoi.minhasfinancas.model.projection.LancamentoView;
+import com.fmgodoi.minhasfinancas.model.repository.RecorrenciaRepository;
+import com.fmgodoi.minhasfinancas.service.impl.RecorrenciaServiceImpl;
+
+import model.enums.TipoLancamento;
+
+public class RecorrenciaServiceTest {
+
+	RecorrenciaRepository repository = Mockito.mock(RecorrenciaRepository.class);
+	LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+	ResolvedorShard resolvedorShard = Mockito.mock(ResolvedorShard.class);
+	RecorrenciaServiceImpl service = new RecorrenciaServiceImpl(repository, lancamentoService, resolvedorShard,
+			Mockito.mock(PlatformTransactionManager.class));
+
+	@Captor
+	ArgumentCaptor<List<Lancamento>> lote;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+		Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer(
+				invocacao -> new ResultadoLote(invocacao.<List<Lancamento>>getArgument(0).size(), Collections.emptyList()));
+	}
+
+	@Test
+	public void deveGerarAsParcelasPendentesEmUmUnicoLote() {
+		// Cenario
+		Recorrencia notebook = criarRecorrencia(12, true);
+		Mockito.when(repository.buscarPendentes(Mockito.eq(Recorrencia.competencia(2020, 3)), Mockito.eq(0l),
+				Mockito.any(Pageable.class))).thenReturn(Collections.singletonList(notebook));
+
+		// Execução
+		int gerados = service.gerar(2020, 3);
+
+		// Verificação
+		Mockito.verify(lancamentoService).salvarLote(lote.capture());
+		Mockito.verify(lancamentoService, Mockito.never()).salvar(Mockito.any());
+		Assertions.assertThat(gerados).isEqualTo(3);
+		Assertions.assertThat(lote.getValue()).extracting(Lancamento::getDescricao).containsExactly("Notebook 1/12",
+				"Notebook 2/12", "Notebook 3/12");
+		Assertions.assertThat(lote.getValue()).extracting(Lancamento::getMes).containsExactly(1, 2, 3);
+		Assertions.assertThat(notebook.getGeradas()).isEqualTo(3);
+		Assertions.assertThat(notebook.getProximaCompetencia()).isEqualTo(Recorrencia.competencia(2020, 4));
+	}
+
+	@Test
+	public void deveEncerrarARecorrenciaAposAUltimaOcorrencia() {
+		// Cenario
+		Recorrencia notebook = criarRecorrencia(2, true);
+		Mockito.when(repository.buscarPendentes(Mockito.anyInt(), Mockito.anyLong(), Mockito.any(Pageable.class)))
+				.thenReturn(Collections.singletonList(notebook));
+
+		// Execução
+		int gerados = service.gerar(2021, 1);
+
+		// Verificação
+		Assertions.assertThat(gerados).isEqualTo(2);
+		Assertions.assertThat(notebook.getProximaCompetencia()).isNull();
+	}
+
+	@Test
+	public void deveAdiarARecorrenciaDoUsuarioEmMigracao() {
+		// Cenario
+		Recorrencia notebook = criarRecorrencia(12, true);
+		Mockito.when(repository.buscarPendentes(Mockito.anyInt(), Mockito.anyLong(), Mockito.any(Pageable.class)))
+				.thenReturn(Collections.singletonList(notebook));
+		Mockito.when(resolvedorShard.isMigrando(1l)).thenReturn(true);
+
+		// Execução
+		int gerados = service.gerar(2020, 3);
+
+		// Verificação
+		Assertions.assertThat(gerados).isZero();
+		Assertions.assertThat(notebook.getGeradas()).isZero();
+		Mockito.verifyZeroInteractions(lancamentoService);
+	}
+
+	@Test
+	public void deveProjetarOcorrenciasFuturasSemPersistir() {
+		// Cenario
+		Recorrencia salario = criarRecorrencia(null, false);
+		salario.registrarGeradas(2);
+		Mockito.when(repository.buscarPendentesDoUsuario(1l, Recorrencia.competencia(2020, 5)))
+				.thenReturn(Collections.singletonList(salario));
+
+		// Execução
+		List<LancamentoView> projetados = service.projetar(1l, 2020, 5);
+
+		// Verificação
+		Assertions.assertThat(projetados.stream().map(LancamentoView::getMes).collect(Collectors.toList()))
+				.containsExactly(3, 4, 5);
+		Assertions.assertThat(projetados).allMatch(projetado -> projetado.getId() == null);
+		Mockito.verifyZeroInteractions(lancamentoService);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+	}
+
+	@Test
+	public void naoDeveSalvarParcelamentoSemQuantidade() {
+		Recorrencia semQuantidade = criarRecorrencia(null, true);
+
+		Assertions.assertThatThrownBy(() -> service.salvar(semQuantidade))
+				.isInstanceOf(RegraNegocioException.class).hasMessage("Informe a Quantidade de parcelas.");
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+	}
+
+	private static Recorrencia criarRecorrencia(Integer quantidade, boolean parcelada) {
+		Recorrencia recorrencia = Recorrencia.builder().id(1l).descricao(parcelada ? "Notebook" : "Salário")
+				.valor(BigDecimal.valueOf(250)).tipo(parcelada ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+				.idUsuario(1l).anoInicio(2020).mesInicio(1).quantidade(quantidade).parcelada(parcelada).build();
+		recorrencia.registrarGeradas(0);
+		return recorrencia;
+	}
+
+}
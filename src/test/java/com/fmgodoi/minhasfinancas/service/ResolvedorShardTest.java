@@ -0,0 +1,106 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.service.impl.AnelShards;
+import com.fmgodoi.minhasfinancas.service.impl.ResolvedorShardDiretorio;
+
+public class ResolvedorShardTest {
+
+	static final int EMAILS = 10000;
+
+	DataSource catalogo = criarShard("catalogo", 0);
+	JdbcTemplate jdbcTemplate = new JdbcTemplate(catalogo);
+	ResolvedorShardDiretorio resolvedor = new ResolvedorShardDiretorio(jdbcTemplate, 4, 128, 0);
+
+	@After
+	public void tearDown() {
+		jdbcTemplate.execute("drop all objects");
+	}
+
+	@Test
+	public void deveDistribuirOsUsuariosDeModoEquilibrado() {
+		AnelShards anel = new AnelShards(4, 128);
+		int[] porShard = new int[4];
+
+		for (int i = 0; i < EMAILS; i++) {
+			porShard[anel.shard("usuario" + i + "@email.com")]++;
+		}
+
+		for (int quantidade : porShard) {
+			Assertions.assertThat(quantidade).isBetween(EMAILS / 4 * 8 / 10, EMAILS / 4 * 12 / 10);
+		}
+	}
+
+	@Test
+	public void deveMoverApenasAsChavesDoNovoShardAoCrescerOAnel() {
+		AnelShards quatro = new AnelShards(4, 128);
+		AnelShards cinco = new AnelShards(5, 128);
+		Map<Integer, Integer> movidas = new HashMap<>();
+
+		for (int i = 0; i < EMAILS; i++) {
+			String email = "usuario" + i + "@email.com";
+			int antes = quatro.shard(email);
+			int depois = cinco.shard(email);
+			if (antes != depois) {
+				movidas.merge(depois, 1, Integer::sum);
+			}
+		}
+
+		Assertions.assertThat(movidas).containsOnlyKeys(4);
+		Assertions.assertThat(movidas.get(4)).isLessThan(EMAILS * 3 / 10);
+	}
+
+	@Test
+	public void deveLocalizarOUsuarioPeloDiretorio() {
+		// Cenario
+		Usuario usuario = Usuario.builder().id(7l).email("usuario@email.com").build();
+		resolvedor.registrar(usuario, 3);
+
+		// Execução e Verificação
+		Assertions.assertThat(resolvedor.shardDoUsuario(7l)).isEqualTo(3);
+		Assertions.assertThat(resolvedor.shardDoEmail("usuario@email.com")).hasValue(3);
+		Assertions.assertThat(resolvedor.shardDoEmail("outro@email.com")).isEmpty();
+		Assertions.assertThat(resolvedor.isMigrando(7l)).isFalse();
+	}
+
+	@Test
+	public void deveManterNoCatalogoOsUsuariosAnterioresAoDiretorio() {
+		jdbcTemplate.update("insert into financas.usuario (id, nome, email) values (5, 'antigo', 'antigo@email.com')");
+
+		Assertions.assertThat(resolvedor.shardDoUsuario(5l)).isEqualTo(ResolvedorShard.CATALOGO);
+		Assertions.assertThat(resolvedor.shardDoEmail("antigo@email.com")).hasValue(ResolvedorShard.CATALOGO);
+	}
+
+	@Test
+	public void naoDeveRegistrarOMesmoEmailEmDoisUsuarios() {
+		resolvedor.registrar(Usuario.builder().id(1l).email("usuario@email.com").build(), 1);
+
+		Assertions.assertThatThrownBy(
+				() -> resolvedor.registrar(Usuario.builder().id(2l).email("usuario@email.com").build(), 2))
+				.isInstanceOf(RegraNegocioException.class);
+	}
+
+	static DataSource criarShard(String nome, long inicioIds) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome
+				+ ";DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas", "sa", "sa");
+		Flyway.configure().dataSource(dataSource).schemas("financas")
+				.locations("classpath:db/migration/common", "classpath:db/migration/h2")
+				.placeholders(Collections.singletonMap("inicio_ids", String.valueOf(inicioIds))).load().migrate();
+		return dataSource;
+	}
+
+}
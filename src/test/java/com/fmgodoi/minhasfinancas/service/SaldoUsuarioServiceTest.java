@@ -0,0 +1,174 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fmgodoi.minhasfinancas.model.entity.Lancamento;
+import com.fmgodoi.minhasfinancas.model.entity.SaldoUsuario;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.projection.TotalPorTipo;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepository;
+import com.fmgodoi.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.fmgodoi.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepository;
+import com.fmgodoi.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+import model.enums.TipoLancamento;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class SaldoUsuarioServiceTest {
+
+	@SpyBean
+	SaldoUsuarioServiceImpl service;
+
+	@MockBean
+	SaldoUsuarioRepository repository;
+
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+
+	@MockBean
+	UsuarioRepository usuarioRepository;
+
+	@MockBean
+	ArquivoLancamentoService arquivo;
+
+	@Test
+	public void deveAcumularUmaReceitaNoSaldoDoUsuario() {
+		// Cenario
+		Lancamento lancamento = criarLancamentoDoUsuario(1l);
+		Mockito.when(repository.acumular(1l, BigDecimal.valueOf(10), BigDecimal.ZERO, 1l)).thenReturn(1);
+
+		// Execução
+		service.registrarInclusao(lancamento);
+
+		// Verificação
+		Mockito.verify(repository).acumular(1l, BigDecimal.valueOf(10), BigDecimal.ZERO, 1l);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+
+	@Test
+	public void deveAcumularApenasADiferencaAoAlterarUmLancamento() {
+		// Cenario
+		Lancamento lancamento = criarLancamentoDoUsuario(1l);
+		lancamento.setTipo(TipoLancamento.DESPESA);
+		lancamento.setValor(BigDecimal.valueOf(30));
+		TotalPorTipo anterior = new TotalPorTipo(1l, TipoLancamento.DESPESA, BigDecimal.valueOf(20));
+		Mockito.when(repository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.anyLong()))
+				.thenReturn(1);
+
+		// Execução
+		service.registrarAlteracao(anterior, lancamento);
+
+		// Verificação
+		Mockito.verify(repository).acumular(1l, BigDecimal.ZERO, BigDecimal.valueOf(10), 0l);
+	}
+
+	@Test
+	public void deveRecalcularOSaldoQuandoOUsuarioAindaNaoPossuiRegistro() {
+		// Cenario
+		Lancamento lancamento = criarLancamentoDoUsuario(1l);
+		Mockito.when(repository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.anyLong()))
+				.thenReturn(0);
+		Mockito.when(lancamentoRepository.totalizarPorUsuario(1l))
+				.thenReturn(Arrays.asList(new TotalPorTipo(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(100), 3l),
+						new TotalPorTipo(1l, TipoLancamento.DESPESA, BigDecimal.valueOf(40), 2l)));
+
+		// Execução
+		service.registrarInclusao(lancamento);
+
+		// Verificação
+		ArgumentCaptor<SaldoUsuario> captor = ArgumentCaptor.forClass(SaldoUsuario.class);
+		Mockito.verify(repository).criarOuAcumular(captor.capture(), Mockito.eq(BigDecimal.valueOf(10)),
+				Mockito.eq(BigDecimal.ZERO), Mockito.eq(1l));
+		Assertions.assertThat(captor.getValue().getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(60));
+		Assertions.assertThat(captor.getValue().getQuantidade()).isEqualTo(5l);
+	}
+
+	@Test
+	public void deveIncrementarAVersaoAoAlterarStatus() {
+		// Cenario
+		Mockito.when(repository.acumular(1l, BigDecimal.ZERO, BigDecimal.ZERO, 0l)).thenReturn(1);
+
+		// Execução
+		service.registrarAlteracaoStatus(1l);
+
+		// Verificação
+		Mockito.verify(repository).acumular(1l, BigDecimal.ZERO, BigDecimal.ZERO, 0l);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+
+	@Test
+	public void deveObterOSaldoRegistrado() {
+		// Cenario
+		SaldoUsuario saldo = SaldoUsuario.builder().idUsuario(1l).receitas(BigDecimal.valueOf(100))
+				.despesas(BigDecimal.valueOf(30)).quantidade(2l).versao(1l).build();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(saldo));
+
+		// Execução
+		Optional<BigDecimal> resultado = service.obterSaldo(1l);
+
+		// Verificação
+		Assertions.assertThat(resultado).contains(BigDecimal.valueOf(70));
+	}
+
+	@Test
+	public void deveRelatarECorrigirDivergenciasNaReconciliacao() {
+		// Cenario
+		SaldoUsuario registrado = SaldoUsuario.builder().idUsuario(1l).receitas(BigDecimal.valueOf(50))
+				.despesas(BigDecimal.ZERO).quantidade(1l).versao(1l).build();
+		Mockito.when(repository.findAll()).thenReturn(Collections.singletonList(registrado));
+		Mockito.when(lancamentoRepository.totalizarTodos())
+				.thenReturn(Arrays.asList(new TotalPorTipo(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(80), 2l),
+						new TotalPorTipo(2l, TipoLancamento.DESPESA, BigDecimal.valueOf(10), 1l)));
+
+		// Execução
+		List<DivergenciaSaldo> divergencias = service.reconciliar(true);
+
+		// Verificação
+		Assertions.assertThat(divergencias).extracting(DivergenciaSaldo::getIdUsuario).containsExactly(1l, 2l);
+		Assertions.assertThat(registrado.getReceitas()).isEqualByComparingTo(BigDecimal.valueOf(80));
+		Assertions.assertThat(registrado.getQuantidade()).isEqualTo(2l);
+		Mockito.verify(repository).save(Mockito.<SaldoUsuario>argThat(s -> s.getIdUsuario().equals(2l)));
+	}
+
+	@Test
+	public void deveReconciliarApenasOsArquivadosDosUsuariosDoShard() {
+		// Cenario: o usuário 3 está em outro shard, mas o arquivo é compartilhado
+		Mockito.when(repository.findAll()).thenReturn(Collections.emptyList());
+		Mockito.when(usuarioRepository.buscarIds()).thenReturn(Collections.singletonList(1l));
+		Mockito.when(arquivo.totalizarTodos())
+				.thenReturn(Arrays.asList(new TotalPorTipo(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(80), 2l),
+						new TotalPorTipo(3l, TipoLancamento.DESPESA, BigDecimal.valueOf(10), 1l)));
+
+		// Execução
+		List<DivergenciaSaldo> divergencias = service.reconciliar(true);
+
+		// Verificação
+		Assertions.assertThat(divergencias).extracting(DivergenciaSaldo::getIdUsuario).containsExactly(1l);
+		Mockito.verify(repository).save(Mockito.<SaldoUsuario>argThat(s -> s.getIdUsuario().equals(1l)));
+		Mockito.verify(repository, Mockito.never())
+				.save(Mockito.<SaldoUsuario>argThat(s -> s.getIdUsuario().equals(3l)));
+	}
+
+	private Lancamento criarLancamentoDoUsuario(Long idUsuario) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
+		return lancamento;
+	}
+
+}
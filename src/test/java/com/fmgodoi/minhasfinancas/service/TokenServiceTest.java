@@ -0,0 +1,44 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.fmgodoi.minhasfinancas.service.impl.TokenServiceImpl;
+
+public class TokenServiceTest {
+
+	TokenService service = new TokenServiceImpl("segredo-de-teste", 60);
+
+	@Test
+	public void deveValidarOTokenGerado() {
+		TokenAcesso token = service.gerarToken(7l);
+
+		Assertions.assertThat(service.validarToken(token.getValor())).hasValue(7l);
+	}
+
+	@Test
+	public void deveRejeitarTokenAdulterado() {
+		String token = service.gerarToken(7l).getValor();
+		String outro = service.gerarToken(8l).getValor();
+		String adulterado = outro.substring(0, outro.indexOf('.')) + token.substring(token.indexOf('.'));
+
+		Assertions.assertThat(service.validarToken(adulterado)).isEmpty();
+		Assertions.assertThat(service.validarToken("invalido")).isEmpty();
+		Assertions.assertThat(service.validarToken("a.b")).isEmpty();
+	}
+
+	@Test
+	public void deveRejeitarTokenAssinadoComOutroSegredo() {
+		String token = new TokenServiceImpl("outro-segredo", 60).gerarToken(7l).getValor();
+
+		Assertions.assertThat(service.validarToken(token)).isEmpty();
+	}
+
+	@Test
+	public void deveRejeitarTokenExpirado() {
+		String token = new TokenServiceImpl("segredo-de-teste", 0).gerarToken(7l).getValor();
+
+		Assertions.assertThat(service.validarToken(token)).isEmpty();
+	}
+
+}
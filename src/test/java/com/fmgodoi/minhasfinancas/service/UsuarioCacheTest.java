@@ -0,0 +1,81 @@
+package com.fmgodoi.minhasfinancas.service;
+
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fmgodoi.minhasfinancas.config.CacheConfig;
+import com.fmgodoi.minhasfinancas.model.entity.Usuario;
+import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepository;
+import com.fmgodoi.minhasfinancas.service.impl.ResolvedorShardUnico;
+import com.fmgodoi.minhasfinancas.service.impl.SenhaServiceImpl;
+import com.fmgodoi.minhasfinancas.service.impl.UsuarioServiceImpl;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest(classes = { CacheConfig.class, UsuarioServiceImpl.class, SenhaServiceImpl.class,
+		ResolvedorShardUnico.class }, properties = {
+		"spring.cache.cache-names=usuarios,usuariosPorEmail", "spring.cache.caffeine.spec=maximumSize=100" })
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class UsuarioCacheTest {
+
+	@Autowired
+	UsuarioService service;
+
+	@MockBean
+	UsuarioRepository repository;
+
+	@Test
+	public void deveConsultarOBancoApenasNaPrimeiraBuscaPorId() {
+		// Cenario
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(usuario));
+
+		// Ação
+		service.obterPorId(1l);
+		Optional<Usuario> result = service.obterPorId(1l);
+
+		// Verificação
+		Assertions.assertThat(result).contains(usuario);
+		Mockito.verify(repository, Mockito.times(1)).findById(1l);
+	}
+
+	@Test
+	public void naoDeveGuardarUsuarioInexistente() {
+		// Cenario
+		Mockito.when(repository.findById(2l)).thenReturn(Optional.empty());
+
+		// Ação
+		service.obterPorId(2l);
+		service.obterPorId(2l);
+
+		// Verificação
+		Mockito.verify(repository, Mockito.times(2)).findById(2l);
+	}
+
+	@Test
+	public void deveGuardarOUsuarioRecemCadastrado() {
+		// Cenario
+		Usuario usuario = Usuario.builder().id(3l).email("novo@email.com").build();
+		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenReturn(usuario);
+
+		// Ação
+		service.salvarUsuario(Usuario.builder().email("novo@email.com").build());
+		Optional<Usuario> result = service.obterPorId(3l);
+
+		// Verificação
+		Assertions.assertThat(result).contains(usuario);
+		Mockito.verify(repository, Mockito.never()).findById(3l);
+	}
+
+}
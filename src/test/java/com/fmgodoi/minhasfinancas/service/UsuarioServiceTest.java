@@ -6,6 +6,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
@@ -16,6 +17,7 @@ import com.fmgodoi.minhasfinancas.exception.ErroAutenticacao;
 import com.fmgodoi.minhasfinancas.exception.RegraNegocioException;
 import com.fmgodoi.minhasfinancas.model.entity.Usuario;
 import com.fmgodoi.minhasfinancas.model.repository.UsuarioRepository;
+import com.fmgodoi.minhasfinancas.service.impl.SenhaServiceImpl;
 import com.fmgodoi.minhasfinancas.service.impl.UsuarioServiceImpl;
 
 @RunWith(SpringRunner.class)
@@ -28,6 +30,12 @@ public class UsuarioServiceTest {
 	@MockBean
 	UsuarioRepository repository;
 
+	@SpyBean
+	SenhaServiceImpl senhaService;
+
+	@MockBean
+	ResolvedorShard resolvedorShard;
+
 	@Test(expected = Test.None.class)
 	public void deveSalvarUmUsuario() {
 
@@ -81,6 +89,57 @@ public class UsuarioServiceTest {
 
 	}
 
+	@Test
+	public void deveGravarOHashDaSenhaAoSalvarUmUsuario() {
+
+		// Cenario
+		Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+		Usuario usuario = Usuario.builder().nome("nome").email("email@email.com").senha("senha").build();
+		Mockito.when(repository.save(usuario)).thenReturn(usuario);
+
+		// Acao
+		Usuario usuarioSalvo = service.salvarUsuario(usuario);
+
+		// Verificacao
+		Assertions.assertThat(usuarioSalvo.getSenha()).isNotEqualTo("senha").startsWith("$2a$");
+		Assertions.assertThat(senhaService.conferir("senha", usuarioSalvo.getSenha())).isTrue();
+
+	}
+
+	@Test
+	public void deveSubstituirASenhaEmTextoPuroPeloHashAoAutenticar() {
+
+		// Cenario
+		Usuario usuario = Usuario.builder().id(1l).email("email@email.com").senha("senha").build();
+		Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+
+		// Acao
+		service.autenticar("email@email.com", "senha");
+
+		// Verificacao
+		ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+		Mockito.verify(repository).atualizarSenha(Mockito.eq(1l), Mockito.eq("email@email.com"), hash.capture());
+		Assertions.assertThat(senhaService.conferir("senha", hash.getValue())).isTrue();
+
+	}
+
+	@Test
+	public void deveAutenticarComASenhaJaCodificadaSemRegravarOHash() {
+
+		// Cenario
+		Usuario usuario = Usuario.builder().id(1l).email("email@email.com").senha(senhaService.codificar("senha"))
+				.build();
+		Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+
+		// Acao
+		Usuario result = service.autenticar("email@email.com", "senha");
+
+		// Verificacao
+		Assertions.assertThat(result).isEqualTo(usuario);
+		Mockito.verify(repository, Mockito.never()).atualizarSenha(Mockito.any(), Mockito.any(), Mockito.any());
+
+	}
+
 	@Test
 	public void deveLancarErroQuandoNaoEncontrarUsuarioCadastradoComOEmailInformado() {
 